@@ -0,0 +1,31 @@
+package cz.upce.fei.redsys.cache;
+
+/**
+ * Announces that node-local cached data about an article, category or user is stale. Services
+ * publish it when they change data that such caches hold. With cache invalidation enabled it is
+ * forwarded to the other nodes, where it is published again with {@code remote} set; listeners
+ * only need to react to remote events, as the local caches were already updated. A {@code null}
+ * id stands for every entry of the region, {@link #ALL} for every region.
+ */
+public record CacheInvalidationEvent(String region, Long id, boolean remote) {
+
+    public static final String ARTICLE = "article";
+    public static final String CATEGORY = "category";
+    public static final String USER = "user";
+    public static final String ALL = "all";
+
+    public static CacheInvalidationEvent local(String region, Long id) {
+        return new CacheInvalidationEvent(region, id, false);
+    }
+
+    /**
+     * Whether a remote event makes entries of the given region stale.
+     */
+    public boolean remoteFor(String cacheRegion) {
+        return remote && (region.equals(cacheRegion) || region.equals(ALL));
+    }
+
+    public boolean allEntries() {
+        return id == null || region.equals(ALL);
+    }
+}
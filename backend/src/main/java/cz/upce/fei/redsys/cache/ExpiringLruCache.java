@@ -0,0 +1,147 @@
+package cz.upce.fei.redsys.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Small in-process cache bounded both by entry count (least recently used entries are dropped first)
+ * and by time to live. Loaders run outside the lock; a value loaded while the cache was being
+ * invalidated is not stored, so an eviction can never be overwritten by a stale read. The lock is
+ * a {@link ReentrantLock} rather than a monitor, so virtual threads waiting for it do not pin their
+ * carrier thread.
+ */
+public class ExpiringLruCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final Clock clock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long generation;
+
+    public ExpiringLruCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, Clock.systemUTC());
+    }
+
+    public ExpiringLruCache(int maxSize, Duration ttl, Clock clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > ExpiringLruCache.this.maxSize;
+            }
+        };
+    }
+
+    public V get(K key) {
+        lock.lock();
+        try {
+            return getLocked(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        long loadGeneration;
+        lock.lock();
+        try {
+            V cached = getLocked(key);
+            if (cached != null) {
+                return cached;
+            }
+            loadGeneration = generation;
+        } finally {
+            lock.unlock();
+        }
+
+        V loaded = loader.apply(key);
+        if (loaded != null) {
+            lock.lock();
+            try {
+                if (generation == loadGeneration) {
+                    entries.put(key, new Entry<>(loaded, clock.millis() + ttlMillis));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return loaded;
+    }
+
+    public void put(K key, V value) {
+        lock.lock();
+        try {
+            entries.put(key, new Entry<>(value, clock.millis() + ttlMillis));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(K key, V value, Instant expiresAt) {
+        long expiry = Math.min(expiresAt.toEpochMilli(), clock.millis() + ttlMillis);
+        lock.lock();
+        try {
+            entries.put(key, new Entry<>(value, expiry));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            generation++;
+            entries.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            generation++;
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private V getLocked(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(clock.millis())) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value();
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package cz.upce.fei.redsys.components;
+
+import cz.upce.fei.redsys.domain.ArticleVersion;
+import cz.upce.fei.redsys.domain.CompressedTextConverter;
+import cz.upce.fei.redsys.repository.ArticleVersionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Compresses article versions written before compression was enabled, a batch at a time. Rows
+ * that do not get smaller are skipped; the position is kept in memory, so after a restart the
+ * table is walked once more to pick up rows written while compression was off.
+ */
+@Component
+@ConditionalOnProperty(name = "articles.versions.compression.enabled", havingValue = "true")
+@Slf4j
+public class ArticleContentRecompressor {
+
+    private final ArticleVersionRepository versionRepository;
+    private final CompressedTextConverter converter;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private long lastId;
+
+    public ArticleContentRecompressor(ArticleVersionRepository versionRepository,
+                                      CompressedTextConverter converter,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${articles.versions.compression.batch-size:100}") int batchSize) {
+        this.versionRepository = versionRepository;
+        this.converter = converter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${articles.versions.compression.interval:PT10M}", initialDelayString = "PT1M")
+    public void recompress() {
+        int compressed = 0;
+        BatchResult result;
+        do {
+            result = transactionTemplate.execute(status -> recompressBatch());
+            compressed += result.compressed();
+        } while (result.found() == batchSize);
+
+        if (compressed > 0) {
+            log.info("Compressed {} article versions", compressed);
+        }
+    }
+
+    private BatchResult recompressBatch() {
+        List<Long> ids = versionRepository.findUncompressedIdsAfter(lastId, PageRequest.of(0, batchSize));
+        int compressed = 0;
+        for (ArticleVersion version : versionRepository.findAllById(ids)) {
+            String column = converter.convertToDatabaseColumn(version.getStoredContent());
+            if (CompressedTextConverter.isCompressed(column)) {
+                compressed += versionRepository.updateStoredColumn(version.getId(), column);
+            }
+        }
+        if (!ids.isEmpty()) {
+            lastId = ids.getLast();
+        }
+        return new BatchResult(ids.size(), compressed);
+    }
+
+    private record BatchResult(int found, int compressed) {
+    }
+}
@@ -0,0 +1,60 @@
+package cz.upce.fei.redsys.components;
+
+import cz.upce.fei.redsys.repository.ArticleVersionRepository;
+import cz.upce.fei.redsys.service.VersionRetentionPolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Applies {@link VersionRetentionPolicy} to article versions one article at a time. Deletes are
+ * split into small batches, each in its own transaction, so editors saving at the same time are
+ * not blocked behind one long delete.
+ */
+@Component
+@ConditionalOnProperty(name = "articles.versions.retention.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ArticleVersionPruner {
+
+    private final ArticleVersionRepository versionRepository;
+    private final VersionRetentionPolicy policy;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public ArticleVersionPruner(ArticleVersionRepository versionRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${articles.versions.retention.keep-all:P30D}") Duration keepAll,
+                                @Value("${articles.versions.retention.keep-daily:P180D}") Duration keepDaily,
+                                @Value("${articles.versions.retention.batch-size:100}") int batchSize) {
+        this.versionRepository = versionRepository;
+        this.policy = new VersionRetentionPolicy(keepAll, keepDaily);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${articles.versions.retention.interval:PT6H}", initialDelayString = "PT5M")
+    public void prune() {
+        Instant now = Instant.now();
+        int deleted = 0;
+        for (Long articleId : versionRepository.findArticleIdsWithVersionsBefore(now.minus(policy.keepAll()))) {
+            List<Long> ids = policy.selectForDeletion(versionRepository.findRetentionCandidates(articleId), now);
+            for (int from = 0; from < ids.size(); from += batchSize) {
+                List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+                transactionTemplate.executeWithoutResult(status -> versionRepository.deleteAllByIdInBatch(batch));
+                deleted += batch.size();
+            }
+        }
+
+        if (deleted > 0) {
+            log.info("Pruned {} article versions", deleted);
+        }
+    }
+}
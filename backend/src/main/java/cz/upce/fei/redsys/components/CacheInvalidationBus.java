@@ -0,0 +1,252 @@
+package cz.upce.fei.redsys.components;
+
+import cz.upce.fei.redsys.cache.CacheInvalidationEvent;
+import cz.upce.fei.redsys.domain.Category;
+import cz.upce.fei.redsys.domain.User;
+import cz.upce.fei.redsys.security.PrincipalCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps the caches of several application nodes consistent. Inserting, updating or deleting a
+ * cached entity, and every {@link CacheInvalidationEvent} for the node-local application caches,
+ * sends a Postgres NOTIFY from the writing transaction, so it is only delivered once that
+ * transaction commits. Every other node listens on the channel, evicts the entity from its own
+ * second-level cache and publishes the event again as a remote one for the application caches. A
+ * node that loses its listening connection drops all cached data after reconnecting, because
+ * messages sent in the meantime are lost.
+ */
+@Component
+@ConditionalOnProperty(name = "cache.invalidation.enabled", havingValue = "true")
+@Slf4j
+public class CacheInvalidationBus implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    static final String CHANNEL = "redsys_cache";
+    private static final String ALL_IDS = "*";
+
+    // Application cache regions holding data of cached entities
+    private static final Map<String, String> ENTITY_REGIONS = Map.of(
+            User.class.getName(), CacheInvalidationEvent.USER,
+            Category.class.getName(), CacheInvalidationEvent.CATEGORY
+    );
+
+    private final DataSource dataSource;
+    private final SessionFactoryImplementor sessionFactory;
+    private final EntityManager entityManager;
+    private final PrincipalCache principalCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration pollTimeout;
+    private final Duration reconnectDelay;
+    private final String nodeId = UUID.randomUUID().toString();
+    private volatile boolean running;
+    private Thread listener;
+
+    public CacheInvalidationBus(DataSource dataSource,
+                                EntityManagerFactory entityManagerFactory,
+                                PrincipalCache principalCache,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${cache.invalidation.poll-timeout:PT10S}") Duration pollTimeout,
+                                @Value("${cache.invalidation.reconnect-delay:PT5S}") Duration reconnectDelay) {
+        this.dataSource = dataSource;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        this.principalCache = principalCache;
+        this.eventPublisher = eventPublisher;
+        this.pollTimeout = pollTimeout;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    @PostConstruct
+    void registerListeners() {
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        listener = Thread.ofPlatform().name("cache-invalidation").daemon().start(this::listen);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    // Inserts are sent too, so other nodes can add the entity to their suggestion indexes
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        publish(event.getSession(), event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(event.getSession(), event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(event.getSession(), event.getPersister(), event.getId());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    @EventListener
+    public void forward(CacheInvalidationEvent event) {
+        if (event.remote()) {
+            return;
+        }
+        String payload = payload(event.region(), event.id());
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            entityManager.unwrap(Session.class).doWork(connection -> notify(connection, payload));
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            notify(connection, payload);
+        } catch (SQLException e) {
+            log.warn("Cannot send cache invalidation '{}'", payload, e);
+        }
+    }
+
+    String nodeId() {
+        return nodeId;
+    }
+
+    private void publish(EventSource session, EntityPersister persister, Object id) {
+        if (!persister.canWriteToCache()) {
+            return;
+        }
+        String payload = payload(persister.getEntityName(), id);
+        session.doWork(connection -> notify(connection, payload));
+    }
+
+    private String payload(String kind, Object id) {
+        return nodeId + ' ' + kind + ' ' + (id != null ? id : ALL_IDS);
+    }
+
+    private static void notify(Connection connection, String payload) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            statement.setString(1, CHANNEL);
+            statement.setString(2, payload);
+            statement.execute();
+        }
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (reconnecting) {
+                    evictAll();
+                }
+                log.info("Listening for cache invalidations on channel '{}'", CHANNEL);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeout.toMillis());
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handle(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener lost its connection, reconnecting in {}", reconnectDelay, e);
+                reconnecting = true;
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    void handle(String payload) {
+        String[] parts = payload.split(" ", 3);
+        if (parts.length != 3 || parts[0].equals(nodeId)) {
+            return;
+        }
+        String kind = parts[1];
+        // Every cached entity and application cache entry has a Long id
+        Long id = parts[2].equals(ALL_IDS) ? null : Long.valueOf(parts[2]);
+        String region = ENTITY_REGIONS.getOrDefault(kind, kind);
+        log.debug("Evicting {} {} changed on another node", kind, id != null ? id : ALL_IDS);
+        switch (region) {
+            case CacheInvalidationEvent.USER -> {
+                evictEntityData(User.class.getName(), id);
+                // Principals are cached by username, which the message does not carry
+                principalCache.evictAll();
+            }
+            // Category counters are also written by bulk updates, which bypass the entity listeners
+            case CacheInvalidationEvent.CATEGORY -> evictEntityData(Category.class.getName(), id);
+            case CacheInvalidationEvent.ARTICLE -> {}
+            default -> evictEntityData(kind, id);
+        }
+        eventPublisher.publishEvent(new CacheInvalidationEvent(region, id, true));
+    }
+
+    private void evictEntityData(String entityName, Long id) {
+        if (id == null) {
+            sessionFactory.getCache().evictEntityData(entityName);
+        } else {
+            sessionFactory.getCache().evictEntityData(entityName, id);
+        }
+    }
+
+    private void evictAll() {
+        log.info("Dropping cached entities after reconnecting");
+        sessionFactory.getCache().evictAllRegions();
+        principalCache.evictAll();
+        eventPublisher.publishEvent(new CacheInvalidationEvent(CacheInvalidationEvent.ALL, null, true));
+    }
+}
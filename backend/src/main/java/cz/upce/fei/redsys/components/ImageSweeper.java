@@ -0,0 +1,80 @@
+package cz.upce.fei.redsys.components;
+
+import cz.upce.fei.redsys.domain.Image;
+import cz.upce.fei.redsys.repository.ImageRepository;
+import cz.upce.fei.redsys.service.FileStorageService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Removes images marked as deleted, each file together with its row. Runs outside of request
+ * handling so deleting a large part of the media library stays cheap for the caller.
+ */
+@Component
+@Slf4j
+public class ImageSweeper {
+
+    private final ImageRepository imageRepository;
+    private final FileStorageService fileStorageService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public ImageSweeper(ImageRepository imageRepository,
+                        FileStorageService fileStorageService,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${app.storage.sweeper.batch-size:200}") int batchSize) {
+        this.imageRepository = imageRepository;
+        this.fileStorageService = fileStorageService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${app.storage.sweeper.interval:PT1M}", initialDelayString = "${app.storage.sweeper.interval:PT1M}")
+    public void sweep() {
+        int removed = 0;
+        int found;
+        int batchRemoved;
+        do {
+            List<Long> ids = imageRepository.findDeletedIds(Limit.of(batchSize));
+            found = ids.size();
+            batchRemoved = 0;
+            for (Long id : ids) {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> sweepImage(id)))) {
+                    batchRemoved++;
+                }
+            }
+            removed += batchRemoved;
+            // Images that were kept would be listed again, so the next batch waits for the next run
+        } while (found == batchSize && batchRemoved == found);
+
+        if (removed > 0) {
+            log.info("Removed {} deleted images", removed);
+        }
+    }
+
+    // One row is locked only while its own file is removed. An upload of the same content revives the
+    // row before that, or waits and then finds neither row nor file and stores both afresh
+    private boolean sweepImage(Long id) {
+        Image image = imageRepository.findDeletedByIdForUpdate(id).orElse(null);
+        if (image == null) {
+            // Revived by an upload since it was listed
+            return false;
+        }
+        try {
+            fileStorageService.delete(image.getFilename());
+        } catch (RuntimeException e) {
+            // The row stays marked and the file is retried on the next run
+            log.warn("Could not delete file {}: {}", image.getFilename(), e.getMessage());
+            return false;
+        }
+        imageRepository.delete(image);
+        return true;
+    }
+}
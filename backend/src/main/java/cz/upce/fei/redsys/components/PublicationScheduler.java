@@ -0,0 +1,144 @@
+package cz.upce.fei.redsys.components;
+
+import cz.upce.fei.redsys.domain.TicketState;
+import cz.upce.fei.redsys.repository.TicketRepository;
+import cz.upce.fei.redsys.service.WorkflowService;
+import cz.upce.fei.redsys.service.WorkflowService.PublicationScheduled;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Publishes approved tickets at their scheduled time. Publications due within the horizon are
+ * kept in a queue ordered by time with a single timer armed for the earliest one; when it fires,
+ * everything due by then is published together in batches, falling back to one transaction per
+ * ticket for a batch that fails. The queue is rebuilt from the database periodically, which also
+ * picks up anything missed while the application was down.
+ */
+@Component
+@Slf4j
+public class PublicationScheduler {
+
+    private final TicketRepository ticketRepository;
+    private final WorkflowService workflowService;
+    private final TaskScheduler taskScheduler;
+    private final Duration horizon;
+    private final int batchSize;
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(
+            Comparator.comparing(Entry::publishAt).thenComparing(Entry::ticketId));
+    private ScheduledFuture<?> timer;
+    private Instant timerAt;
+
+    public PublicationScheduler(TicketRepository ticketRepository,
+                                WorkflowService workflowService,
+                                TaskScheduler taskScheduler,
+                                @Value("${articles.publishing.horizon:PT24H}") Duration horizon,
+                                @Value("${articles.publishing.batch-size:50}") int batchSize) {
+        this.ticketRepository = ticketRepository;
+        this.workflowService = workflowService;
+        this.taskScheduler = taskScheduler;
+        this.horizon = horizon;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${articles.publishing.resync-interval:PT5M}")
+    public void resync() {
+        List<Entry> entries = ticketRepository
+                .findScheduledPublications(TicketState.APPROVED, Instant.now().plus(horizon)).stream()
+                .map(publication -> new Entry(publication.getScheduledPublishAt(), publication.getId()))
+                .toList();
+        synchronized (this) {
+            queue.clear();
+            queue.addAll(entries);
+            arm();
+        }
+        log.debug("Publication queue resynced with {} tickets", entries.size());
+    }
+
+    @TransactionalEventListener
+    public void onPublicationScheduled(PublicationScheduled event) {
+        // Later publications are picked up by a resync once they come within the horizon
+        if (event.publishAt().isAfter(Instant.now().plus(horizon))) {
+            return;
+        }
+        synchronized (this) {
+            queue.add(new Entry(event.publishAt(), event.ticketId()));
+            arm();
+        }
+    }
+
+    private void fire() {
+        Instant now = Instant.now();
+        Set<Long> due = new LinkedHashSet<>();
+        synchronized (this) {
+            while (!queue.isEmpty() && !queue.peek().publishAt().isAfter(now)) {
+                due.add(queue.poll().ticketId());
+            }
+            arm();
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids = new ArrayList<>(due);
+        int published = 0;
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            try {
+                published += workflowService.publishDue(batch, now);
+            } catch (RuntimeException e) {
+                log.warn("Scheduled publication of tickets {} failed, publishing them one by one", batch, e);
+                published += publishEach(batch, now);
+            }
+        }
+        log.info("Published {} of {} scheduled tickets", published, ids.size());
+    }
+
+    // Each ticket gets its own transaction, so one broken ticket no longer holds back the rest of its batch
+    private int publishEach(List<Long> batch, Instant now) {
+        int published = 0;
+        for (Long ticketId : batch) {
+            try {
+                published += workflowService.publishDue(List.of(ticketId), now);
+            } catch (RuntimeException e) {
+                // The ticket stays approved and scheduled, so the next resync queues it again
+                log.error("Scheduled publication of ticket ({}) failed", ticketId, e);
+            }
+        }
+        return published;
+    }
+
+    // Keeps the one timer pointed at the earliest entry; callers hold the lock
+    private void arm() {
+        Entry head = queue.peek();
+        if (timer != null && !timer.isDone()) {
+            if (head != null && head.publishAt().equals(timerAt)) {
+                return;
+            }
+            timer.cancel(false);
+        }
+        timer = null;
+        timerAt = null;
+        if (head != null) {
+            timerAt = head.publishAt();
+            timer = taskScheduler.schedule(this::fire, timerAt);
+        }
+    }
+
+    private record Entry(Instant publishAt, Long ticketId) {
+    }
+}
@@ -0,0 +1,16 @@
+package cz.upce.fei.redsys.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+public class ClockConfig {
+
+    // Injected where expiry is decided, so tests can move time instead of waiting for it
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+}
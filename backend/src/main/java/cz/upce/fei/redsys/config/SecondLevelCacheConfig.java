@@ -0,0 +1,36 @@
+package cz.upce.fei.redsys.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.io.IOException;
+
+/**
+ * Gives each application context its own JCache manager for Hibernate's second-level cache. The
+ * caching provider keeps one manager per configuration URI and class loader, so two contexts in
+ * the same JVM, such as test contexts with different mocks, would otherwise share cached entities
+ * that belong to different databases.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${spring.jpa.properties.hibernate.javax.cache.provider}") String provider,
+            @Value("${spring.jpa.properties.hibernate.javax.cache.uri}") String configuration) throws IOException {
+        ClassLoader contextLoader = new ClassLoader(getClass().getClassLoader()) {
+        };
+        return Caching.getCachingProvider(provider)
+                .getCacheManager(new ClassPathResource(configuration).getURI(), contextLoader);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManager(CacheManager hibernateCacheManager) {
+        return properties -> properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+    }
+}
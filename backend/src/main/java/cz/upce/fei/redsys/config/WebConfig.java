@@ -0,0 +1,19 @@
+package cz.upce.fei.redsys.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+@Configuration
+public class WebConfig {
+
+    // Categories have no version column, so their ETag is a hash of the (small) response body
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> categoryEtagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns("/api/categories", "/api/categories/*");
+        registration.setName("categoryEtagFilter");
+        return registration;
+    }
+}
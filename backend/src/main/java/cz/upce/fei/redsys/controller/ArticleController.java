@@ -3,10 +3,14 @@ package cz.upce.fei.redsys.controller;
 import cz.upce.fei.redsys.dto.ArticleDto.*;
 import cz.upce.fei.redsys.dto.ErrorDto.ErrorResponse;
 import cz.upce.fei.redsys.dto.ErrorDto.ValidationErrorResponse;
+import cz.upce.fei.redsys.dto.SearchDto.SearchResponse;
 import cz.upce.fei.redsys.security.annotation.ArticlePermissions.CanCreateArticle;
 import cz.upce.fei.redsys.security.annotation.ArticlePermissions.CanDeleteArticle;
 import cz.upce.fei.redsys.security.annotation.ArticlePermissions.CanEditArticle;
+import cz.upce.fei.redsys.service.ArticleSearchService;
 import cz.upce.fei.redsys.service.ArticleService;
+import cz.upce.fei.redsys.service.PublishedArticleService;
+import cz.upce.fei.redsys.service.PublishedArticleService.PublishedDocument;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -22,10 +26,12 @@ import org.springframework.data.web.PageableDefault;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
 import java.net.URI;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping(value = "/api/articles", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -44,6 +50,8 @@ import java.util.List;
 public class ArticleController {
 
     private final ArticleService articleService;
+    private final PublishedArticleService publishedArticleService;
+    private final ArticleSearchService articleSearchService;
 
     @Operation(summary = "Create article", description = "Create a new article", operationId = "createArticle")
     @ApiResponses({
@@ -68,8 +76,22 @@ public class ArticleController {
                     content = @Content(schema = @Schema(implementation = ArticleDetailResponse.class)))
     })
     @GetMapping("/{id}")
-    public ResponseEntity<ArticleDetailResponse> get(@PathVariable Long id) {
+    public ResponseEntity<?> get(@PathVariable Long id, WebRequest request) {
         log.debug("GET /api/articles/{}", id);
+        Optional<PublishedDocument> published = publishedArticleService.findPublished(id);
+        if (published.isPresent()) {
+            PublishedDocument document = published.get();
+            if (isNotModified(request, document.validator())) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(document.json());
+        }
+
+        if (isNotModified(request, articleService.getCacheValidator(id))) {
+            return null;
+        }
         return ResponseEntity.ok(articleService.get(id));
     }
 
@@ -86,6 +108,44 @@ public class ArticleController {
         return ResponseEntity.ok(articleService.list(pageable, categoryIds));
     }
 
+    @Operation(summary = "Scroll articles",
+            description = "List articles with a publication date, newest first, continuing after the given cursor. No total count is computed.",
+            operationId = "scrollArticles")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Articles found",
+                    content = @Content(schema = @Schema(implementation = ArticleSliceResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping("/scroll")
+    public ResponseEntity<ArticleSliceResponse> scroll(
+            @RequestParam(required = false) @Parameter(description = "Cursor returned by the previous page") String cursor,
+            @RequestParam(defaultValue = "20") @Parameter(description = "Page size, at most 100") int size,
+            @RequestParam(required = false) @Parameter(description = "Filter by category IDs (can be multiple)") List<Long> categoryIds) {
+        log.debug("GET /api/articles/scroll: cursor={}, size={}, categoryIds={}", cursor, size, categoryIds);
+        return ResponseEntity.ok(articleService.scroll(cursor, size, categoryIds));
+    }
+
+    @Operation(summary = "Search articles",
+            description = "Full-text search over article titles and text. Every word of the query must match; results are ranked " +
+                    "by relevance and carry an excerpt with matches wrapped in <mark>. Facets count matches per category.",
+            operationId = "searchArticles")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Search results",
+                    content = @Content(schema = @Schema(implementation = SearchResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Empty query",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping("/search")
+    public ResponseEntity<SearchResponse> search(
+            @RequestParam @Parameter(description = "Words to search for") String q,
+            @RequestParam(required = false) @Parameter(description = "Filter by category IDs (can be multiple)") List<Long> categoryIds,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") @Parameter(description = "Page size, at most 100") int size) {
+        log.debug("GET /api/articles/search: q={}, categoryIds={}, page={}, size={}", q, categoryIds, page, size);
+        return ResponseEntity.ok(articleSearchService.search(q, categoryIds, page, size));
+    }
+
     @Operation(summary = "Update article", description = "Update article fields", operationId = "updateArticle")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Article updated",
@@ -113,4 +173,9 @@ public class ArticleController {
         articleService.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    // Also writes the ETag and Last-Modified headers; a true result means the 304 is already prepared
+    private boolean isNotModified(WebRequest request, CacheValidator validator) {
+        return request.checkNotModified(validator.etag(), validator.lastModified().toEpochMilli());
+    }
 }
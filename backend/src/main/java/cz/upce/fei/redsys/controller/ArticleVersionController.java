@@ -3,9 +3,12 @@ package cz.upce.fei.redsys.controller;
 import cz.upce.fei.redsys.domain.Article;
 import cz.upce.fei.redsys.domain.ArticleVersion;
 import cz.upce.fei.redsys.dto.ArticleVersionDto;
+import cz.upce.fei.redsys.dto.ArticleVersionDto.ArticleVersionDiffResponse;
 import cz.upce.fei.redsys.dto.ArticleVersionDto.ArticleVersionResponse;
+import cz.upce.fei.redsys.dto.ArticleVersionDto.DiffSegment;
 import cz.upce.fei.redsys.dto.ArticleVersionDto.PaginatedArticleVersionResponse;
 import cz.upce.fei.redsys.dto.ErrorDto.ErrorResponse;
+import cz.upce.fei.redsys.service.ArticleDiffService;
 import cz.upce.fei.redsys.service.ArticleService;
 import cz.upce.fei.redsys.service.ArticleVersionService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -22,6 +25,9 @@ import org.springframework.data.web.PageableDefault;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
 
 @RestController
 @RequestMapping(value = "/api/articles/{articleId}/versions", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -41,6 +47,7 @@ public class ArticleVersionController {
 
     private final ArticleService articleService;
     private final ArticleVersionService articleVersionService;
+    private final ArticleDiffService articleDiffService;
 
     @Operation(summary = "List versions", description = "Get paginated history of versions for an article (without content).", operationId = "listArticleVersions")
     @ApiResponses({
@@ -64,10 +71,41 @@ public class ArticleVersionController {
     @GetMapping("/{versionNumber}")
     public ResponseEntity<ArticleVersionResponse> get(
             @PathVariable Long articleId,
-            @PathVariable Integer versionNumber) {
+            @PathVariable Integer versionNumber,
+            WebRequest request) {
         log.debug("GET /api/articles/{}/versions/{}", articleId, versionNumber);
         Article article = articleService.requireArticleById(articleId);
+        articleVersionService.requireVersionExists(article, versionNumber);
+        if (request.checkNotModified(ArticleVersionDto.etag(articleId, versionNumber))) {
+            return null;
+        }
         ArticleVersion version = articleVersionService.getVersion(article, versionNumber);
         return ResponseEntity.ok(ArticleVersionDto.toResponse(version, true));
     }
+
+    @Operation(summary = "Diff versions",
+            description = "Token-level diff turning version {from} into version {to}. Tags are never split, so segments can be rendered as HTML.",
+            operationId = "diffArticleVersions")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Diff computed",
+                    content = @Content(schema = @Schema(implementation = ArticleVersionDiffResponse.class))),
+            @ApiResponse(responseCode = "304", description = "Diff not modified")
+    })
+    @GetMapping("/{from}/diff/{to}")
+    public ResponseEntity<ArticleVersionDiffResponse> diff(
+            @PathVariable Long articleId,
+            @PathVariable Integer from,
+            @PathVariable Integer to,
+            WebRequest request) {
+        log.debug("GET /api/articles/{}/versions/{}/diff/{}", articleId, from, to);
+        Article article = articleService.requireArticleById(articleId);
+        articleVersionService.requireVersionExists(article, from);
+        articleVersionService.requireVersionExists(article, to);
+        if (request.checkNotModified(ArticleVersionDto.diffEtag(articleId, from, to))) {
+            return null;
+        }
+
+        List<DiffSegment> segments = articleDiffService.diff(article, from, to);
+        return ResponseEntity.ok(new ArticleVersionDiffResponse(articleId, from, to, segments));
+    }
 }
\ No newline at end of file
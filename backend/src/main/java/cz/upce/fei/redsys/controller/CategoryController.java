@@ -1,5 +1,6 @@
 package cz.upce.fei.redsys.controller;
 
+import cz.upce.fei.redsys.dto.CategoryDto.CategoryOverviewListResponse;
 import cz.upce.fei.redsys.dto.CategoryDto.CategoryResponse;
 import cz.upce.fei.redsys.dto.CategoryDto.CreateCategoryRequest;
 import cz.upce.fei.redsys.dto.CategoryDto.PaginatedCategoryResponse;
@@ -7,6 +8,7 @@ import cz.upce.fei.redsys.dto.CategoryDto.UpdateCategoryRequest;
 import cz.upce.fei.redsys.dto.ErrorDto.ErrorResponse;
 import cz.upce.fei.redsys.dto.ErrorDto.ValidationErrorResponse;
 import cz.upce.fei.redsys.security.annotation.CategoryPermissions.CanManageCategory;
+import cz.upce.fei.redsys.service.CategoryOverviewService;
 import cz.upce.fei.redsys.service.CategoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -41,6 +43,7 @@ import java.net.URI;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final CategoryOverviewService categoryOverviewService;
 
     @Operation(summary = "Create category", description = "Create a new category.", operationId = "createCategory")
     @ApiResponses({
@@ -62,6 +65,20 @@ public class CategoryController {
                 .body(created);
     }
 
+    @Operation(summary = "Category overview",
+            description = "All categories with the number of published articles, the time of the last publication and the " +
+                    "newest published articles of each.",
+            operationId = "getCategoryOverview")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Category overview",
+                    content = @Content(schema = @Schema(implementation = CategoryOverviewListResponse.class)))
+    })
+    @GetMapping("/overview")
+    public ResponseEntity<CategoryOverviewListResponse> overview() {
+        log.debug("GET /api/categories/overview");
+        return ResponseEntity.ok(categoryOverviewService.overview());
+    }
+
     @Operation(summary = "Get category", description = "Get a category by ID", operationId = "getCategory")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Category found",
@@ -5,8 +5,12 @@ import cz.upce.fei.redsys.dto.CategoryDto;
 import cz.upce.fei.redsys.dto.ErrorDto.ErrorResponse;
 import cz.upce.fei.redsys.dto.ImageDto;
 import cz.upce.fei.redsys.dto.ImageDto.ImageResponse;
+import cz.upce.fei.redsys.dto.ImageDto.BulkDeleteImagesRequest;
+import cz.upce.fei.redsys.dto.ImageDto.BulkDeleteImagesResponse;
 import cz.upce.fei.redsys.dto.ImageDto.DownloadResource;
+import cz.upce.fei.redsys.dto.ImageDto.VariantResource;
 import cz.upce.fei.redsys.service.ImageService;
+import cz.upce.fei.redsys.service.ImageVariantService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -14,21 +18,27 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import cz.upce.fei.redsys.security.annotation.ImagePermissions.CanDeleteImage;
 import cz.upce.fei.redsys.security.annotation.ImagePermissions.CanUploadImage;
 
+import java.io.IOException;
 import java.net.URI;
+import java.util.concurrent.TimeUnit;
 
 import static cz.upce.fei.redsys.dto.ImageDto.toResponse;
 
@@ -44,7 +54,10 @@ import static cz.upce.fei.redsys.dto.ImageDto.toResponse;
 })
 public class ImageController {
 
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
     private final ImageService imageService;
+    private final ImageVariantService imageVariantService;
 
     @Operation(summary = "Upload image", description = "Upload a new image file", operationId = "uploadImage")
     @ApiResponses({
@@ -63,23 +76,62 @@ public class ImageController {
                 .body(response);
     }
 
-    @Operation(summary = "Get image", description = "Download image by ID", operationId = "getImage")
+    @Operation(summary = "Get image",
+            description = "Download image by ID. With w or format a resized variant is returned; widths are rounded up to 160, 320, 640, 1024 or 1600 px.",
+            operationId = "getImage")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Image found")
+            @ApiResponse(responseCode = "200", description = "Image found"),
+            @ApiResponse(responseCode = "400", description = "Invalid width or unsupported format",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "206", description = "Requested byte range of the image"),
+            @ApiResponse(responseCode = "304", description = "Image not modified"),
+            @ApiResponse(responseCode = "416", description = "Requested range not satisfiable")
     })
     @GetMapping(value = "/{fileName}", produces = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE, MediaType.IMAGE_GIF_VALUE})
-    public ResponseEntity<Resource> get(@PathVariable String fileName) {
-        log.debug("GET /api/images/{}", fileName);
+    public void get(@PathVariable String fileName,
+                    @RequestParam(required = false) Integer w,
+                    @RequestParam(required = false) String format,
+                    HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.debug("GET /api/images/{}: w={}, format={}", fileName, w, format);
+        boolean variant = w != null || format != null;
+        if (variant) {
+            imageVariantService.validate(w, format);
+        }
+
+        // Stored files are never overwritten, so the generated file name is a strong validator.
+        // A revalidation only needs to know the image still exists, not read it from disk.
+        String etag = variant
+                ? "\"" + fileName + ";w=" + w + ";format=" + format + "\""
+                : "\"" + fileName + "\"";
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && imageService.exists(fileName)
+                && new ServletWebRequest(request, response).checkNotModified(etag)) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE.getHeaderValue());
+            return;
+        }
 
-        DownloadResource image = imageService.get(fileName);
+        DownloadResource image;
+        CacheControl cacheControl = IMMUTABLE;
+        if (variant) {
+            VariantResource resized = imageVariantService.get(fileName, w, format);
+            image = resized.resource();
+            if (!resized.resized()) {
+                // A variant may still be produced later, e.g. once the resize queue drains, so the
+                // original must not be cached under the variant's URL
+                etag = "\"" + fileName + "\"";
+                cacheControl = CacheControl.noCache();
+            }
+        } else {
+            image = imageService.get(fileName);
+        }
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(image.contentType()))
-                .contentLength(image.contentLength())
-                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
-                        .filename(image.originalFilename())
-                        .build().toString())
-                .body(image.resource());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setContentType(image.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                .filename(image.originalFilename())
+                .build().toString());
+        FileResponseWriter.write(request, response, image.path(), image.contentLength(), etag);
     }
 
     @Operation(summary = "List images", description = "List images with pagination", operationId = "listImages")
@@ -93,6 +145,37 @@ public class ImageController {
         return ResponseEntity.ok(imageService.list(pageable));
     }
 
+    @Operation(summary = "Scroll images",
+            description = "List images, newest first, continuing after the given cursor. No total count is computed.",
+            operationId = "scrollImages")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Images found",
+                    content = @Content(schema = @Schema(implementation = ImageDto.ImageSliceResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping("/scroll")
+    public ResponseEntity<ImageDto.ImageSliceResponse> scroll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        log.debug("GET /api/images/scroll: cursor={}, size={}", cursor, size);
+        return ResponseEntity.ok(imageService.scroll(cursor, size));
+    }
+
+    @Operation(summary = "Bulk delete images",
+            description = "Delete several images at once. Files are removed in the background; unknown or already deleted names are skipped.",
+            operationId = "bulkDeleteImages")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Images deleted",
+                    content = @Content(schema = @Schema(implementation = BulkDeleteImagesResponse.class)))
+    })
+    @PostMapping(value = "/bulk-delete", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @CanDeleteImage
+    public ResponseEntity<BulkDeleteImagesResponse> bulkDelete(@Valid @RequestBody BulkDeleteImagesRequest req) {
+        log.debug("POST /api/images/bulk-delete: {} images", req.filenames().size());
+        return ResponseEntity.ok(imageService.bulkDelete(req));
+    }
+
     @Operation(summary = "Delete image", description = "Delete an image", operationId = "deleteImage")
     @ApiResponses({
             @ApiResponse(responseCode = "204", description = "Image deleted")
@@ -0,0 +1,58 @@
+package cz.upce.fei.redsys.controller;
+
+import cz.upce.fei.redsys.dto.ErrorDto.ErrorResponse;
+import cz.upce.fei.redsys.dto.SuggestionDto.SuggestionListResponse;
+import cz.upce.fei.redsys.search.SuggestionIndex.Type;
+import cz.upce.fei.redsys.service.SuggestionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping(value = "/api/suggestions", produces = MediaType.APPLICATION_JSON_VALUE)
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Suggestions", description = "Search-as-you-type suggestions for pickers")
+@SecurityRequirement(name = "bearerAuth")
+@ApiResponses({
+        @ApiResponse(responseCode = "401", description = "Unauthorized - invalid or expired token",
+                content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+})
+public class SuggestionController {
+
+    private final SuggestionService suggestionService;
+
+    @Operation(summary = "Suggest",
+            description = "Users, categories and articles with a word starting with the query. Users and unpublished " +
+                    "articles are only suggested to newsroom staff.",
+            operationId = "suggest")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Suggestions",
+                    content = @Content(schema = @Schema(implementation = SuggestionListResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Empty query",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping
+    public ResponseEntity<SuggestionListResponse> suggest(
+            @RequestParam @Parameter(description = "Prefix typed so far") String q,
+            @RequestParam(required = false) @Parameter(description = "Entry types to suggest, all when omitted") List<Type> types,
+            @RequestParam(defaultValue = "10") @Parameter(description = "Number of suggestions, at most 50") int limit) {
+        log.debug("GET /api/suggestions: q={}, types={}, limit={}", q, types, limit);
+        return ResponseEntity.ok(suggestionService.suggest(q, types, limit));
+    }
+}
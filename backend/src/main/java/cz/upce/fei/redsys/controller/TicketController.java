@@ -4,9 +4,13 @@ import cz.upce.fei.redsys.domain.TicketFilterType;
 import cz.upce.fei.redsys.dto.ErrorDto.ErrorResponse;
 import cz.upce.fei.redsys.dto.ErrorDto.ValidationErrorResponse;
 import cz.upce.fei.redsys.dto.TicketDto.TransitionTicketRequest;
+import cz.upce.fei.redsys.dto.TicketDto.BulkTransitionRequest;
+import cz.upce.fei.redsys.dto.TicketDto.BulkTransitionResponse;
+import cz.upce.fei.redsys.dto.TicketDto.SchedulePublicationRequest;
 import cz.upce.fei.redsys.dto.TicketDto.CreateTicketRequest;
 import cz.upce.fei.redsys.dto.TicketDto.TicketResponse;
 import cz.upce.fei.redsys.dto.TicketDto.PaginatedTicketResponse;
+import cz.upce.fei.redsys.dto.TicketDto.TicketSliceResponse;
 import cz.upce.fei.redsys.dto.TicketDto.UpdateTicketRequest;
 import cz.upce.fei.redsys.security.annotation.TicketPermissions.CanManageTicket;
 import cz.upce.fei.redsys.security.annotation.TicketPermissions.CanViewTicket;
@@ -97,6 +101,24 @@ public class TicketController {
         return ResponseEntity.ok(ticketService.list(pageable));
     }
 
+    @Operation(summary = "Scroll tickets",
+            description = "List tickets, newest first, continuing after the given cursor. No total count is computed.",
+            operationId = "scrollTickets")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Tickets found",
+                    content = @Content(schema = @Schema(implementation = TicketSliceResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping("/scroll")
+    @CanViewTicket
+    public ResponseEntity<TicketSliceResponse> scroll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        log.debug("GET /api/tickets/scroll: cursor={}, size={}", cursor, size);
+        return ResponseEntity.ok(ticketService.scroll(cursor, size));
+    }
+
     @Operation(summary = "Get ticket", description = "Get a ticket by ID", operationId = "getTicket")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Ticket found",
@@ -144,6 +166,53 @@ public class TicketController {
         return ResponseEntity.ok(workflowService.transition(ticketId, request.targetState(), request.comment()));
     }
 
+    @Operation(summary = "Schedule publication", description = "Publish an approved ticket at the given time",
+            operationId = "scheduleTicketPublication")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Publication scheduled",
+                    content = @Content(schema = @Schema(implementation = TicketResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Validation error",
+                    content = @Content(schema = @Schema(implementation = ValidationErrorResponse.class))),
+            @ApiResponse(responseCode = "422", description = "Ticket cannot be published",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @PutMapping(value = "/{ticketId}/schedule", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @CanTransitionTicketState
+    public ResponseEntity<TicketResponse> schedulePublication(
+            @PathVariable Long ticketId,
+            @Valid @RequestBody SchedulePublicationRequest request) {
+        log.debug("PUT /api/tickets/{}/schedule: {}", ticketId, request);
+        return ResponseEntity.ok(workflowService.schedulePublication(ticketId, request.publishAt()));
+    }
+
+    @Operation(summary = "Cancel scheduled publication", operationId = "cancelTicketPublication")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Scheduled publication cancelled",
+                    content = @Content(schema = @Schema(implementation = TicketResponse.class)))
+    })
+    @DeleteMapping("/{ticketId}/schedule")
+    @CanTransitionTicketState
+    public ResponseEntity<TicketResponse> cancelScheduledPublication(@PathVariable Long ticketId) {
+        log.debug("DELETE /api/tickets/{}/schedule", ticketId);
+        return ResponseEntity.ok(workflowService.cancelScheduledPublication(ticketId));
+    }
+
+    @Operation(summary = "Transition ticket states", description = "Change the state of several tickets at once. " +
+            "Tickets that cannot make the transition are reported in the result and left unchanged.",
+            operationId = "changeTicketStates")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Per-ticket results",
+                    content = @Content(schema = @Schema(implementation = BulkTransitionResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Validation error",
+                    content = @Content(schema = @Schema(implementation = ValidationErrorResponse.class)))
+    })
+    @PostMapping(value = "/state", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @CanTransitionTicketState
+    public ResponseEntity<BulkTransitionResponse> changeStates(@Valid @RequestBody BulkTransitionRequest request) {
+        log.debug("POST /api/tickets/state: {}", request);
+        return ResponseEntity.ok(workflowService.transitionAll(request));
+    }
+
     @Operation(summary = "Delete ticket", description = "Delete a ticket", operationId = "deleteTicket")
     @ApiResponses({
             @ApiResponse(responseCode = "204", description = "Ticket deleted")
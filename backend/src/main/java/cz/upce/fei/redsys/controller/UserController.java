@@ -2,6 +2,7 @@ package cz.upce.fei.redsys.controller;
 
 import cz.upce.fei.redsys.dto.UserDto.PaginatedUserResponse;
 import cz.upce.fei.redsys.dto.UserDto.UserResponse;
+import cz.upce.fei.redsys.dto.UserDto.UserSliceResponse;
 import cz.upce.fei.redsys.security.annotation.UserPermissions.CanManageUser;
 import cz.upce.fei.redsys.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -50,6 +51,21 @@ public class UserController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Scroll users",
+            description = "List users ordered by username, continuing after the given cursor. No total count is computed.",
+            operationId = "scrollUsers")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Users found",
+                    content = @Content(schema = @Schema(implementation = UserSliceResponse.class)))
+    })
+    @GetMapping("/scroll")
+    public ResponseEntity<UserSliceResponse> scroll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        log.debug("GET /api/users/scroll: cursor={}, size={}", cursor, size);
+        return ResponseEntity.ok(userService.scroll(cursor, size));
+    }
+
     @Operation(summary = "Block user", description = "Blocks a user, preventing login", operationId = "blockUser")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "User blocked",
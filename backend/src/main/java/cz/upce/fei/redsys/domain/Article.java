@@ -37,6 +37,9 @@ public class Article {
     @Column(name = "published_at")
     private Instant publishedAt;
 
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author_id")
     private User author;
@@ -57,4 +60,9 @@ public class Article {
     )
     @Builder.Default
     private Set<Category> categories = new HashSet<>();
-}
\ No newline at end of file
+
+    @PreUpdate
+    public void preUpdate() {
+        updatedAt = Instant.now();
+    }
+}
@@ -0,0 +1,34 @@
+package cz.upce.fei.redsys.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Searchable text of an article. The terms columns hold normalized words; on Postgres they feed a
+ * generated {@code tsvector} column with a GIN index, which the entity does not map. The body is
+ * the plain text the excerpts of search hits are cut from.
+ */
+@Entity
+@Table(name = "article_search_documents")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArticleSearchDocument {
+
+    @Id
+    @Column(name = "article_id")
+    private Long articleId;
+
+    @Column(name = "title_terms", nullable = false)
+    private String titleTerms;
+
+    @Lob
+    @Column(name = "body_terms", nullable = false)
+    private String bodyTerms;
+
+    @Lob
+    @Column(nullable = false)
+    private String body;
+}
@@ -24,10 +24,34 @@ public class ArticleVersion {
     @JoinColumn(name = "article_id", nullable = false)
     private Article article;
 
-    @Lob
-    @Column(nullable = false)
+    /**
+     * Full text of the version. Filled in on load for snapshots; versions stored as a delta are
+     * reconstructed by {@code ArticleVersionStorage}.
+     */
+    @Transient
     private String content;
 
+    /**
+     * What is written to the database: the full text, or the delta against
+     * {@link #baseVersionNumber} when that is set. Compressed when enabled.
+     */
+    @Lob
+    @Column(name = "content", nullable = false)
+    @Convert(converter = CompressedTextConverter.class)
+    private String storedContent;
+
+    @Column(name = "base_version_number")
+    private Integer baseVersionNumber;
+
+    /**
+     * SHA-256 and length of the full text, so a change can be detected without reading it.
+     */
+    @Column(name = "content_digest", length = 64)
+    private String contentDigest;
+
+    @Column(name = "content_length")
+    private Integer contentLength;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     @Builder.Default
     private Instant createdAt = Instant.now();
@@ -38,4 +62,37 @@ public class ArticleVersion {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by")
     private User createdBy;
+
+    /**
+     * Kept by the retention policy regardless of age, set for versions sent to review or published.
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean retained = false;
+
+    /**
+     * Set once the version was written or re-encoded in delta mode, so startup does not read the
+     * content of a version again that was kept as a full copy on purpose.
+     */
+    @Column(name = "delta_checked", nullable = false)
+    @Builder.Default
+    private boolean deltaChecked = false;
+
+    public boolean isSnapshot() {
+        return baseVersionNumber == null;
+    }
+
+    @PrePersist
+    void storeSnapshotIfNotEncoded() {
+        if (storedContent == null) {
+            storedContent = content;
+        }
+    }
+
+    @PostLoad
+    void loadSnapshot() {
+        if (isSnapshot()) {
+            content = storedContent;
+        }
+    }
 }
@@ -2,7 +2,11 @@ package cz.upce.fei.redsys.domain;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -13,6 +17,9 @@ import java.util.Set;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// Only changed columns are written, so an edit and a recount never overwrite each other's values
+@DynamicUpdate
 public class Category {
 
     @Id
@@ -25,6 +32,13 @@ public class Category {
     @Column(columnDefinition = "TEXT")
     private String description;
 
+    // Maintained by CategoryOverviewService while the row is locked
+    @Column(name = "published_article_count", insertable = false)
+    private Integer publishedArticleCount;
+
+    @Column(name = "last_published_at", insertable = false)
+    private Instant lastPublishedAt;
+
     @ManyToMany(mappedBy = "categories")
     @Builder.Default
     private Set<Article> articles = new HashSet<>();
@@ -0,0 +1,95 @@
+package cz.upce.fei.redsys.domain;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stores long text deflated and Base64 encoded behind a {@value #MARKER} prefix. Values without the
+ * prefix are read as they are, so rows written before compression was enabled, or with it turned
+ * off, stay readable. Compression is only used when it makes the stored value shorter.
+ */
+@Converter
+@Component
+public class CompressedTextConverter implements AttributeConverter<String, String> {
+
+    public static final String MARKER = "~z1:";
+
+    private final boolean enabled;
+
+    public CompressedTextConverter(@Value("${articles.versions.compression.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public String convertToDatabaseColumn(String value) {
+        if (value == null) {
+            return null;
+        }
+        // Plain text starting with the marker would be misread, so it is always compressed
+        boolean mustCompress = value.startsWith(MARKER);
+        if (!enabled && !mustCompress) {
+            return value;
+        }
+        String compressed = MARKER + Base64.getEncoder().encodeToString(deflate(value.getBytes(StandardCharsets.UTF_8)));
+        return mustCompress || compressed.length() < value.length() ? compressed : value;
+    }
+
+    @Override
+    public String convertToEntityAttribute(String column) {
+        if (column == null || !column.startsWith(MARKER)) {
+            return column;
+        }
+        byte[] compressed = Base64.getDecoder().decode(column.substring(MARKER.length()));
+        return new String(inflate(compressed), StandardCharsets.UTF_8);
+    }
+
+    public static boolean isCompressed(String column) {
+        return column != null && column.startsWith(MARKER);
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, input.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] input) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(buffer);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Compressed text is truncated");
+                }
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Compressed text is corrupted", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
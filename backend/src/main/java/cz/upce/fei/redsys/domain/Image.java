@@ -35,7 +35,20 @@ public class Image {
     @Column(nullable = false)
     private String path;
 
+    // SHA-256 of the file; null for images uploaded before content addressing
+    @Column(name = "content_hash", length = 64, unique = true)
+    private String contentHash;
+
+    // Number of uploads sharing this file; the image is deleted when the last one is released
+    @Column(name = "reference_count", nullable = false)
+    @Builder.Default
+    private Integer referenceCount = 1;
+
     @Column(name = "uploaded_at", nullable = false, updatable = false)
     @Builder.Default
     private Instant uploadedAt = Instant.now();
+
+    // Set when the image is deleted; the file and row are removed later by ImageSweeper
+    @Column(name = "deleted_at")
+    private Instant deletedAt;
 }
@@ -0,0 +1,46 @@
+package cz.upce.fei.redsys.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Read model of a published article. The document is the rendered detail response, so public reads
+ * are answered without touching articles or article versions.
+ */
+@Entity
+@Table(name = "published_articles")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublishedArticle {
+
+    @Id
+    @Column(name = "article_id")
+    private Long articleId;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(name = "version_number", nullable = false)
+    private Integer versionNumber;
+
+    @Column(name = "published_at")
+    private Instant publishedAt;
+
+    @Lob
+    @Column(nullable = false)
+    private String document;
+
+    @Column(nullable = false)
+    private String etag;
+
+    @Column(name = "last_modified", nullable = false)
+    private Instant lastModified;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private Instant refreshedAt;
+}
@@ -45,6 +45,18 @@ public class Ticket {
     @Builder.Default
     private TicketState state = TicketState.OPEN;
 
+    // Set while an approved ticket waits to be published by PublicationScheduler
+    @Column(name = "scheduled_publish_at")
+    private Instant scheduledPublishAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "scheduled_by")
+    private User scheduledBy;
+
+    // Last comment number handed out; only changed by TicketRepository.incrementCommentCounter
+    @Column(name = "comment_counter", insertable = false, updatable = false)
+    private Integer commentCounter;
+
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "assigned_to")
     private User assignee;
@@ -89,6 +89,28 @@ public final class ArticleDto {
             int totalPages
     ) {}
 
+    public record ArticleSliceResponse(
+            List<ArticleResponse> articles,
+            int size,
+            boolean hasNext,
+            String nextCursor
+    ) {}
+
+    public record CacheValidator(
+            String etag,
+            Instant lastModified
+    ) {}
+
+    /**
+     * Strong validator of the detail response: changes whenever the article row (optimistic lock
+     * version) or its content (version number) changes.
+     */
+    public static CacheValidator toCacheValidator(Long id, Long version, Integer versionNumber,
+                                                  Instant updatedAt, Instant versionCreatedAt) {
+        Instant lastModified = updatedAt != null && updatedAt.isAfter(versionCreatedAt) ? updatedAt : versionCreatedAt;
+        return new CacheValidator("\"" + id + "-" + version + "-" + versionNumber + "\"", lastModified);
+    }
+
     public static ArticleResponse toResponse(Article article) {
         return ArticleResponse.builder()
                 .id(article.getId())
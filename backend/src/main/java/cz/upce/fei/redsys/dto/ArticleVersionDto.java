@@ -2,6 +2,7 @@ package cz.upce.fei.redsys.dto;
 
 import cz.upce.fei.redsys.domain.ArticleVersion;
 import cz.upce.fei.redsys.dto.UserDto.UserResponse;
+import cz.upce.fei.redsys.repository.ArticleVersionRepository.VersionSummary;
 import lombok.Builder;
 
 import java.time.Instant;
@@ -16,6 +17,8 @@ public final class ArticleVersionDto {
             Integer versionNumber,
             Instant createdAt,
             UserResponse createdBy,
+            Integer contentLength,
+            String contentDigest,
             String content
     ) {}
 
@@ -27,13 +30,53 @@ public final class ArticleVersionDto {
             int totalPages
     ) {}
 
+    public enum DiffOperation { EQUAL, INSERT, DELETE }
+
+    public record DiffSegment(
+            DiffOperation operation,
+            String text
+    ) {}
+
+    public record ArticleVersionDiffResponse(
+            Long articleId,
+            Integer fromVersion,
+            Integer toVersion,
+            List<DiffSegment> segments
+    ) {}
+
+    // Stored versions never change, so the article id and version number identify the content
+    public static String etag(Long articleId, Integer versionNumber) {
+        return "\"" + articleId + "-v" + versionNumber + "\"";
+    }
+
+    public static String diffEtag(Long articleId, Integer fromVersion, Integer toVersion) {
+        return "\"" + articleId + "-v" + fromVersion + "-v" + toVersion + "\"";
+    }
+
     public static ArticleVersionResponse toResponse(ArticleVersion version, boolean includeContent) {
         return ArticleVersionResponse.builder()
                 .id(version.getId())
                 .versionNumber(version.getVersionNumber())
                 .createdAt(version.getCreatedAt())
                 .createdBy(version.getCreatedBy() != null ? UserDto.toUserResponse(version.getCreatedBy()) : null)
+                .contentLength(version.getContentLength())
+                .contentDigest(version.getContentDigest())
                 .content(includeContent ? version.getContent() : null)
                 .build();
     }
+
+    public static ArticleVersionResponse toResponse(VersionSummary summary) {
+        UserResponse createdBy = summary.getCreatedById() != null
+                ? new UserResponse(summary.getCreatedById(), summary.getCreatedByUsername(), summary.getCreatedByFullName(),
+                        summary.getCreatedByRole(), Boolean.TRUE.equals(summary.getCreatedByActive()))
+                : null;
+        return ArticleVersionResponse.builder()
+                .id(summary.getId())
+                .versionNumber(summary.getVersionNumber())
+                .createdAt(summary.getCreatedAt())
+                .createdBy(createdBy)
+                .contentLength(summary.getContentLength())
+                .contentDigest(summary.getContentDigest())
+                .build();
+    }
 }
\ No newline at end of file
@@ -1,10 +1,12 @@
 package cz.upce.fei.redsys.dto;
 
 import cz.upce.fei.redsys.domain.Category;
+import cz.upce.fei.redsys.dto.ArticleDto.ArticleResponse;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.Builder;
 
+import java.time.Instant;
 import java.util.List;
 
 public final class CategoryDto {
@@ -35,6 +37,19 @@ public final class CategoryDto {
             String description
     ) {}
 
+    public record CategoryOverviewResponse(
+            Long id,
+            String name,
+            String description,
+            int publishedArticleCount,
+            Instant lastPublishedAt,
+            List<ArticleResponse> latestArticles
+    ) {}
+
+    public record CategoryOverviewListResponse(
+            List<CategoryOverviewResponse> categories
+    ) {}
+
     public record PaginatedCategoryResponse(
             List<CategoryResponse> categories,
             int page,
@@ -1,9 +1,11 @@
 package cz.upce.fei.redsys.dto;
 
 import cz.upce.fei.redsys.domain.Image;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import lombok.Builder;
-import org.springframework.core.io.Resource;
 
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.List;
 
@@ -29,13 +31,37 @@ public final class ImageDto {
             int totalPages
     ) {}
 
+    public record ImageSliceResponse(
+            List<ImageResponse> images,
+            int size,
+            boolean hasNext,
+            String nextCursor
+    ) {}
+
+    public record BulkDeleteImagesRequest(
+            @NotEmpty(message = "{common.required}")
+            @Size(max = 500, message = "{image.bulk-delete.size}")
+            List<String> filenames
+    ) {}
+
+    public record BulkDeleteImagesResponse(
+            int requested,
+            int deleted
+    ) {}
+
     public record DownloadResource(
-            Resource resource,
+            Path path,
             String contentType,
             long contentLength,
             String originalFilename
     ) {}
 
+    // resized is false when the original is served because no variant could be produced
+    public record VariantResource(
+            DownloadResource resource,
+            boolean resized
+    ) {}
+
     public static ImageResponse toResponse(Image image) {
         return ImageResponse.builder()
                 .id(image.getId())
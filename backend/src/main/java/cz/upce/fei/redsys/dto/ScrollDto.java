@@ -0,0 +1,55 @@
+package cz.upce.fei.redsys.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Shared pieces of the cursor based ("scroll") listings. A cursor carries the sort key and id of the
+ * last returned row, the next page continues strictly after it, so the cost of a page does not grow
+ * with how deep the client has scrolled.
+ */
+public final class ScrollDto {
+    private ScrollDto() {}
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    public record Cursor(String key, long id) {
+
+        public static Cursor of(Instant key, long id) {
+            return new Cursor(key.toString(), id);
+        }
+
+        public static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                if (separator < 0) {
+                    throw new IllegalArgumentException("Invalid cursor");
+                }
+                return new Cursor(raw.substring(0, separator), Long.parseLong(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+
+        public Instant instantKey() {
+            try {
+                return Instant.parse(key);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+
+        public String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((key + "|" + id).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
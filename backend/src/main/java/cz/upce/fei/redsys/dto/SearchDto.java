@@ -0,0 +1,35 @@
+package cz.upce.fei.redsys.dto;
+
+import cz.upce.fei.redsys.domain.ArticleState;
+
+import java.time.Instant;
+import java.util.List;
+
+public final class SearchDto {
+    private SearchDto() {}
+
+    public record SearchHit(
+            Long id,
+            String title,
+            ArticleState articleState,
+            Instant publishedAt,
+            double score,
+            String highlight
+    ) {}
+
+    public record CategoryFacet(
+            Long categoryId,
+            String name,
+            long count
+    ) {}
+
+    public record SearchResponse(
+            String query,
+            List<SearchHit> hits,
+            List<CategoryFacet> facets,
+            int page,
+            int size,
+            long totalElements,
+            int totalPages
+    ) {}
+}
@@ -0,0 +1,21 @@
+package cz.upce.fei.redsys.dto;
+
+import cz.upce.fei.redsys.search.SuggestionIndex.Type;
+
+import java.util.List;
+
+public final class SuggestionDto {
+    private SuggestionDto() {}
+
+    public record SuggestionResponse(
+            Type type,
+            Long id,
+            String label,
+            String detail
+    ) {}
+
+    public record SuggestionListResponse(
+            String query,
+            List<SuggestionResponse> suggestions
+    ) {}
+}
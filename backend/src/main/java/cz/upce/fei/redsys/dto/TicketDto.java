@@ -2,7 +2,9 @@ package cz.upce.fei.redsys.dto;
 
 import cz.upce.fei.redsys.domain.*;
 import cz.upce.fei.redsys.dto.UserDto.UserResponse;
+import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
@@ -24,7 +26,8 @@ public final class TicketDto {
             TicketState state,
             UserResponse assignee,
             UserResponse author,
-            Long articleId
+            Long articleId,
+            Instant scheduledPublishAt
     ) {}
 
     public record PaginatedTicketResponse(
@@ -35,6 +38,13 @@ public final class TicketDto {
             int totalPages
     ) {}
 
+    public record TicketSliceResponse(
+            List<TicketResponse> tickets,
+            int size,
+            boolean hasNext,
+            String nextCursor
+    ) {}
+
     public record CreateTicketRequest(
             @NotBlank(message = "{common.required}")
             @Size(min = 1, max = 160, message = "{ticket.title.size}")
@@ -63,6 +73,36 @@ public final class TicketDto {
             String assigneeUsername
     ) {}
 
+    public record BulkTransitionRequest(
+            @NotEmpty(message = "{common.required}")
+            @Size(max = 100, message = "{ticket.bulk.size}")
+            List<@NotNull Long> ticketIds,
+
+            @NotNull(message = "{common.required}")
+            TicketState targetState,
+
+            @Size(max = 2000, message = "{ticket.comment.size}")
+            String comment
+    ) {}
+
+    public record TransitionResult(
+            Long ticketId,
+            TicketResponse ticket,
+            String error
+    ) {}
+
+    public record BulkTransitionResponse(
+            List<TransitionResult> results,
+            int succeeded,
+            int failed
+    ) {}
+
+    public record SchedulePublicationRequest(
+            @NotNull(message = "{common.required}")
+            @Future(message = "{ticket.publishAt.future}")
+            Instant publishAt
+    ) {}
+
     public record TransitionTicketRequest(
             @NotNull(message = "{common.required}")
             TicketState targetState,
@@ -82,6 +122,7 @@ public final class TicketDto {
                 .assignee(ticket.getAssignee() != null ? UserDto.toUserResponse(ticket.getAssignee()) : null)
                 .author(ticket.getAuthor() != null ? UserDto.toUserResponse(ticket.getAuthor()) : null)
                 .articleId(ticket.getArticle() != null ? ticket.getArticle().getId() : null)
+                .scheduledPublishAt(ticket.getScheduledPublishAt())
                 .build();
     }
 }
\ No newline at end of file
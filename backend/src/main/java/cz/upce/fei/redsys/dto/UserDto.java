@@ -26,6 +26,13 @@ public final class UserDto {
             int totalPages
     ) {}
 
+    public record UserSliceResponse(
+            List<UserResponse> users,
+            int size,
+            boolean hasNext,
+            String nextCursor
+    ) {}
+
     public static UserResponse toUserResponse(User user) {
         return UserResponse.builder()
                 .id(user.getId())
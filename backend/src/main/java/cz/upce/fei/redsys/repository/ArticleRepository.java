@@ -1,12 +1,118 @@
 package cz.upce.fei.redsys.repository;
 
 import cz.upce.fei.redsys.domain.Article;
+import cz.upce.fei.redsys.domain.ArticleState;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ArticleRepository extends JpaRepository<Article, Long> {
-    Page<Article> findByCategories_IdIn(List<Long> categoryIds, Pageable pageable);
+
+    String PUBLISHED = "cz.upce.fei.redsys.domain.ArticleState.PUBLISHED";
+
+    interface ArticleValidator {
+        ArticleState getArticleState();
+        Long getVersion();
+        Instant getUpdatedAt();
+        Integer getVersionNumber();
+        Instant getVersionCreatedAt();
+    }
+
+    interface CategoryArticleId {
+        Long getCategoryId();
+        Long getArticleId();
+    }
+
+    interface ArticleTitle {
+        Long getId();
+        String getTitle();
+        ArticleState getArticleState();
+    }
+
+    // Everything needed for ETag / Last-Modified without reading the content
+    @Query("SELECT a.articleState AS articleState, a.version AS version, a.updatedAt AS updatedAt, v.versionNumber AS versionNumber, v.createdAt AS versionCreatedAt " +
+            "FROM ArticleVersion v JOIN v.article a WHERE a.id = :id " +
+            "AND v.versionNumber = (SELECT MAX(v2.versionNumber) FROM ArticleVersion v2 WHERE v2.article.id = :id)")
+    Optional<ArticleValidator> findValidatorById(@Param("id") Long id);
+
+    @Query(value = "SELECT a.id FROM Article a",
+            countQuery = "SELECT COUNT(a) FROM Article a")
+    Page<Long> findPageIds(Pageable pageable);
+
+    // EXISTS instead of a join, so an article in several of the requested categories is listed once
+    @Query(value = "SELECT a.id FROM Article a WHERE EXISTS (SELECT c.id FROM a.categories c WHERE c.id IN :categoryIds)",
+            countQuery = "SELECT COUNT(a) FROM Article a WHERE EXISTS (SELECT c.id FROM a.categories c WHERE c.id IN :categoryIds)")
+    Page<Long> findPageIdsByCategoryIds(@Param("categoryIds") List<Long> categoryIds, Pageable pageable);
+
+    // Public listing; served by the published-only index on (published_at, id)
+    @Query(value = "SELECT a.id FROM Article a WHERE a.articleState = " + PUBLISHED + " ORDER BY a.publishedAt DESC, a.id DESC",
+            countQuery = "SELECT COUNT(a) FROM Article a WHERE a.articleState = " + PUBLISHED)
+    Page<Long> findPublishedPageIds(Pageable pageable);
+
+    @Query(value = "SELECT a.id FROM Article a WHERE a.articleState = " + PUBLISHED + " " +
+            "AND EXISTS (SELECT c.id FROM a.categories c WHERE c.id IN :categoryIds) ORDER BY a.publishedAt DESC, a.id DESC",
+            countQuery = "SELECT COUNT(a) FROM Article a WHERE a.articleState = " + PUBLISHED + " " +
+                    "AND EXISTS (SELECT c.id FROM a.categories c WHERE c.id IN :categoryIds)")
+    Page<Long> findPublishedPageIdsByCategoryIds(@Param("categoryIds") List<Long> categoryIds, Pageable pageable);
+
+    // Keyset queries for the scroll listing, newest published first
+    @Query("SELECT a.id FROM Article a WHERE a.articleState = " + PUBLISHED + " ORDER BY a.publishedAt DESC, a.id DESC")
+    List<Long> findFeedIds(Limit limit);
+
+    @Query("SELECT a.id FROM Article a WHERE a.articleState = " + PUBLISHED + " " +
+            "AND (a.publishedAt < :publishedAt OR (a.publishedAt = :publishedAt AND a.id < :id)) " +
+            "ORDER BY a.publishedAt DESC, a.id DESC")
+    List<Long> findFeedIdsAfter(@Param("publishedAt") Instant publishedAt, @Param("id") Long id, Limit limit);
+
+    @Query("SELECT a.id FROM Article a WHERE a.articleState = " + PUBLISHED + " " +
+            "AND EXISTS (SELECT c.id FROM a.categories c WHERE c.id IN :categoryIds) " +
+            "ORDER BY a.publishedAt DESC, a.id DESC")
+    List<Long> findFeedIdsByCategoryIds(@Param("categoryIds") List<Long> categoryIds, Limit limit);
+
+    // Newest published articles of each category at once, numbered per category by a window function
+    @Query(value = "SELECT f.category_id AS categoryId, f.article_id AS articleId FROM (" +
+            "SELECT ac.category_id, a.id AS article_id, " +
+            "ROW_NUMBER() OVER (PARTITION BY ac.category_id ORDER BY a.published_at DESC, a.id DESC) AS rn " +
+            "FROM article_categories ac JOIN articles a ON a.id = ac.article_id " +
+            "WHERE ac.category_id IN (:categoryIds) AND a.article_state = 'PUBLISHED') f " +
+            "WHERE f.rn <= :perCategory ORDER BY f.category_id, f.rn",
+            nativeQuery = true)
+    List<CategoryArticleId> findLatestIdsPerCategory(@Param("categoryIds") Collection<Long> categoryIds,
+                                                     @Param("perCategory") int perCategory);
+
+    @Query("SELECT a.id FROM Article a WHERE a.articleState = " + PUBLISHED + " " +
+            "AND EXISTS (SELECT c.id FROM a.categories c WHERE c.id IN :categoryIds) " +
+            "AND (a.publishedAt < :publishedAt OR (a.publishedAt = :publishedAt AND a.id < :id)) " +
+            "ORDER BY a.publishedAt DESC, a.id DESC")
+    List<Long> findFeedIdsByCategoryIdsAfter(@Param("categoryIds") List<Long> categoryIds,
+                                             @Param("publishedAt") Instant publishedAt,
+                                             @Param("id") Long id,
+                                             Limit limit);
+
+    @Query("SELECT a.id FROM Article a WHERE a.articleState = :state " +
+            "AND NOT EXISTS (SELECT p.articleId FROM PublishedArticle p WHERE p.articleId = a.id)")
+    List<Long> findIdsByStateWithoutReadModel(@Param("state") ArticleState state);
+
+    @Query("SELECT a.id FROM Article a WHERE a.articleState <> cz.upce.fei.redsys.domain.ArticleState.DELETED " +
+            "AND NOT EXISTS (SELECT d.articleId FROM ArticleSearchDocument d WHERE d.articleId = a.id)")
+    List<Long> findIdsWithoutSearchDocument();
+
+    @EntityGraph(attributePaths = {"author", "editor", "categories"})
+    List<Article> findWithRelationsByIdIn(Collection<Long> ids);
+
+    @Query("SELECT a.id AS id, a.title AS title, a.articleState AS articleState FROM Article a " +
+            "WHERE a.articleState <> cz.upce.fei.redsys.domain.ArticleState.DELETED")
+    List<ArticleTitle> findAllTitles();
+
+    @Query("SELECT c.id FROM Article a JOIN a.categories c WHERE a.id = :id")
+    List<Long> findCategoryIds(@Param("id") Long id);
 }
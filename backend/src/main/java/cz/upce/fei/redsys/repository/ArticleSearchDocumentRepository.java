@@ -0,0 +1,8 @@
+package cz.upce.fei.redsys.repository;
+
+import cz.upce.fei.redsys.domain.ArticleSearchDocument;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ArticleSearchDocumentRepository extends JpaRepository<ArticleSearchDocument, Long>,
+        ArticleSearchDocumentRepositoryCustom {
+}
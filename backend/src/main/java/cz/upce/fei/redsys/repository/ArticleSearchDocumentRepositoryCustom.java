@@ -0,0 +1,28 @@
+package cz.upce.fei.redsys.repository;
+
+import cz.upce.fei.redsys.domain.ArticleState;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface ArticleSearchDocumentRepositoryCustom {
+
+    record SearchRow(Long id, String title, ArticleState articleState, Instant publishedAt, double score, String body) {
+    }
+
+    /**
+     * Articles in one of the given states whose text contains every term, best first. An empty
+     * {@code categoryIds} does not filter by category.
+     */
+    List<SearchRow> search(List<String> terms, Collection<ArticleState> states, Collection<Long> categoryIds,
+                           int offset, int limit);
+
+    long count(List<String> terms, Collection<ArticleState> states, Collection<Long> categoryIds);
+
+    /**
+     * Number of matching articles per category, ignoring any category filter.
+     */
+    Map<Long, Long> countByCategory(List<String> terms, Collection<ArticleState> states);
+}
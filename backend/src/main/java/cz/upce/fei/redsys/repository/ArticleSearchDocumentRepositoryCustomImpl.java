@@ -0,0 +1,128 @@
+package cz.upce.fei.redsys.repository;
+
+import cz.upce.fei.redsys.domain.ArticleState;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.hibernate.Session;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Postgres matches against the generated tsvector column and its GIN index. Other databases, the
+// H2 used by tests among them, scan the terms columns for whole words and rank title hits first.
+class ArticleSearchDocumentRepositoryCustomImpl implements ArticleSearchDocumentRepositoryCustom {
+
+    private static final String FROM = " FROM article_search_documents d JOIN articles a ON a.id = d.article_id ";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean postgres;
+
+    @Override
+    public List<SearchRow> search(List<String> terms, Collection<ArticleState> states, Collection<Long> categoryIds,
+                                  int offset, int limit) {
+        Query query = entityManager.createNativeQuery("SELECT a.id, " + score(terms) + " AS score" + FROM
+                + where(terms, categoryIds) + " ORDER BY score DESC, a.published_at DESC NULLS LAST, a.id DESC");
+        bind(query, terms, states, categoryIds);
+        Map<Long, Double> scores = new LinkedHashMap<>();
+        for (Object row : query.setFirstResult(offset).setMaxResults(limit).getResultList()) {
+            Object[] columns = (Object[]) row;
+            scores.put(((Number) columns[0]).longValue(), ((Number) columns[1]).doubleValue());
+        }
+        if (scores.isEmpty()) {
+            return List.of();
+        }
+
+        // Titles and bodies are read only for the page of hits
+        Map<Long, SearchRow> rows = new HashMap<>();
+        entityManager.createQuery("SELECT a.id, a.title, a.articleState, a.publishedAt, d.body " +
+                        "FROM Article a, ArticleSearchDocument d WHERE d.articleId = a.id AND a.id IN :ids", Object[].class)
+                .setParameter("ids", scores.keySet())
+                .getResultList()
+                .forEach(columns -> rows.put((Long) columns[0], new SearchRow((Long) columns[0], (String) columns[1],
+                        (ArticleState) columns[2], (Instant) columns[3], scores.get((Long) columns[0]), (String) columns[4])));
+        return scores.keySet().stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public long count(List<String> terms, Collection<ArticleState> states, Collection<Long> categoryIds) {
+        Query query = entityManager.createNativeQuery("SELECT COUNT(*)" + FROM + where(terms, categoryIds));
+        bind(query, terms, states, categoryIds);
+        return ((Number) query.getSingleResult()).longValue();
+    }
+
+    @Override
+    public Map<Long, Long> countByCategory(List<String> terms, Collection<ArticleState> states) {
+        Query query = entityManager.createNativeQuery("SELECT ac.category_id, COUNT(*)" + FROM
+                + "JOIN article_categories ac ON ac.article_id = a.id " + where(terms, List.of())
+                + " GROUP BY ac.category_id");
+        bind(query, terms, states, List.of());
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object row : query.getResultList()) {
+            Object[] columns = (Object[]) row;
+            counts.put(((Number) columns[0]).longValue(), ((Number) columns[1]).longValue());
+        }
+        return counts;
+    }
+
+    private String where(List<String> terms, Collection<Long> categoryIds) {
+        StringBuilder where = new StringBuilder("WHERE a.article_state IN (:states) AND ");
+        if (isPostgres()) {
+            where.append("d.search_vector @@ plainto_tsquery('simple', :query)");
+        } else {
+            for (int i = 0; i < terms.size(); i++) {
+                where.append(i > 0 ? " AND " : "")
+                        .append("(' ' || d.title_terms || ' ' || d.body_terms || ' ') LIKE :term").append(i);
+            }
+        }
+        if (!categoryIds.isEmpty()) {
+            where.append(" AND EXISTS (SELECT 1 FROM article_categories f WHERE f.article_id = a.id AND f.category_id IN (:categoryIds))");
+        }
+        return where.toString();
+    }
+
+    private String score(List<String> terms) {
+        if (isPostgres()) {
+            return "ts_rank(d.search_vector, plainto_tsquery('simple', :query))";
+        }
+        StringBuilder score = new StringBuilder("(0");
+        for (int i = 0; i < terms.size(); i++) {
+            score.append(" + CASE WHEN (' ' || d.title_terms || ' ') LIKE :term").append(i).append(" THEN 2 ELSE 0 END")
+                    .append(" + CASE WHEN (' ' || d.body_terms || ' ') LIKE :term").append(i).append(" THEN 1 ELSE 0 END");
+        }
+        return score.append(")").toString();
+    }
+
+    private void bind(Query query, List<String> terms, Collection<ArticleState> states, Collection<Long> categoryIds) {
+        query.setParameter("states", states.stream().map(Enum::name).toList());
+        if (isPostgres()) {
+            query.setParameter("query", String.join(" ", terms));
+        } else {
+            // Terms consist of letters and digits only, so they need no LIKE escaping
+            for (int i = 0; i < terms.size(); i++) {
+                query.setParameter("term" + i, "% " + terms.get(i) + " %");
+            }
+        }
+        if (!categoryIds.isEmpty()) {
+            query.setParameter("categoryIds", categoryIds);
+        }
+    }
+
+    private boolean isPostgres() {
+        if (postgres == null) {
+            postgres = entityManager.unwrap(Session.class)
+                    .doReturningWork(connection -> "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+        }
+        return postgres;
+    }
+}
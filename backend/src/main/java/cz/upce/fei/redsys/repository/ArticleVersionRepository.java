@@ -2,17 +2,97 @@ package cz.upce.fei.redsys.repository;
 
 import cz.upce.fei.redsys.domain.Article;
 import cz.upce.fei.redsys.domain.ArticleVersion;
+import cz.upce.fei.redsys.domain.CompressedTextConverter;
+import cz.upce.fei.redsys.domain.UserRole;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 public interface ArticleVersionRepository extends JpaRepository<ArticleVersion, Long> {
 
+    interface VersionHead {
+        Long getId();
+        Integer getVersionNumber();
+        Integer getBaseVersionNumber();
+        String getContentDigest();
+        Integer getContentLength();
+        Instant getCreatedAt();
+    }
+
+    interface VersionSummary {
+        Long getId();
+        Integer getVersionNumber();
+        Instant getCreatedAt();
+        Integer getContentLength();
+        String getContentDigest();
+        Long getCreatedById();
+        String getCreatedByUsername();
+        String getCreatedByFullName();
+        UserRole getCreatedByRole();
+        Boolean getCreatedByActive();
+    }
+
+    interface RetentionCandidate {
+        Long getId();
+        Integer getVersionNumber();
+        Integer getBaseVersionNumber();
+        Instant getCreatedAt();
+        boolean isRetained();
+    }
+
     Optional<ArticleVersion> findTopByArticleOrderByVersionNumberDesc(Article article);
 
+    // Version history without content, served from the (article_id, version_number) index
+    @Query(value = "SELECT v.id AS id, v.versionNumber AS versionNumber, v.createdAt AS createdAt, " +
+            "v.contentLength AS contentLength, v.contentDigest AS contentDigest, " +
+            "u.id AS createdById, u.username AS createdByUsername, u.fullName AS createdByFullName, " +
+            "u.role AS createdByRole, u.active AS createdByActive " +
+            "FROM ArticleVersion v LEFT JOIN v.createdBy u WHERE v.article = :article ORDER BY v.versionNumber DESC",
+            countQuery = "SELECT COUNT(v) FROM ArticleVersion v WHERE v.article = :article")
+    Page<VersionSummary> findSummariesByArticle(@Param("article") Article article, Pageable pageable);
+
+    // Latest version without its content
+    Optional<VersionHead> findFirstByArticleOrderByVersionNumberDesc(Article article);
+
     Optional<ArticleVersion> findByArticleAndVersionNumber(Article article, Integer versionNumber);
 
-    Page<ArticleVersion> findAllByArticleOrderByVersionNumberDesc(Article article, Pageable pageable);
+    boolean existsByArticleAndVersionNumber(Article article, Integer versionNumber);
+
+    @Query("SELECT v.storedContent FROM ArticleVersion v WHERE v.article.id = :articleId AND v.versionNumber = :versionNumber")
+    Optional<String> findStoredContent(@Param("articleId") Long articleId, @Param("versionNumber") Integer versionNumber);
+
+    @Query("SELECT v FROM ArticleVersion v WHERE v.article.id = :articleId ORDER BY v.versionNumber ASC")
+    List<ArticleVersion> findAllByArticleId(@Param("articleId") Long articleId);
+
+    @Modifying
+    @Query("UPDATE ArticleVersion v SET v.retained = true WHERE v.article = :article AND v.versionNumber = :versionNumber")
+    int markRetained(@Param("article") Article article, @Param("versionNumber") Integer versionNumber);
+
+    // Articles with at least two versions the retention policy may thin out
+    @Query("SELECT v.article.id FROM ArticleVersion v WHERE v.createdAt < :before AND v.retained = false " +
+            "GROUP BY v.article.id HAVING COUNT(v) > 1")
+    List<Long> findArticleIdsWithVersionsBefore(@Param("before") Instant before);
+
+    @Query("SELECT v.id AS id, v.versionNumber AS versionNumber, v.baseVersionNumber AS baseVersionNumber, " +
+            "v.createdAt AS createdAt, v.retained AS retained FROM ArticleVersion v WHERE v.article.id = :articleId")
+    List<RetentionCandidate> findRetentionCandidates(@Param("articleId") Long articleId);
+
+    @Query(value = "SELECT id FROM article_versions WHERE id > :afterId AND content NOT LIKE '" + CompressedTextConverter.MARKER + "%' ORDER BY id",
+            nativeQuery = true)
+    List<Long> findUncompressedIdsAfter(@Param("afterId") long afterId, Pageable pageable);
+
+    // Native, so the value is written exactly as given and not passed through the converter again
+    @Modifying
+    @Query(value = "UPDATE article_versions SET content = :content WHERE id = :id", nativeQuery = true)
+    int updateStoredColumn(@Param("id") Long id, @Param("content") String content);
+
+    @Query("SELECT DISTINCT v.article.id FROM ArticleVersion v WHERE v.deltaChecked = false")
+    List<Long> findArticleIdsNotDeltaChecked();
 }
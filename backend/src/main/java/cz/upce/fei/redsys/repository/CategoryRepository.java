@@ -1,11 +1,35 @@
 package cz.upce.fei.redsys.repository;
 
 import cz.upce.fei.redsys.domain.Category;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface CategoryRepository extends JpaRepository<Category, Long> {
+public interface CategoryRepository extends JpaRepository<Category, Long>, CategoryRepositoryCustom {
     boolean existsByName(String name);
     Optional<Category> findByName(String name);
+
+    // Ordered by id so concurrent writers lock shared categories in the same order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Category c WHERE c.id IN :ids ORDER BY c.id")
+    List<Category> lockAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    interface PublishedStats {
+        Long getCategoryId();
+        Long getPublishedArticleCount();
+        Instant getLastPublishedAt();
+    }
+
+    // Categories without a published article are missing from the result
+    @Query("SELECT ac.id AS categoryId, COUNT(a) AS publishedArticleCount, MAX(a.publishedAt) AS lastPublishedAt " +
+            "FROM Article a JOIN a.categories ac " +
+            "WHERE ac.id IN :ids AND a.articleState = " + ArticleRepository.PUBLISHED + " GROUP BY ac.id")
+    List<PublishedStats> findPublishedStats(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,10 @@
+package cz.upce.fei.redsys.repository;
+
+import cz.upce.fei.redsys.domain.Category;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CategoryRepositoryCustom {
+    List<Category> findAllCachedById(Collection<Long> ids);
+}
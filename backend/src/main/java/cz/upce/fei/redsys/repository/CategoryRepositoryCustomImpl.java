@@ -0,0 +1,34 @@
+package cz.upce.fei.redsys.repository;
+
+import cz.upce.fei.redsys.domain.Category;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+// findAllById runs a query, which never consults the second-level cache; a multi-load only
+// selects the categories missing from it
+class CategoryRepositoryCustomImpl implements CategoryRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // The Session of the shared EntityManager is closed right after unwrap() outside a transaction
+    @Override
+    @Transactional(readOnly = true)
+    public List<Category> findAllCachedById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(Category.class)
+                .multiLoad(List.copyOf(ids))
+                .stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
@@ -1,17 +1,57 @@
 package cz.upce.fei.redsys.repository;
 
 import cz.upce.fei.redsys.domain.Image;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ImageRepository extends JpaRepository<Image, Long> {
-    Optional<Image> findImageByFilename(String filename);
+    Optional<Image> findByFilenameAndDeletedAtIsNull(String filename);
 
-    boolean existsByFilename(String fileName);
+    boolean existsByFilenameAndDeletedAtIsNull(String fileName);
 
-    void deleteByFilename(String fileName);
+    Page<Image> findAllByDeletedAtIsNull(Pageable pageable);
 
+    @Query("SELECT i FROM Image i WHERE i.deletedAt IS NULL ORDER BY i.uploadedAt DESC, i.id DESC")
+    List<Image> findLatest(Limit limit);
+
+    @Query("SELECT i FROM Image i WHERE i.deletedAt IS NULL " +
+            "AND (i.uploadedAt < :uploadedAt OR (i.uploadedAt = :uploadedAt AND i.id < :id)) " +
+            "ORDER BY i.uploadedAt DESC, i.id DESC")
+    List<Image> findLatestAfter(@Param("uploadedAt") Instant uploadedAt, @Param("id") Long id, Limit limit);
+
+    Optional<Image> findByContentHash(String contentHash);
+
+    // Also brings back an image that was deleted but not swept yet
+    @Modifying
+    @Query("UPDATE Image i SET i.referenceCount = i.referenceCount + 1, i.deletedAt = NULL WHERE i.contentHash = :contentHash")
+    int acquireReference(@Param("contentHash") String contentHash);
+
+    // Releases one reference per name; the image is marked deleted when the last one goes
+    @Modifying
+    @Query("UPDATE Image i SET i.referenceCount = i.referenceCount - 1, " +
+            "i.deletedAt = CASE WHEN i.referenceCount <= 1 THEN :deletedAt ELSE NULL END " +
+            "WHERE i.filename IN :filenames AND i.deletedAt IS NULL")
+    int releaseReferences(@Param("filenames") Collection<String> filenames, @Param("deletedAt") Instant deletedAt);
+
+    @Query("SELECT i.id FROM Image i WHERE i.deletedAt IS NOT NULL ORDER BY i.deletedAt ASC")
+    List<Long> findDeletedIds(Limit limit);
+
+    // Locked so an upload of the same content waits until the sweeper has removed the file and the row
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Image i WHERE i.id = :id AND i.deletedAt IS NOT NULL")
+    Optional<Image> findDeletedByIdForUpdate(@Param("id") Long id);
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package cz.upce.fei.redsys.repository;
+
+import cz.upce.fei.redsys.domain.PublishedArticle;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface PublishedArticleRepository extends JpaRepository<PublishedArticle, Long> {
+}
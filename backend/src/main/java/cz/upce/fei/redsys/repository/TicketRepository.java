@@ -1,15 +1,59 @@
 package cz.upce.fei.redsys.repository;
 
 import cz.upce.fei.redsys.domain.Ticket;
+import cz.upce.fei.redsys.domain.TicketState;
 import cz.upce.fei.redsys.domain.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 
 public interface TicketRepository extends JpaRepository<Ticket, Long> {
+
+    interface ScheduledPublication {
+        Long getId();
+        Instant getScheduledPublishAt();
+    }
+
     Page<Ticket> findByAssignee(User assignee, Pageable pageable);
 
     Page<Ticket> findByAuthor(User author, Pageable pageable);
 
     Page<Ticket> findByAssigneeOrAuthor(User assignee, User author, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"article", "assignee", "author"})
+    @Query("SELECT t FROM Ticket t WHERE t.id = :id")
+    Optional<Ticket> findWithArticleById(@Param("id") Long id);
+
+    @EntityGraph(attributePaths = {"article", "assignee", "author", "scheduledBy"})
+    @Query("SELECT t FROM Ticket t WHERE t.id IN :ids")
+    List<Ticket> findAllWithArticleByIdIn(@Param("ids") List<Long> ids);
+
+    @Query("SELECT t.id AS id, t.scheduledPublishAt AS scheduledPublishAt FROM Ticket t " +
+            "WHERE t.state = :state AND t.scheduledPublishAt <= :until")
+    List<ScheduledPublication> findScheduledPublications(@Param("state") TicketState state, @Param("until") Instant until);
+
+    @Modifying
+    @Query("UPDATE Ticket t SET t.commentCounter = t.commentCounter + 1 WHERE t.id = :id")
+    int incrementCommentCounter(@Param("id") Long id);
+
+    @Query("SELECT t.commentCounter FROM Ticket t WHERE t.id = :id")
+    Integer findCommentCounter(@Param("id") Long id);
+
+    @EntityGraph(attributePaths = {"assignee", "author"})
+    @Query("SELECT t FROM Ticket t ORDER BY t.createdAt DESC, t.id DESC")
+    List<Ticket> findLatest(Limit limit);
+
+    @EntityGraph(attributePaths = {"assignee", "author"})
+    @Query("SELECT t FROM Ticket t WHERE t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id) " +
+            "ORDER BY t.createdAt DESC, t.id DESC")
+    List<Ticket> findLatestAfter(@Param("createdAt") Instant createdAt, @Param("id") Long id, Limit limit);
 }
\ No newline at end of file
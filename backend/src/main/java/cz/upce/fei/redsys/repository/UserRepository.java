@@ -1,11 +1,16 @@
 package cz.upce.fei.redsys.repository;
 
 import cz.upce.fei.redsys.domain.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByUsername(String username);
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     Optional<User> findByEmail(String email);
+
+    // Usernames are unique, so they are a complete keyset on their own
+    List<User> findAllByOrderByUsernameAsc(Limit limit);
+    List<User> findByUsernameGreaterThanOrderByUsernameAsc(String username, Limit limit);
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package cz.upce.fei.redsys.repository;
+
+import cz.upce.fei.redsys.domain.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+    Optional<User> findByUsername(String username);
+}
@@ -0,0 +1,99 @@
+package cz.upce.fei.redsys.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Text normalization shared by article search and suggestions. Terms are lower-cased and stripped
+ * of diacritics, so "článek" matches "clanek".
+ */
+public final class SearchText {
+
+    private static final Pattern TOKEN = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final int SNIPPET_LENGTH = 200;
+
+    private SearchText() {}
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        Matcher matcher = TOKEN.matcher(text);
+        while (matcher.find()) {
+            tokens.add(normalize(matcher.group()));
+        }
+        return tokens;
+    }
+
+    public static String normalize(String token) {
+        String decomposed = Normalizer.normalize(token.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("");
+    }
+
+    /**
+     * Escaped excerpt of the text around the first match, with matched words wrapped in {@code <mark>}.
+     */
+    public static String highlight(String text, Set<String> terms) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        List<int[]> matches = new ArrayList<>();
+        Matcher matcher = TOKEN.matcher(text);
+        while (matcher.find()) {
+            if (terms.contains(normalize(matcher.group()))) {
+                matches.add(new int[]{matcher.start(), matcher.end()});
+            }
+        }
+
+        int start = matches.isEmpty() ? 0 : Math.max(0, matches.getFirst()[0] - SNIPPET_LENGTH / 4);
+        if (start > 0) {
+            int space = text.indexOf(' ', start);
+            start = space >= 0 && space < matches.getFirst()[0] ? space + 1 : start;
+        }
+        int end = Math.min(text.length(), start + SNIPPET_LENGTH);
+
+        StringBuilder snippet = new StringBuilder();
+        if (start > 0) {
+            snippet.append('…');
+        }
+        int position = start;
+        for (int[] match : matches) {
+            if (match[0] < start) {
+                continue;
+            }
+            if (match[1] > end) {
+                break;
+            }
+            appendEscaped(snippet, text, position, match[0]);
+            snippet.append("<mark>");
+            appendEscaped(snippet, text, match[0], match[1]);
+            snippet.append("</mark>");
+            position = match[1];
+        }
+        appendEscaped(snippet, text, position, end);
+        if (end < text.length()) {
+            snippet.append('…');
+        }
+        return snippet.toString();
+    }
+
+    private static void appendEscaped(StringBuilder out, String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
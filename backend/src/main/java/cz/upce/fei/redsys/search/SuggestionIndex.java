@@ -0,0 +1,222 @@
+package cz.upce.fei.redsys.search;
+
+import cz.upce.fei.redsys.domain.Article;
+import cz.upce.fei.redsys.domain.ArticleState;
+import cz.upce.fei.redsys.domain.Category;
+import cz.upce.fei.redsys.domain.User;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Prefix lookup over user names, category names and article titles for search-as-you-type
+ * pickers. Every word of a label starts its own key, so "nov" finds "Jan Novák" as well as
+ * "Novinky". Keys are normalized the same way as {@link SearchText} terms and kept in separate
+ * sorted maps by type, visibility and whether they start the label, so a lookup only reads keys it
+ * can return and finds label starts before anything else. Lookups do not lock; writes are
+ * serialized and, inside a transaction, applied once it commits.
+ */
+@Component
+public class SuggestionIndex {
+
+    private static final char SEPARATOR = '\u0000';
+    private static final int MAX_WORDS = 12;
+    private static final int MAX_KEY_LENGTH = 64;
+    // Upper bound on keys read per map and lookup, so one-letter prefixes stay cheap
+    private static final int SCAN_LIMIT = 500;
+
+    public enum Type {
+        USER, CATEGORY, ARTICLE
+    }
+
+    /**
+     * An entry that can be suggested. Restricted entries are only offered to newsroom staff.
+     */
+    public record Suggestion(Type type, Long id, String label, String detail, boolean restricted) {
+    }
+
+    private record EntityKey(Type type, Long id) {
+    }
+
+    private record Match(Suggestion suggestion, int word) {
+    }
+
+    private record Partition(Type type, boolean restricted, boolean labelStart) {
+    }
+
+    private record Placed(Partition partition, String key) {
+    }
+
+    private static final class Entries {
+        private final Map<Partition, ConcurrentSkipListMap<String, Match>> keys = new HashMap<>();
+        private final Map<EntityKey, List<Placed>> keysByEntity = new ConcurrentHashMap<>();
+
+        // Every partition exists up front, so readers never see the outer map change
+        private Entries() {
+            for (Type type : Type.values()) {
+                for (boolean restricted : new boolean[]{false, true}) {
+                    for (boolean labelStart : new boolean[]{true, false}) {
+                        keys.put(new Partition(type, restricted, labelStart), new ConcurrentSkipListMap<>());
+                    }
+                }
+            }
+        }
+    }
+
+    private volatile Entries entries = new Entries();
+
+    public static Suggestion forUser(User user) {
+        return new Suggestion(Type.USER, user.getId(), user.getFullName(), user.getUsername(), true);
+    }
+
+    public static Suggestion forCategory(Category category) {
+        return new Suggestion(Type.CATEGORY, category.getId(), category.getName(), null, false);
+    }
+
+    public static Suggestion forArticle(Long id, String title, ArticleState state) {
+        return new Suggestion(Type.ARTICLE, id, title, null, state != ArticleState.PUBLISHED);
+    }
+
+    public static Suggestion forArticle(Article article) {
+        return forArticle(article.getId(), article.getTitle(), article.getArticleState());
+    }
+
+    public void put(Suggestion suggestion) {
+        afterCommit(() -> apply(suggestion));
+    }
+
+    public void remove(Type type, Long id) {
+        afterCommit(() -> removeNow(new EntityKey(type, id)));
+    }
+
+    public synchronized void clear() {
+        entries = new Entries();
+    }
+
+    /**
+     * Replaces the whole index with the given entries, which readers see all at once.
+     */
+    public void replaceAll(Collection<Suggestion> suggestions) {
+        Entries replacement = new Entries();
+        suggestions.forEach(suggestion -> add(replacement, suggestion));
+        synchronized (this) {
+            entries = replacement;
+        }
+    }
+
+    public int size() {
+        return entries.keysByEntity.size();
+    }
+
+    /**
+     * Up to {@code limit} entries with a word starting with the query, best first: matches at the
+     * start of the label, then shorter labels, then alphabetically.
+     */
+    public List<Suggestion> suggest(String query, Set<Type> types, boolean includeRestricted, int limit) {
+        String prefix = String.join(" ", SearchText.tokenize(query));
+        if (prefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        Entries current = entries;
+        Map<EntityKey, Match> best = new HashMap<>();
+        for (boolean labelStart : new boolean[]{true, false}) {
+            for (Type type : types) {
+                scan(current.keys.get(new Partition(type, false, labelStart)), prefix, best);
+                if (includeRestricted) {
+                    scan(current.keys.get(new Partition(type, true, labelStart)), prefix, best);
+                }
+            }
+            // Any match at the start of a label outranks every match further in
+            if (best.size() >= limit) {
+                break;
+            }
+        }
+
+        return best.values().stream()
+                .sorted(Comparator.comparingInt(Match::word)
+                        .thenComparingInt(match -> match.suggestion().label().length())
+                        .thenComparing(match -> match.suggestion().label(), String.CASE_INSENSITIVE_ORDER)
+                        .thenComparing(match -> match.suggestion().id()))
+                .limit(limit)
+                .map(Match::suggestion)
+                .toList();
+    }
+
+    private static void scan(ConcurrentSkipListMap<String, Match> keys, String prefix, Map<EntityKey, Match> best) {
+        int scanned = 0;
+        for (Match match : keys.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            if (++scanned > SCAN_LIMIT) {
+                break;
+            }
+            Suggestion suggestion = match.suggestion();
+            best.merge(new EntityKey(suggestion.type(), suggestion.id()), match,
+                    (current, other) -> other.word() < current.word() ? other : current);
+        }
+    }
+
+    private synchronized void apply(Suggestion suggestion) {
+        removeKeys(new EntityKey(suggestion.type(), suggestion.id()));
+        add(entries, suggestion);
+    }
+
+    private synchronized void removeNow(EntityKey entity) {
+        removeKeys(entity);
+    }
+
+    private static void add(Entries target, Suggestion suggestion) {
+        List<Placed> added = new ArrayList<>();
+        addKeys(target, suggestion, suggestion.label(), 0, added);
+        addKeys(target, suggestion, suggestion.detail(), MAX_WORDS, added);
+        target.keysByEntity.put(new EntityKey(suggestion.type(), suggestion.id()), added);
+    }
+
+    private static void addKeys(Entries target, Suggestion suggestion, String text, int firstWord, List<Placed> added) {
+        List<String> words = SearchText.tokenize(text);
+        Set<String> distinct = new LinkedHashSet<>();
+        for (int i = 0; i < Math.min(words.size(), MAX_WORDS); i++) {
+            String phrase = String.join(" ", words.subList(i, words.size()));
+            distinct.add(phrase.length() > MAX_KEY_LENGTH ? phrase.substring(0, MAX_KEY_LENGTH) : phrase);
+        }
+        int word = firstWord;
+        for (String phrase : distinct) {
+            Partition partition = new Partition(suggestion.type(), suggestion.restricted(), word == 0);
+            String key = phrase + SEPARATOR + suggestion.id() + ':' + word;
+            target.keys.get(partition).put(key, new Match(suggestion, word++));
+            added.add(new Placed(partition, key));
+        }
+    }
+
+    private void removeKeys(EntityKey entity) {
+        Entries current = entries;
+        List<Placed> previous = current.keysByEntity.remove(entity);
+        if (previous != null) {
+            previous.forEach(placed -> current.keys.get(placed.partition()).remove(placed.key()));
+        }
+    }
+
+    // Pickers must not offer entries whose transaction is later rolled back
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -25,21 +25,16 @@ public class JWTFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         String token = extractBearerToken(request);
 
-        try {
-            if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                if (tokenProvider.isValid(token)) {
-                    Authentication authentication = tokenProvider.toAuthentication(token);
-                    log.debug("User '{}' authenticated successfully", authentication.getName());
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                } else {
-                    log.debug("Invalid or expired token for request: {}", request.getRequestURI());
-                }
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            try {
+                Authentication authentication = tokenProvider.toAuthentication(token);
+                log.debug("User '{}' authenticated successfully", authentication.getName());
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            } catch (JwtException e) {
+                log.debug("Invalid or expired token for request {}: {}", request.getRequestURI(), e.getMessage());
             }
-            filterChain.doFilter(request, response);
-        } catch (JwtException e) {
-            log.debug("JWT processing failed: {}", e.getMessage());
-            filterChain.doFilter(request, response);
         }
+        filterChain.doFilter(request, response);
     }
 
     private String extractBearerToken(HttpServletRequest request) {
@@ -0,0 +1,87 @@
+package cz.upce.fei.redsys.security;
+
+import cz.upce.fei.redsys.cache.ExpiringLruCache;
+import cz.upce.fei.redsys.domain.User;
+import cz.upce.fei.redsys.domain.UserRole;
+import cz.upce.fei.redsys.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Component
+@Slf4j
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+    private final ExpiringLruCache<String, CachedPrincipal> cache;
+
+    public PrincipalCache(UserRepository userRepository,
+                          @Value("${security.principal-cache.max-size:10000}") int maxSize,
+                          @Value("${security.principal-cache.ttl:PT1M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = new ExpiringLruCache<>(maxSize, ttl);
+    }
+
+    public Optional<CachedPrincipal> get(String username) {
+        return Optional.ofNullable(cache.get(username, this::load));
+    }
+
+    public void evict(String username) {
+        log.debug("Evicting cached principal '{}'", username);
+        cache.invalidate(username);
+        // A request running concurrently with the surrounding transaction may reload the old row,
+        // so the entry is dropped once more after the change is visible to everyone.
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(username);
+                }
+            });
+        }
+    }
+
+    public void evictAll() {
+        log.debug("Evicting all cached principals");
+        cache.invalidateAll();
+    }
+
+    private CachedPrincipal load(String username) {
+        log.debug("Loading principal '{}'", username);
+        return userRepository.findByUsername(username)
+                .map(CachedPrincipal::of)
+                .orElse(null);
+    }
+
+    public record CachedPrincipal(
+            Long id,
+            String username,
+            String fullName,
+            UserRole role,
+            boolean active
+    ) {
+        public static CachedPrincipal of(User user) {
+            return new CachedPrincipal(user.getId(), user.getUsername(), user.getFullName(), user.getRole(), user.isActive());
+        }
+
+        /**
+         * Detached user carrying only the cached columns. Good for permission checks, DTOs and
+         * as an association target; load the entity through {@code UserService} when the password
+         * or email is needed.
+         */
+        public User toUser() {
+            return User.builder()
+                    .id(id)
+                    .username(username)
+                    .fullName(fullName)
+                    .role(role)
+                    .active(active)
+                    .build();
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package cz.upce.fei.redsys.security;
 
-import cz.upce.fei.redsys.domain.User;
-import cz.upce.fei.redsys.service.UserService;
+import cz.upce.fei.redsys.cache.ExpiringLruCache;
+import cz.upce.fei.redsys.security.PrincipalCache.CachedPrincipal;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.access.AccessDeniedException;
@@ -17,6 +19,8 @@ import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
 import java.util.List;
@@ -28,15 +32,37 @@ public class TokenProvider {
     @Value("${security.jwt.secret:}")
     private String secret;
 
+    @Value("${security.jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
     private static final String ISSUER = "SemA";
     private static final long EXPIRY_SECONDS = 900L; // 15 minutes
 
-    private final UserService userService;
+    private final PrincipalCache principalCache;
+    private final Clock clock;
+
+    private SecretKey secretKey;
+    private JwtParser parser;
+    private ExpiringLruCache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        // A missing or short secret is reported by SecurityConfig#jwtSecretValidator with a clearer message
+        if (secret != null && secret.length() >= 32) {
+            secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+            parser = Jwts.parser()
+                    .verifyWith(secretKey)
+                    .requireIssuer(ISSUER)
+                    .clock(() -> Date.from(clock.instant()))
+                    .build();
+        }
+        verifiedTokens = new ExpiringLruCache<>(verifiedCacheSize, Duration.ofSeconds(EXPIRY_SECONDS), clock);
+    }
 
     public String createToken(Authentication authentication) {
         String username = authentication.getName();
         List<String> authorities = authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList();
-        Instant now = Instant.now();
+        Instant now = clock.instant();
         Instant exp = now.plusSeconds(EXPIRY_SECONDS);
         return Jwts.builder()
                 .issuer(ISSUER)
@@ -45,21 +71,36 @@ public class TokenProvider {
                 .expiration(Date.from(exp))
                 .claim("username", username)
                 .claim("authorities", authorities)
-                .signWith(getSecretKey())
+                .signWith(secretKey)
                 .compact();
     }
 
+    /**
+     * Verifies the token and resolves the authentication for it. Tokens whose signature was already
+     * checked are served from a cache until they expire, the user's active flag is checked every time.
+     */
     public Authentication toAuthentication(String token) {
-        Claims claims = parseAndValidate(token);
-        String username = claims.getSubject();
+        VerifiedToken verified = verify(token);
 
-        User user = userService.findByUsername(username)
+        CachedPrincipal principal = principalCache.get(verified.username())
                 .orElseThrow(() -> new AccessDeniedException("User not found"));
 
-        if (!user.isActive()) {
+        if (!principal.active()) {
             throw new AccessDeniedException("User is inactive");
         }
 
+        return new UsernamePasswordAuthenticationToken(verified.username(), null, verified.authorities());
+    }
+
+    private VerifiedToken verify(String token) {
+        String signature = token.substring(token.lastIndexOf('.') + 1);
+        VerifiedToken cached = verifiedTokens.get(signature);
+        // The whole token is compared so a cached signature cannot be reused with a different payload
+        if (cached != null && cached.token().equals(token)) {
+            return cached;
+        }
+
+        Claims claims = parseAndValidate(token);
         List<?> authoritiesRaw = claims.get("authorities", List.class);
         List<SimpleGrantedAuthority> grantedAuthorities = authoritiesRaw == null
                 ? List.of()
@@ -68,34 +109,22 @@ public class TokenProvider {
                 .map(String.class::cast)
                 .map(SimpleGrantedAuthority::new)
                 .toList();
-        return new UsernamePasswordAuthenticationToken(username, null, grantedAuthorities);
-    }
 
-    public boolean isValid(String token) {
-        try {
-            parseAndValidate(token);
-            return true;
-        } catch (JwtException e) {
-            return false;
-        }
+        VerifiedToken verified = new VerifiedToken(token, claims.getSubject(), grantedAuthorities);
+        verifiedTokens.put(signature, verified, claims.getExpiration().toInstant());
+        return verified;
     }
 
     private Claims parseAndValidate(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSecretKey())
-                .requireIssuer(ISSUER)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        Claims claims = parser.parseSignedClaims(token).getPayload();
 
         Date exp = claims.getExpiration();
-        if (exp == null || exp.before(Date.from(Instant.now()))) {
+        if (exp == null || exp.before(Date.from(clock.instant()))) {
             throw new JwtException("Token expired");
         }
         return claims;
     }
 
-    private SecretKey getSecretKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    private record VerifiedToken(String token, String username, List<SimpleGrantedAuthority> authorities) {
     }
-}
\ No newline at end of file
+}
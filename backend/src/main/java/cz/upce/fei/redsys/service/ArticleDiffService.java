@@ -0,0 +1,53 @@
+package cz.upce.fei.redsys.service;
+
+import cz.upce.fei.redsys.cache.ExpiringLruCache;
+import cz.upce.fei.redsys.domain.Article;
+import cz.upce.fei.redsys.dto.ArticleVersionDto.DiffSegment;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Token-level diffs between two stored versions of an article. Versions never change once
+ * written, so a computed diff stays valid and is memoized per (article, from, to).
+ */
+@Service
+@Slf4j
+public class ArticleDiffService {
+
+    private final ArticleVersionService articleVersionService;
+    private final ExpiringLruCache<DiffKey, List<DiffSegment>> diffs;
+
+    public ArticleDiffService(ArticleVersionService articleVersionService,
+                              @Value("${articles.diff-cache.max-size:200}") int maxSize,
+                              @Value("${articles.diff-cache.ttl:PT1H}") Duration ttl) {
+        this.articleVersionService = articleVersionService;
+        this.diffs = new ExpiringLruCache<>(maxSize, ttl);
+    }
+
+    /**
+     * Changes needed to turn version {@code from} into version {@code to}. The caller must have
+     * checked that both versions exist and may be viewed.
+     */
+    @Transactional(readOnly = true)
+    public List<DiffSegment> diff(Article article, Integer from, Integer to) {
+        return diffs.get(new DiffKey(article.getId(), from, to), key -> compute(article, from, to));
+    }
+
+    private List<DiffSegment> compute(Article article, Integer from, Integer to) {
+        long start = System.nanoTime();
+        String fromContent = articleVersionService.getVersion(article, from).getContent();
+        String toContent = articleVersionService.getVersion(article, to).getContent();
+        List<DiffSegment> segments = TokenDiff.diff(fromContent, toContent);
+        log.debug("Diffed article {} versions {} and {} into {} segments in {} ms", article.getId(), from, to,
+                segments.size(), Duration.ofNanos(System.nanoTime() - start).toMillis());
+        return List.copyOf(segments);
+    }
+
+    private record DiffKey(Long articleId, Integer from, Integer to) {
+    }
+}
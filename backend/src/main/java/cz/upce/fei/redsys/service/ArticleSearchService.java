@@ -0,0 +1,202 @@
+package cz.upce.fei.redsys.service;
+
+import cz.upce.fei.redsys.domain.Article;
+import cz.upce.fei.redsys.domain.ArticleSearchDocument;
+import cz.upce.fei.redsys.domain.ArticleState;
+import cz.upce.fei.redsys.domain.ArticleVersion;
+import cz.upce.fei.redsys.domain.Category;
+import cz.upce.fei.redsys.dto.ScrollDto;
+import cz.upce.fei.redsys.dto.SearchDto.CategoryFacet;
+import cz.upce.fei.redsys.dto.SearchDto.SearchHit;
+import cz.upce.fei.redsys.dto.SearchDto.SearchResponse;
+import cz.upce.fei.redsys.repository.ArticleRepository;
+import cz.upce.fei.redsys.repository.ArticleSearchDocumentRepository;
+import cz.upce.fei.redsys.search.SearchText;
+import cz.upce.fei.redsys.search.SuggestionIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search over articles. Each article's title and text are stored in the database as
+ * normalized terms next to its plain text, written in the same transaction as the article itself,
+ * so every node sees a change as soon as it commits. Readers without a newsroom role only find
+ * published articles.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ArticleSearchService {
+
+    private static final Pattern TAG = Pattern.compile("<[^>]*>");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    private static final int TITLE_TERMS_LENGTH = 255;
+    private static final int BACKFILL_BATCH = 100;
+
+    private final ArticleRepository articleRepository;
+    private final ArticleSearchDocumentRepository searchDocumentRepository;
+    private final ArticleVersionService articleVersionService;
+    private final CategoryService categoryService;
+    private final AuthService authService;
+    private final SuggestionIndex suggestionIndex;
+    private final PlatformTransactionManager transactionManager;
+
+    // Fills in articles that predate the search table; runs once after the table was added. Each
+    // batch commits on its own, and a failure is logged rather than stopping the application
+    @EventListener(ApplicationReadyEvent.class)
+    public void indexMissing() {
+        List<Long> ids;
+        try {
+            ids = articleRepository.findIdsWithoutSearchDocument();
+        } catch (RuntimeException e) {
+            log.warn("Articles missing from the search index could not be listed: {}", e.getMessage());
+            return;
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        log.info("Indexing {} articles for search", ids.size());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int from = 0; from < ids.size(); from += BACKFILL_BATCH) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + BACKFILL_BATCH));
+            try {
+                transactionTemplate.executeWithoutResult(status -> indexBatch(batch));
+            } catch (RuntimeException e) {
+                log.warn("Articles {} to {} could not be indexed: {}", batch.getFirst(), batch.getLast(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Stores the searchable text of the article as part of the current transaction.
+     */
+    @Transactional
+    public void index(Article article, String content) {
+        write(article, content);
+        suggest(article);
+    }
+
+    // The state is read from the article at query time, only the suggestions need updating
+    public void updateState(Article article) {
+        suggest(article);
+    }
+
+    // The search row goes with the article through the foreign key
+    public void remove(Long articleId) {
+        suggestionIndex.remove(SuggestionIndex.Type.ARTICLE, articleId);
+    }
+
+    @Transactional(readOnly = true)
+    public SearchResponse search(String query, List<Long> categoryIds, int page, int size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        int limit = ScrollDto.clampSize(size);
+        List<String> terms = List.copyOf(new LinkedHashSet<>(SearchText.tokenize(query)));
+        if (terms.isEmpty()) {
+            return new SearchResponse(query, List.of(), List.of(), page, limit, 0, 0);
+        }
+        Set<ArticleState> states = authService.isStaff()
+                ? EnumSet.complementOf(EnumSet.of(ArticleState.DELETED))
+                : EnumSet.of(ArticleState.PUBLISHED);
+        Set<Long> categories = categoryIds != null ? Set.copyOf(categoryIds) : Set.of();
+
+        log.debug("Searching articles: query='{}', categoryIds={}, page={}, size={}", query, categoryIds, page, limit);
+        long total = searchDocumentRepository.count(terms, states, categories);
+        if (total == 0) {
+            return new SearchResponse(query, List.of(), List.of(), page, limit, 0, 0);
+        }
+        Set<String> highlighted = Set.copyOf(terms);
+        List<SearchHit> hits = searchDocumentRepository.search(terms, states, categories, page * limit, limit).stream()
+                .map(row -> new SearchHit(row.id(), row.title(), row.articleState(), row.publishedAt(), row.score(),
+                        SearchText.highlight(row.body(), highlighted)))
+                .toList();
+        return new SearchResponse(query, hits, facets(searchDocumentRepository.countByCategory(terms, states)),
+                page, limit, total, (int) ((total + limit - 1) / limit));
+    }
+
+    private List<CategoryFacet> facets(Map<Long, Long> counts) {
+        if (counts.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, String> names = categoryService.findAllByIds(counts.keySet()).stream()
+                .collect(Collectors.toMap(Category::getId, Category::getName));
+        return counts.entrySet().stream()
+                .filter(entry -> names.containsKey(entry.getKey()))
+                .map(entry -> new CategoryFacet(entry.getKey(), names.get(entry.getKey()), entry.getValue()))
+                .sorted(Comparator.comparingLong(CategoryFacet::count).reversed().thenComparing(CategoryFacet::name))
+                .toList();
+    }
+
+    // Titles also feed the picker suggestions; deleted articles are not offered there
+    private void suggest(Article article) {
+        if (article.getArticleState() == ArticleState.DELETED) {
+            suggestionIndex.remove(SuggestionIndex.Type.ARTICLE, article.getId());
+        } else {
+            suggestionIndex.put(SuggestionIndex.forArticle(article));
+        }
+    }
+
+    private void indexBatch(List<Long> ids) {
+        for (Article article : articleRepository.findWithRelationsByIdIn(ids)) {
+            write(article, latestContent(article));
+        }
+    }
+
+    // An article without any version is indexed by its title alone
+    private String latestContent(Article article) {
+        ArticleVersion version;
+        try {
+            version = articleVersionService.getLatestVersion(article);
+        } catch (IllegalStateException e) {
+            version = null;
+        }
+        if (version == null) {
+            log.warn("Article {} has no version, indexing its title only", article.getId());
+            return null;
+        }
+        return version.getContent();
+    }
+
+    private void write(Article article, String content) {
+        String text = plainText(content);
+        String titleTerms = String.join(" ", SearchText.tokenize(article.getTitle()));
+        searchDocumentRepository.save(ArticleSearchDocument.builder()
+                .articleId(article.getId())
+                .titleTerms(titleTerms.length() > TITLE_TERMS_LENGTH ? titleTerms.substring(0, TITLE_TERMS_LENGTH) : titleTerms)
+                .bodyTerms(String.join(" ", SearchText.tokenize(text)))
+                .body(text)
+                .build());
+    }
+
+    static String plainText(String html) {
+        if (html == null) {
+            return "";
+        }
+        String text = TAG.matcher(html).replaceAll(" ")
+                .replace("&nbsp;", " ")
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&quot;", "\"")
+                .replace("&#39;", "'")
+                .replace("&amp;", "&");
+        return SPACES.matcher(text).replaceAll(" ").strip();
+    }
+}
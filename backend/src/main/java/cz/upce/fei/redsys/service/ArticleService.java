@@ -3,10 +3,14 @@ package cz.upce.fei.redsys.service;
 import cz.upce.fei.redsys.domain.*;
 import cz.upce.fei.redsys.dto.ArticleDto;
 import cz.upce.fei.redsys.dto.ArticleDto.*;
+import cz.upce.fei.redsys.dto.ScrollDto;
+import cz.upce.fei.redsys.dto.ScrollDto.Cursor;
 import cz.upce.fei.redsys.repository.ArticleRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
@@ -16,7 +20,11 @@ import jakarta.persistence.EntityNotFoundException;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -28,6 +36,9 @@ public class ArticleService {
     private final AuthService authService;
     private final CategoryService categoryService;
     private final ArticleVersionService articleVersionService;
+    private final PublishedArticleService publishedArticleService;
+    private final ArticleSearchService articleSearchService;
+    private final CategoryOverviewService categoryOverviewService;
 
     @Transactional
     public ArticleDetailResponse create(CreateArticleRequest req) {
@@ -55,6 +66,11 @@ public class ArticleService {
         log.debug("Article saved: {}", ArticleDto.toResponse(article));
 
         ArticleVersion version = articleVersionService.createInitialVersion(article, req.content());
+        publishedArticleService.refresh(article, version);
+        articleSearchService.index(article, version.getContent());
+        if (article.getArticleState() == ArticleState.PUBLISHED) {
+            categoryOverviewService.articleChanged(article);
+        }
         return ArticleDto.toDetailResponse(article, version.getContent(), version.getVersionNumber());
     }
 
@@ -63,24 +79,44 @@ public class ArticleService {
         log.debug("Getting article with id {}", id);
         Article article = articleRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Article not found"));
+        requireVisible(article.getArticleState());
         log.debug("Article found: {}", ArticleDto.toResponse(article));
 
         ArticleVersion latestVersion = articleVersionService.getLatestVersion(article);
         return ArticleDto.toDetailResponse(article, latestVersion.getContent(), latestVersion.getVersionNumber());
     }
+
+    @Transactional(readOnly = true)
+    public CacheValidator getCacheValidator(Long id) {
+        ArticleRepository.ArticleValidator validator = articleRepository.findValidatorById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Article not found"));
+        requireVisible(validator.getArticleState());
+        return ArticleDto.toCacheValidator(id, validator.getVersion(), validator.getVersionNumber(),
+                validator.getUpdatedAt(), validator.getVersionCreatedAt());
+    }
+
+    @Transactional(readOnly = true)
     public PaginatedArticleResponse list(Pageable pageable, List<Long> categoryIds) {
         log.debug("Listing articles: pageable={}, categoryIds={}", pageable, categoryIds);
 
-        Page<Article> page;
-        if (categoryIds != null && !categoryIds.isEmpty()) {
+        boolean filtered = categoryIds != null && !categoryIds.isEmpty();
+        Page<Long> page;
+        if (!authService.isStaff()) {
+            // The public listing is always newest published first, in index order
+            Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+            log.debug("Listing published articles only");
+            page = filtered
+                    ? articleRepository.findPublishedPageIdsByCategoryIds(categoryIds, unsorted)
+                    : articleRepository.findPublishedPageIds(unsorted);
+        } else if (filtered) {
             log.debug("Listing with filter for categories: {}", categoryIds);
-            page = articleRepository.findByCategories_IdIn(categoryIds, pageable);
+            page = articleRepository.findPageIdsByCategoryIds(categoryIds, pageable);
         } else {
             log.debug("Listing without filter");
-            page = articleRepository.findAll(pageable);
+            page = articleRepository.findPageIds(pageable);
         }
 
-        List<ArticleResponse> articles = page.getContent().stream()
+        List<ArticleResponse> articles = loadInOrder(page.getContent()).stream()
                 .map(ArticleDto::toResponse)
                 .toList();
 
@@ -95,6 +131,43 @@ public class ArticleService {
         );
     }
 
+    @Transactional(readOnly = true)
+    public ArticleSliceResponse scroll(String cursor, int size, List<Long> categoryIds) {
+        log.debug("Scrolling articles: cursor={}, size={}, categoryIds={}", cursor, size, categoryIds);
+        int limit = ScrollDto.clampSize(size);
+        Cursor after = cursor != null && !cursor.isBlank() ? Cursor.decode(cursor) : null;
+        boolean filtered = categoryIds != null && !categoryIds.isEmpty();
+
+        // One extra row tells whether another page exists without counting
+        Limit fetch = Limit.of(limit + 1);
+        List<Long> ids;
+        if (after == null) {
+            ids = filtered
+                    ? articleRepository.findFeedIdsByCategoryIds(categoryIds, fetch)
+                    : articleRepository.findFeedIds(fetch);
+        } else {
+            ids = filtered
+                    ? articleRepository.findFeedIdsByCategoryIdsAfter(categoryIds, after.instantKey(), after.id(), fetch)
+                    : articleRepository.findFeedIdsAfter(after.instantKey(), after.id(), fetch);
+        }
+
+        boolean hasNext = ids.size() > limit;
+        List<Article> articles = loadInOrder(hasNext ? ids.subList(0, limit) : ids);
+        String nextCursor = null;
+        if (hasNext) {
+            Article last = articles.getLast();
+            nextCursor = Cursor.of(last.getPublishedAt(), last.getId()).encode();
+        }
+
+        log.debug("Found {} articles, hasNext={}", articles.size(), hasNext);
+        return new ArticleSliceResponse(
+                articles.stream().map(ArticleDto::toResponse).toList(),
+                limit,
+                hasNext,
+                nextCursor
+        );
+    }
+
     @Transactional
     public ArticleDetailResponse update(Long id, UpdateArticleRequest req) {
         log.debug("Updating article with id {}", id);
@@ -110,6 +183,9 @@ public class ArticleService {
                 ? userService.requireUserByIdentifier(req.editorUsername())
                 : null;
 
+        boolean wasPublished = article.getArticleState() == ArticleState.PUBLISHED;
+        Set<Long> affectedCategoryIds = CategoryOverviewService.categoryIds(article);
+
         article.setTitle(req.title());
         article.setArticleState(req.articleState());
         article.setPublishedAt(req.publishedAt());
@@ -124,6 +200,12 @@ public class ArticleService {
         log.debug("Updated article: {}", ArticleDto.toResponse(article));
 
         ArticleVersion latestVersion = articleVersionService.createNewVersionIfChanged(article, req.content());
+        publishedArticleService.refresh(article, latestVersion);
+        articleSearchService.index(article, latestVersion.getContent());
+        if (wasPublished || article.getArticleState() == ArticleState.PUBLISHED) {
+            affectedCategoryIds.addAll(CategoryOverviewService.categoryIds(article));
+            categoryOverviewService.articleChanged(affectedCategoryIds);
+        }
         return ArticleDto.toDetailResponse(article, latestVersion.getContent(), latestVersion.getVersionNumber());
     }
 
@@ -133,7 +215,32 @@ public class ArticleService {
         if (!articleRepository.existsById(id)) {
             throw new EntityNotFoundException("Article not found");
         }
+        List<Long> categoryIds = articleRepository.findCategoryIds(id);
+        publishedArticleService.evict(id);
+        articleSearchService.remove(id);
         articleRepository.deleteById(id);
+        categoryOverviewService.articleChanged(categoryIds);
+    }
+
+    // Pages are selected by id first; fetching the collection in the same query would make
+    // the database unable to apply the limit
+    private List<Article> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Article> articlesById = articleRepository.findWithRelationsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Article::getId, Function.identity()));
+        return ids.stream()
+                .map(articlesById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    // Unpublished articles are reported as missing to the public rather than as forbidden
+    private void requireVisible(ArticleState state) {
+        if (state != ArticleState.PUBLISHED && !authService.isStaff()) {
+            throw new EntityNotFoundException("Article not found");
+        }
     }
 
     public Article requireArticleById(Long id) {
@@ -7,6 +7,8 @@ import cz.upce.fei.redsys.dto.ArticleVersionDto;
 import cz.upce.fei.redsys.dto.ArticleVersionDto.ArticleVersionResponse;
 import cz.upce.fei.redsys.dto.ArticleVersionDto.PaginatedArticleVersionResponse;
 import cz.upce.fei.redsys.repository.ArticleVersionRepository;
+import cz.upce.fei.redsys.repository.ArticleVersionRepository.VersionHead;
+import cz.upce.fei.redsys.repository.ArticleVersionRepository.VersionSummary;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -25,6 +27,7 @@ public class ArticleVersionService {
 
     private final ArticleVersionRepository versionRepository;
     private final AuthService authService;
+    private final ArticleVersionStorage articleVersionStorage;
 
     @Transactional
     public ArticleVersion createInitialVersion(Article article, String content) {
@@ -37,6 +40,7 @@ public class ArticleVersionService {
                 .versionNumber(1)
                 .createdBy(currentUser)
                 .build();
+        articleVersionStorage.encode(version, null);
 
         return versionRepository.save(version);
     }
@@ -46,9 +50,10 @@ public class ArticleVersionService {
         log.debug("Checking if new version is needed for article {}", article.getId());
         User currentUser = authService.currentUser();
 
-        ArticleVersion currentVersion = getLatestVersion(article);
+        VersionHead currentVersion = versionRepository.findFirstByArticleOrderByVersionNumberDesc(article)
+                .orElseThrow(() -> new IllegalStateException("Article has no versions"));
 
-        if (!newContent.equals(currentVersion.getContent())) {
+        if (!isUnchanged(article, currentVersion, newContent)) {
             log.debug("Content changed, creating new version");
             ArticleVersion version = ArticleVersion.builder()
                     .article(article)
@@ -56,37 +61,95 @@ public class ArticleVersionService {
                     .versionNumber(currentVersion.getVersionNumber() + 1)
                     .createdBy(currentUser)
                     .build();
+            articleVersionStorage.encode(version, currentVersion);
 
             return versionRepository.save(version);
         }
 
         log.debug("Content unchanged, keeping version {}", currentVersion.getVersionNumber());
-        return currentVersion;
+        // Detached copy of the current version; its content is the same as the one passed in
+        return ArticleVersion.builder()
+                .id(currentVersion.getId())
+                .article(article)
+                .content(newContent)
+                .versionNumber(currentVersion.getVersionNumber())
+                .baseVersionNumber(currentVersion.getBaseVersionNumber())
+                .contentDigest(currentVersion.getContentDigest())
+                .contentLength(currentVersion.getContentLength())
+                .createdAt(currentVersion.getCreatedAt())
+                .build();
+    }
+
+    private boolean isUnchanged(Article article, VersionHead currentVersion, String newContent) {
+        if (currentVersion.getContentDigest() != null) {
+            return currentVersion.getContentLength() == newContent.length()
+                    && currentVersion.getContentDigest().equals(ArticleVersionStorage.digest(newContent));
+        }
+        // Versions saved before digests were stored are compared in full once and get their digest filled in
+        ArticleVersion latest = getLatestVersion(article);
+        articleVersionStorage.fillDigest(latest);
+        return newContent.equals(latest.getContent());
+    }
+
+    /**
+     * Excludes the current version from retention pruning, as the version a review or publication
+     * refers to. Only the version metadata is read.
+     */
+    @Transactional
+    public Integer retainLatest(Article article) {
+        VersionHead head = versionRepository.findFirstByArticleOrderByVersionNumberDesc(article)
+                .orElseThrow(() -> new IllegalStateException("Article has no versions"));
+        log.debug("Retaining version {} of article {}", head.getVersionNumber(), article.getId());
+        versionRepository.markRetained(article, head.getVersionNumber());
+        return head.getVersionNumber();
+    }
+
+    /**
+     * Same as {@link #retainLatest(Article)}, returning the version with its content.
+     */
+    @Transactional
+    public ArticleVersion retainLatestWithContent(Article article) {
+        ArticleVersion version = getLatestVersion(article);
+        log.debug("Retaining version {} of article {}", version.getVersionNumber(), article.getId());
+        versionRepository.markRetained(article, version.getVersionNumber());
+        return version;
     }
 
     @Transactional(readOnly = true)
     public ArticleVersion getLatestVersion(Article article) {
         log.debug("Getting latest version for article {}", article.getId());
-        return versionRepository.findTopByArticleOrderByVersionNumberDesc(article)
+        ArticleVersion version = versionRepository.findTopByArticleOrderByVersionNumberDesc(article)
                 .orElseThrow(() -> new IllegalStateException("Article has no versions"));
+        articleVersionStorage.materialize(version);
+        return version;
     }
 
     @Transactional(readOnly = true)
     public ArticleVersion getVersion(Article article, Integer versionNumber) {
         enforceViewPermission(article);
         log.debug("Getting version {} for article {}", versionNumber, article.getId());
-        return versionRepository.findByArticleAndVersionNumber(article, versionNumber)
+        ArticleVersion version = versionRepository.findByArticleAndVersionNumber(article, versionNumber)
                 .orElseThrow(() -> new EntityNotFoundException("Version " + versionNumber + " not found for article " + article.getId()));
+        articleVersionStorage.materialize(version);
+        return version;
+    }
+
+    @Transactional(readOnly = true)
+    public void requireVersionExists(Article article, Integer versionNumber) {
+        enforceViewPermission(article);
+        if (!versionRepository.existsByArticleAndVersionNumber(article, versionNumber)) {
+            throw new EntityNotFoundException("Version " + versionNumber + " not found for article " + article.getId());
+        }
     }
 
     @Transactional(readOnly = true)
     public PaginatedArticleVersionResponse listVersions(Article article, Pageable pageable) {
         enforceViewPermission(article);
         log.debug("Listing versions for article {}: {}", article.getId(), pageable);
-        Page<ArticleVersion> page = versionRepository.findAllByArticleOrderByVersionNumberDesc(article, pageable);
+        Page<VersionSummary> page = versionRepository.findSummariesByArticle(article, pageable);
 
         List<ArticleVersionResponse> articleVersions = page.getContent().stream()
-                .map(version -> ArticleVersionDto.toResponse(version, false))
+                .map(ArticleVersionDto::toResponse)
                 .toList();
 
         log.debug("Found {} versions", articleVersions.size());
@@ -0,0 +1,154 @@
+package cz.upce.fei.redsys.service;
+
+import cz.upce.fei.redsys.domain.ArticleVersion;
+import cz.upce.fei.redsys.repository.ArticleVersionRepository;
+import cz.upce.fei.redsys.repository.ArticleVersionRepository.VersionHead;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Decides how article versions are written. In {@code delta} mode a version is stored as a delta
+ * against the last full snapshot of the article, and a new snapshot is written every
+ * {@code snapshot-interval} versions, so reconstructing any version reads at most two rows.
+ */
+@Service
+@Slf4j
+public class ArticleVersionStorage {
+
+    public enum Mode { FULL, DELTA }
+
+    private final ArticleVersionRepository versionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Mode mode;
+    private final int snapshotInterval;
+
+    public ArticleVersionStorage(ArticleVersionRepository versionRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${articles.versions.storage:full}") Mode mode,
+                                 @Value("${articles.versions.snapshot-interval:20}") int snapshotInterval) {
+        this.versionRepository = versionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.mode = mode;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    public static String digest(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public void fillDigest(ArticleVersion version) {
+        version.setContentDigest(digest(version.getContent()));
+        version.setContentLength(version.getContent().length());
+    }
+
+    /**
+     * Prepares a new version for saving; {@code previous} is the article's latest version, or null
+     * for the first one.
+     */
+    public void encode(ArticleVersion version, VersionHead previous) {
+        fillDigest(version);
+        version.setStoredContent(version.getContent());
+        version.setBaseVersionNumber(null);
+        version.setDeltaChecked(mode == Mode.DELTA);
+        if (mode != Mode.DELTA || previous == null) {
+            return;
+        }
+
+        int snapshotNumber = previous.getBaseVersionNumber() != null
+                ? previous.getBaseVersionNumber()
+                : previous.getVersionNumber();
+        if (version.getVersionNumber() - snapshotNumber >= snapshotInterval) {
+            return;
+        }
+        encodeAgainst(version, snapshotNumber, loadSnapshot(version.getArticle().getId(), snapshotNumber));
+    }
+
+    /**
+     * Fills in the content of a version stored as a delta.
+     */
+    public void materialize(ArticleVersion version) {
+        if (version.isSnapshot() || version.getContent() != null) {
+            return;
+        }
+        String snapshot = loadSnapshot(version.getArticle().getId(), version.getBaseVersionNumber());
+        version.setContent(ContentDelta.apply(snapshot, version.getStoredContent()));
+    }
+
+    // Converts versions written while in full mode, one article per transaction. Converted versions
+    // are marked, so each version is read here at most once.
+    @EventListener(ApplicationReadyEvent.class)
+    public void encodeExisting() {
+        if (mode != Mode.DELTA) {
+            return;
+        }
+        List<Long> articleIds = versionRepository.findArticleIdsNotDeltaChecked();
+        if (articleIds.isEmpty()) {
+            return;
+        }
+        log.info("Encoding versions of {} articles as deltas", articleIds.size());
+        for (Long articleId : articleIds) {
+            transactionTemplate.executeWithoutResult(status -> encodeArticle(articleId));
+        }
+    }
+
+    private void encodeArticle(Long articleId) {
+        List<ArticleVersion> versions = versionRepository.findAllByArticleId(articleId);
+        // A snapshot that deltas are already based on has to stay a snapshot
+        Set<Integer> bases = versions.stream()
+                .map(ArticleVersion::getBaseVersionNumber)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Integer snapshotNumber = null;
+        String snapshot = null;
+        for (ArticleVersion version : versions) {
+            if (!version.isDeltaChecked() && version.isSnapshot()) {
+                if (version.getContentDigest() == null) {
+                    fillDigest(version);
+                }
+                if (snapshotNumber != null && version.getVersionNumber() - snapshotNumber < snapshotInterval
+                        && !bases.contains(version.getVersionNumber())) {
+                    encodeAgainst(version, snapshotNumber, snapshot);
+                }
+            }
+            if (version.isSnapshot()) {
+                snapshotNumber = version.getVersionNumber();
+                snapshot = version.getContent();
+            }
+            version.setDeltaChecked(true);
+        }
+    }
+
+    private void encodeAgainst(ArticleVersion version, int snapshotNumber, String snapshot) {
+        String delta = ContentDelta.encode(snapshot, version.getContent());
+        // A delta that is not much smaller than the text is not worth the extra read
+        if (delta.length() * 2 < version.getContent().length()) {
+            version.setStoredContent(delta);
+            version.setBaseVersionNumber(snapshotNumber);
+        }
+    }
+
+    private String loadSnapshot(Long articleId, Integer versionNumber) {
+        return versionRepository.findStoredContent(articleId, versionNumber)
+                .orElseThrow(() -> new IllegalStateException(
+                        "Snapshot " + versionNumber + " of article " + articleId + " is missing"));
+    }
+}
@@ -6,13 +6,17 @@ import cz.upce.fei.redsys.dto.AuthDto.*;
 import cz.upce.fei.redsys.dto.UserDto;
 import cz.upce.fei.redsys.dto.UserDto.UserResponse;
 import cz.upce.fei.redsys.repository.PasswordResetTokenRepository;
+import cz.upce.fei.redsys.security.PrincipalCache;
+import cz.upce.fei.redsys.security.PrincipalCache.CachedPrincipal;
 import cz.upce.fei.redsys.security.TokenProvider;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -21,6 +25,7 @@ import org.springframework.transaction.annotation.Transactional;
 import jakarta.validation.ValidationException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -33,8 +38,11 @@ public class AuthService {
     private final AuthenticationManager authenticationManager;
     private final TokenProvider tokenProvider;
     private final UUIDCodeGenerator codeGenerator;
+    private final PrincipalCache principalCache;
 
     private static final Duration RESET_CODE_TTL = Duration.ofMinutes(10);
+    private static final Set<String> STAFF_AUTHORITIES =
+            Set.of("ROLE_ADMIN", "ROLE_CHIEF_EDITOR", "ROLE_EDITOR", "ROLE_REVIEWER");
 
     @Transactional
     public UserResponse register(RegisterRequest req) {
@@ -104,7 +112,7 @@ public class AuthService {
 
     @Transactional
     public void changePassword(PasswordChangeRequest req) {
-        User user = currentUser();
+        User user = currentUserEntity();
         log.debug("Changing password for user '{}'", user.getUsername());
         if (!passwordEncoder.matches(req.oldPassword(), user.getPassword())) {
             log.warn("Password change failed for user '{}': old password does not match", user.getUsername());
@@ -114,10 +122,40 @@ public class AuthService {
         log.info("Password changed successfully for user '{}'", user.getUsername());
     }
 
+    /**
+     * Whether the caller works in the newsroom and may see unpublished articles. Decided from the
+     * granted roles, so anonymous requests are answered without a lookup.
+     */
+    public boolean isStaff() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            return false;
+        }
+        return auth.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .anyMatch(STAFF_AUTHORITIES::contains);
+    }
+
+    /**
+     * Current user resolved from the principal cache, so most requests do not touch the users table.
+     * The returned user is detached and carries only id, username, full name, role and active flag.
+     */
     public User currentUser() {
         String username = currentUsername();
         log.debug("Fetching current authenticated user '{}'", username);
 
+        CachedPrincipal principal = principalCache.get(username)
+                .orElseThrow(() -> new AccessDeniedException("Not authenticated"));
+
+        if (!principal.active()) {
+            log.warn("Current user '{}' is inactive", username);
+            throw new AccessDeniedException("User is inactive");
+        }
+        return principal.toUser();
+    }
+
+    private User currentUserEntity() {
+        String username = currentUsername();
         User user = userService.findByUsername(username)
                 .orElseThrow(() -> new AccessDeniedException("Not authenticated"));
 
@@ -0,0 +1,200 @@
+package cz.upce.fei.redsys.service;
+
+import cz.upce.fei.redsys.cache.CacheInvalidationEvent;
+import cz.upce.fei.redsys.cache.ExpiringLruCache;
+import cz.upce.fei.redsys.domain.Article;
+import cz.upce.fei.redsys.domain.Category;
+import cz.upce.fei.redsys.dto.ArticleDto;
+import cz.upce.fei.redsys.dto.ArticleDto.ArticleResponse;
+import cz.upce.fei.redsys.dto.CategoryDto.CategoryOverviewListResponse;
+import cz.upce.fei.redsys.dto.CategoryDto.CategoryOverviewResponse;
+import cz.upce.fei.redsys.repository.ArticleRepository;
+import cz.upce.fei.redsys.repository.ArticleRepository.CategoryArticleId;
+import cz.upce.fei.redsys.repository.CategoryRepository;
+import cz.upce.fei.redsys.repository.CategoryRepository.PublishedStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Per-category figures for the homepage: how many articles are published in each category, when
+ * the last one came out and the newest few of them. The counters are stored on the categories and
+ * recounted whenever an article in them changes; the newest articles are kept in memory and
+ * dropped on the same occasions.
+ */
+@Service
+@Slf4j
+public class CategoryOverviewService {
+
+    private final CategoryRepository categoryRepository;
+    private final ArticleRepository articleRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int latestSize;
+    private final ExpiringLruCache<Long, List<ArticleResponse>> latest;
+
+    public CategoryOverviewService(CategoryRepository categoryRepository,
+                                   ArticleRepository articleRepository,
+                                   ApplicationEventPublisher eventPublisher,
+                                   @Value("${categories.overview.latest-size:5}") int latestSize,
+                                   @Value("${categories.overview.cache.max-size:500}") int maxSize,
+                                   @Value("${categories.overview.cache.ttl:PT10M}") Duration ttl) {
+        this.categoryRepository = categoryRepository;
+        this.articleRepository = articleRepository;
+        this.eventPublisher = eventPublisher;
+        this.latestSize = latestSize;
+        this.latest = new ExpiringLruCache<>(maxSize, ttl);
+    }
+
+    /**
+     * Recounts the given categories. Called after an article was changed in the current
+     * transaction, with the categories it belonged to before and after the change.
+     */
+    @Transactional
+    public void articleChanged(Collection<Long> categoryIds) {
+        if (categoryIds.isEmpty()) {
+            return;
+        }
+        Set<Long> ids = new TreeSet<>(categoryIds);
+        log.debug("Recounting published articles in categories {}", ids);
+        // Locking in a statement of its own makes the recount see articles committed by the
+        // transaction that held the rows before
+        List<Category> categories = categoryRepository.lockAllByIdIn(ids);
+        recount(categories);
+        ids.forEach(this::invalidate);
+    }
+
+    @Transactional
+    public void articleChanged(Article article) {
+        articleChanged(categoryIds(article));
+    }
+
+    // Corrects counters of articles written without going through the services, e.g. seed data
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void recountAll() {
+        List<Category> categories = categoryRepository.findAll();
+        if (!categories.isEmpty()) {
+            recount(categories);
+            latest.invalidateAll();
+            eventPublisher.publishEvent(CacheInvalidationEvent.local(CacheInvalidationEvent.CATEGORY, null));
+        }
+    }
+
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (!event.remoteFor(CacheInvalidationEvent.CATEGORY)) {
+            return;
+        }
+        if (event.allEntries()) {
+            latest.invalidateAll();
+        } else {
+            latest.invalidate(event.id());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public CategoryOverviewListResponse overview() {
+        List<Category> categories = categoryRepository.findAll(Sort.by("name"));
+        Map<Long, List<ArticleResponse>> latestByCategory = latestArticles(categories);
+        List<CategoryOverviewResponse> overviews = categories.stream()
+                .map(category -> new CategoryOverviewResponse(
+                        category.getId(),
+                        category.getName(),
+                        category.getDescription(),
+                        Objects.requireNonNullElse(category.getPublishedArticleCount(), 0),
+                        category.getLastPublishedAt(),
+                        latestByCategory.getOrDefault(category.getId(), List.of())))
+                .toList();
+        return new CategoryOverviewListResponse(overviews);
+    }
+
+    public static Set<Long> categoryIds(Article article) {
+        return article.getCategories().stream().map(Category::getId).collect(Collectors.toCollection(HashSet::new));
+    }
+
+    // Misses of all categories are loaded with one windowed query for the ids and one fetch of the articles
+    private Map<Long, List<ArticleResponse>> latestArticles(List<Category> categories) {
+        Map<Long, List<ArticleResponse>> result = new HashMap<>();
+        Set<Long> missing = new HashSet<>();
+        for (Category category : categories) {
+            if (Objects.requireNonNullElse(category.getPublishedArticleCount(), 0) == 0) {
+                continue;
+            }
+            List<ArticleResponse> cached = latest.get(category.getId());
+            if (cached != null) {
+                result.put(category.getId(), cached);
+            } else {
+                missing.add(category.getId());
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        List<CategoryArticleId> rows = articleRepository.findLatestIdsPerCategory(missing, latestSize);
+        Set<Long> articleIds = rows.stream().map(CategoryArticleId::getArticleId).collect(Collectors.toSet());
+        Map<Long, ArticleResponse> articles = articleIds.isEmpty()
+                ? Map.of()
+                : articleRepository.findWithRelationsByIdIn(articleIds).stream()
+                        .collect(Collectors.toMap(Article::getId, ArticleDto::toResponse));
+        // Rows come ordered by category and position, so grouping keeps the newest first
+        Map<Long, List<ArticleResponse>> loaded = rows.stream()
+                .filter(row -> articles.containsKey(row.getArticleId()))
+                .collect(Collectors.groupingBy(CategoryArticleId::getCategoryId,
+                        Collectors.mapping(row -> articles.get(row.getArticleId()), Collectors.toList())));
+        for (Long categoryId : missing) {
+            List<ArticleResponse> newest = List.copyOf(loaded.getOrDefault(categoryId, List.of()));
+            latest.put(categoryId, newest);
+            result.put(categoryId, newest);
+        }
+        log.debug("Loaded newest articles for {} categories", missing.size());
+        return result;
+    }
+
+    // Sets the counters on the managed categories; only those that changed are written, and only
+    // their entries are replaced in the second-level cache
+    private void recount(List<Category> categories) {
+        Map<Long, PublishedStats> stats = categoryRepository
+                .findPublishedStats(categories.stream().map(Category::getId).toList()).stream()
+                .collect(Collectors.toMap(PublishedStats::getCategoryId, Function.identity()));
+        for (Category category : categories) {
+            PublishedStats published = stats.get(category.getId());
+            category.setPublishedArticleCount(published != null ? published.getPublishedArticleCount().intValue() : 0);
+            category.setLastPublishedAt(published != null ? published.getLastPublishedAt() : null);
+        }
+    }
+
+    private void invalidate(Long categoryId) {
+        latest.invalidate(categoryId);
+        // Other nodes' entity caches still hold the previous counters
+        eventPublisher.publishEvent(CacheInvalidationEvent.local(CacheInvalidationEvent.CATEGORY, categoryId));
+        // Readers may load the previous articles until the transaction commits
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    latest.invalidate(categoryId);
+                }
+            });
+        }
+    }
+}
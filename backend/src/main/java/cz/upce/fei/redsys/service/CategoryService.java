@@ -7,6 +7,7 @@ import cz.upce.fei.redsys.dto.CategoryDto.CreateCategoryRequest;
 import cz.upce.fei.redsys.dto.CategoryDto.PaginatedCategoryResponse;
 import cz.upce.fei.redsys.dto.CategoryDto.UpdateCategoryRequest;
 import cz.upce.fei.redsys.repository.CategoryRepository;
+import cz.upce.fei.redsys.search.SuggestionIndex;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,6 +25,7 @@ import java.util.Set;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final SuggestionIndex suggestionIndex;
 
     @Transactional
     public CategoryResponse create(CreateCategoryRequest req) {
@@ -37,7 +39,9 @@ public class CategoryService {
         category.setName(req.name());
         category.setDescription(req.description());
 
-        CategoryResponse response = CategoryDto.toResponse(categoryRepository.save(category));
+        Category saved = categoryRepository.save(category);
+        suggestionIndex.put(SuggestionIndex.forCategory(saved));
+        CategoryResponse response = CategoryDto.toResponse(saved);
         log.debug("Category created: {}", response);
         return response;
     }
@@ -80,7 +84,9 @@ public class CategoryService {
         category.setName(req.name());
         category.setDescription(req.description());
 
-        CategoryResponse response = CategoryDto.toResponse(categoryRepository.save(category));
+        Category saved = categoryRepository.save(category);
+        suggestionIndex.put(SuggestionIndex.forCategory(saved));
+        CategoryResponse response = CategoryDto.toResponse(saved);
         log.debug("Category updated: {}", response);
         return response;
     }
@@ -92,10 +98,11 @@ public class CategoryService {
             throw new EntityNotFoundException("Category not found");
         }
         categoryRepository.deleteById(id);
+        suggestionIndex.remove(SuggestionIndex.Type.CATEGORY, id);
     }
 
     @Transactional(readOnly = true)
     public List<Category> findAllByIds(Set<Long> ids) {
-        return categoryRepository.findAllById(ids);
+        return categoryRepository.findAllCachedById(ids);
     }
 }
@@ -0,0 +1,174 @@
+package cz.upce.fei.redsys.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact delta between two texts, made of copies from the base text and inserted literals. The
+ * texts are compared by tokens ending at a line break or a closing {@code >}, which for editor HTML
+ * means an edit usually costs no more than the paragraph it touches.
+ * <p>
+ * Encoded form: {@code C<start>,<length>;} copies a range of the base, {@code I<length>:<text>}
+ * inserts text.
+ */
+final class ContentDelta {
+
+    // Shorter matches cost more to encode than to insert
+    private static final int MIN_COPY = 16;
+    private static final int MAX_CANDIDATES = 16;
+
+    private ContentDelta() {}
+
+    static String encode(String base, String target) {
+        List<Integer> baseTokens = tokenize(base);
+        List<Integer> targetTokens = tokenize(target);
+
+        Map<String, List<Integer>> index = new HashMap<>();
+        for (int j = 0; j < baseTokens.size() - 1; j++) {
+            List<Integer> positions = index.computeIfAbsent(token(base, baseTokens, j), key -> new ArrayList<>());
+            if (positions.size() < MAX_CANDIDATES) {
+                positions.add(j);
+            }
+        }
+
+        Encoder encoder = new Encoder();
+        int expected = -1;
+        int i = 0;
+        while (i < targetTokens.size() - 1) {
+            int best = -1;
+            int bestLength = 0;
+            List<Integer> candidates = new ArrayList<>(index.getOrDefault(token(target, targetTokens, i), List.of()));
+            // Continuing the previous copy is the usual case and may be missing from the capped candidates
+            if (expected >= 0) {
+                candidates.addFirst(expected);
+            }
+            for (int j : candidates) {
+                int length = matchLength(base, baseTokens, j, target, targetTokens, i);
+                if (length > bestLength) {
+                    best = j;
+                    bestLength = length;
+                }
+            }
+
+            int start = best >= 0 ? baseTokens.get(best) : 0;
+            int chars = best >= 0 ? baseTokens.get(best + bestLength) - start : 0;
+            if (chars >= MIN_COPY) {
+                encoder.copy(start, chars);
+                expected = best + bestLength;
+                i += bestLength;
+            } else {
+                encoder.insert(token(target, targetTokens, i));
+                expected = -1;
+                i++;
+            }
+        }
+        return encoder.finish();
+    }
+
+    static String apply(String base, String delta) {
+        StringBuilder result = new StringBuilder(Math.max(base.length(), 16));
+        int position = 0;
+        while (position < delta.length()) {
+            char op = delta.charAt(position++);
+            switch (op) {
+                case 'C' -> {
+                    int comma = delta.indexOf(',', position);
+                    int end = delta.indexOf(';', comma);
+                    int start = Integer.parseInt(delta, position, comma, 10);
+                    int length = Integer.parseInt(delta, comma + 1, end, 10);
+                    result.append(base, start, start + length);
+                    position = end + 1;
+                }
+                case 'I' -> {
+                    int colon = delta.indexOf(':', position);
+                    int length = Integer.parseInt(delta, position, colon, 10);
+                    result.append(delta, colon + 1, colon + 1 + length);
+                    position = colon + 1 + length;
+                }
+                default -> throw new IllegalStateException("Corrupted delta at offset " + (position - 1));
+            }
+        }
+        return result.toString();
+    }
+
+    // Token boundaries, starting with 0 and ending with the text length
+    private static List<Integer> tokenize(String text) {
+        List<Integer> boundaries = new ArrayList<>();
+        boundaries.add(0);
+        for (int k = 0; k < text.length(); k++) {
+            char c = text.charAt(k);
+            if (c == '\n' || c == '>') {
+                boundaries.add(k + 1);
+            }
+        }
+        if (boundaries.getLast() != text.length()) {
+            boundaries.add(text.length());
+        }
+        return boundaries;
+    }
+
+    private static String token(String text, List<Integer> boundaries, int index) {
+        return text.substring(boundaries.get(index), boundaries.get(index + 1));
+    }
+
+    private static int matchLength(String base, List<Integer> baseTokens, int j,
+                                   String target, List<Integer> targetTokens, int i) {
+        int length = 0;
+        while (j + length < baseTokens.size() - 1 && i + length < targetTokens.size() - 1) {
+            int baseStart = baseTokens.get(j + length);
+            int baseLength = baseTokens.get(j + length + 1) - baseStart;
+            int targetStart = targetTokens.get(i + length);
+            int targetLength = targetTokens.get(i + length + 1) - targetStart;
+            if (baseLength != targetLength || !base.regionMatches(baseStart, target, targetStart, baseLength)) {
+                break;
+            }
+            length++;
+        }
+        return length;
+    }
+
+    private static final class Encoder {
+        private final StringBuilder out = new StringBuilder();
+        private final StringBuilder pending = new StringBuilder();
+        private int copyStart = -1;
+        private int copyLength;
+
+        void copy(int start, int length) {
+            flushInsert();
+            if (copyStart >= 0 && copyStart + copyLength == start) {
+                copyLength += length;
+                return;
+            }
+            flushCopy();
+            copyStart = start;
+            copyLength = length;
+        }
+
+        void insert(String text) {
+            flushCopy();
+            pending.append(text);
+        }
+
+        String finish() {
+            flushCopy();
+            flushInsert();
+            return out.toString();
+        }
+
+        private void flushCopy() {
+            if (copyStart >= 0) {
+                out.append('C').append(copyStart).append(',').append(copyLength).append(';');
+                copyStart = -1;
+            }
+        }
+
+        private void flushInsert() {
+            if (!pending.isEmpty()) {
+                out.append('I').append(pending.length()).append(':').append(pending);
+                pending.setLength(0);
+            }
+        }
+    }
+}
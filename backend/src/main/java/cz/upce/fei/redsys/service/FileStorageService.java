@@ -3,23 +3,35 @@ package cz.upce.fei.redsys.service;
 import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.imageio.ImageIO;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.net.MalformedURLException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
+/**
+ * Files named by their SHA-256 are stored content-addressed under a two character shard directory
+ * ({@code <root>/ab/ab12...ef.png}); older files named by a random UUID stay directly in the root.
+ * Derived variants of a file live under {@code <root>/.variants/<file name>/} and are removed with it.
+ */
 @Service
 public class FileStorageService {
 
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("^[0-9a-f]{64}(\\.[A-Za-z0-9]+)?$");
+    private static final Pattern VARIANT_NAME = Pattern.compile("^[a-z0-9]+\\.[a-z0-9]+$");
+    private static final String VARIANTS_DIRECTORY = ".variants";
+
     private final Path root;
 
     public FileStorageService(@Value("${app.storage.images}") String storagePath) {
@@ -35,40 +47,114 @@ public class FileStorageService {
         }
     }
 
+    /**
+     * Hex encoded SHA-256 of the upload, computed while streaming it without writing anything to disk.
+     */
+    public String hash(MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read uploaded file", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
     public String store(MultipartFile file, String filename) {
-        try {
-            Path target = root.resolve(filename).normalize();
-            Files.copy(file.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
+        try (InputStream in = file.getInputStream()) {
+            Path target = resolve(filename);
+            write(target, in);
             return target.toString();
         } catch (IOException e) {
             throw new RuntimeException("Failed to store file", e);
         }
     }
 
-    public Resource load(String filename) {
-        try {
-            Path file = root.resolve(filename).normalize();
-            Resource resource = new UrlResource(file.toUri());
+    /**
+     * Location of a derived variant of the file, e.g. {@code w320.jpg}. The file may not exist yet.
+     */
+    public Path variant(String filename, String variantName) {
+        if (!VARIANT_NAME.matcher(variantName).matches()) {
+            throw new IllegalArgumentException("Invalid variant name: " + variantName);
+        }
+        return variantDirectory(filename).resolve(variantName);
+    }
 
-            if (resource.exists() || resource.isReadable()) {
-                return resource;
-            } else {
-                throw new EntityNotFoundException("Could not read file: " + filename);
-            }
-        } catch (MalformedURLException e) {
+    public Path storeVariant(String filename, String variantName, byte[] content) {
+        Path target = variant(filename, variantName);
+        try (InputStream in = new ByteArrayInputStream(content)) {
+            write(target, in);
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store variant " + variantName + " of " + filename, e);
+        }
+    }
+
+    public boolean exists(String filename) {
+        return Files.exists(resolve(filename));
+    }
+
+    public Path load(String filename) {
+        Path file = resolve(filename);
+        if (!Files.isReadable(file)) {
             throw new EntityNotFoundException("Could not read file: " + filename);
         }
+        return file;
     }
 
     public void delete(String filename) {
         try {
-            Path target = root.resolve(filename);
-            try (InputStream is = Files.newInputStream(target)) {
-                ImageIO.read(is);
-            }
-            Files.deleteIfExists(target);
+            Files.deleteIfExists(resolve(filename));
+            deleteVariants(filename);
         } catch (IOException e) {
-            throw new RuntimeException("Failed to delete file", e);
+            throw new UncheckedIOException("Failed to delete file " + filename, e);
+        }
+    }
+
+    private void deleteVariants(String filename) throws IOException {
+        Path directory = variantDirectory(filename);
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> variants = Files.list(directory)) {
+            for (Path variant : variants.toList()) {
+                Files.deleteIfExists(variant);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    // Written next to the target and moved into place, so readers never see a partial file
+    private void write(Path target, InputStream in) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+        try {
+            Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path variantDirectory(String filename) {
+        Path original = resolve(filename);
+        Path variants = root.resolve(VARIANTS_DIRECTORY);
+        return variants.resolve(root.relativize(original));
+    }
+
+    private Path resolve(String filename) {
+        Path file = CONTENT_ADDRESSED.matcher(filename).matches()
+                ? root.resolve(filename.substring(0, 2)).resolve(filename).normalize()
+                : root.resolve(filename).normalize();
+        if (!file.startsWith(root) || file.equals(root)) {
+            throw new IllegalArgumentException("Invalid file name: " + filename);
         }
+        return file;
     }
 }
@@ -3,11 +3,14 @@ package cz.upce.fei.redsys.service;
 import cz.upce.fei.redsys.domain.Image;
 import cz.upce.fei.redsys.dto.ImageDto;
 import cz.upce.fei.redsys.dto.ImageDto.ImageResponse;
+import cz.upce.fei.redsys.dto.ImageDto.BulkDeleteImagesRequest;
+import cz.upce.fei.redsys.dto.ImageDto.BulkDeleteImagesResponse;
 import cz.upce.fei.redsys.dto.ImageDto.DownloadResource;
 import cz.upce.fei.redsys.repository.ImageRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -16,10 +19,18 @@ import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.persistence.EntityNotFoundException;
 
+import java.nio.file.Path;
+import java.time.Instant;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Set;
+import java.util.Locale;
+import java.util.regex.Pattern;
 import cz.upce.fei.redsys.dto.ImageDto.PaginatedImageResponse;
+import cz.upce.fei.redsys.dto.ImageDto.ImageSliceResponse;
+import cz.upce.fei.redsys.dto.ScrollDto;
+import cz.upce.fei.redsys.dto.ScrollDto.Cursor;
 
 
 @Service
@@ -30,6 +41,7 @@ public class ImageService {
     private final ImageRepository imageRepository;
     private final FileStorageService fileStorageService;
 
+    private static final Pattern EXTENSION = Pattern.compile("^\\.[a-z0-9]{1,10}$");
     private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
     private static final String[] ALLOWED_CONTENT_TYPES = {
             "image/jpeg", "image/png", "image/gif", "image/webp"
@@ -41,7 +53,19 @@ public class ImageService {
 
         validateFile(file);
 
-        String filename = generateFilename(file.getOriginalFilename());
+        String contentHash = fileStorageService.hash(file);
+        if (imageRepository.acquireReference(contentHash) > 0) {
+            Image existing = imageRepository.findByContentHash(contentHash)
+                    .orElseThrow(() -> new IllegalStateException("Image " + contentHash + " disappeared"));
+            // A deleted image may be revived after the sweeper already removed its file
+            if (!fileStorageService.exists(existing.getFilename())) {
+                fileStorageService.store(file, existing.getFilename());
+            }
+            log.debug("Duplicate upload, reusing image: id={}, references={}", existing.getId(), existing.getReferenceCount());
+            return existing;
+        }
+
+        String filename = contentHash + extensionOf(file.getOriginalFilename());
         String path = fileStorageService.store(file, filename);
 
         Image image = Image.builder()
@@ -50,8 +74,13 @@ public class ImageService {
                 .contentType(file.getContentType())
                 .fileSize(file.getSize())
                 .path(path)
+                .contentHash(contentHash)
                 .build();
-        image = imageRepository.save(image);
+        try {
+            image = imageRepository.saveAndFlush(image);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("The same image is being uploaded concurrently, please retry", e);
+        }
         log.debug("Image uploaded: id={}, filename={}", image.getId(), image.getFilename());
 
         return image;
@@ -60,30 +89,41 @@ public class ImageService {
     @Transactional(readOnly = true)
     public DownloadResource get(String fileName) {
         log.debug("Getting image with name {}", fileName);
-        Image image = imageRepository.findImageByFilename(fileName)
+        Image image = imageRepository.findByFilenameAndDeletedAtIsNull(fileName)
                 .orElseThrow(() -> new EntityNotFoundException("Image not found"));
         log.debug("Image found: name={}", image.getFilename());
 
-        Resource resource = fileStorageService.load(image.getFilename());
+        Path path = fileStorageService.load(image.getFilename());
 
         return new DownloadResource(
-                resource,
+                path,
                 image.getContentType(),
                 image.getFileSize(),
                 image.getOriginalFilename()
         );
     }
 
+    @Transactional(readOnly = true)
+    public boolean exists(String fileName) {
+        return imageRepository.existsByFilenameAndDeletedAtIsNull(fileName);
+    }
+
     @Transactional
     public void delete(String fileName) {
         log.debug("Deleting image with name {}", fileName);
-        if (!imageRepository.existsByFilename(fileName)) {
+        if (imageRepository.releaseReferences(List.of(fileName), Instant.now()) == 0) {
             throw new EntityNotFoundException("Image not found");
         }
-        imageRepository.deleteByFilename(fileName);
-        fileStorageService.delete(fileName);
+        log.debug("Image reference released: name={}", fileName);
+    }
 
-        log.debug("Image deleted: name={}", fileName);
+    @Transactional
+    public BulkDeleteImagesResponse bulkDelete(BulkDeleteImagesRequest req) {
+        Set<String> filenames = new LinkedHashSet<>(req.filenames());
+        log.debug("Bulk deleting {} images", filenames.size());
+        int deleted = imageRepository.releaseReferences(filenames, Instant.now());
+        log.debug("Released {} of {} images", deleted, filenames.size());
+        return new BulkDeleteImagesResponse(filenames.size(), deleted);
     }
 
     private void validateFile(MultipartFile file) {
@@ -104,18 +144,18 @@ public class ImageService {
         }
     }
 
-    private String generateFilename(String originalFilename) {
-        String extension = "";
-        if (originalFilename != null && originalFilename.contains(".")) {
-            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+    private String extensionOf(String originalFilename) {
+        if (originalFilename == null || !originalFilename.contains(".")) {
+            return "";
         }
-        return UUID.randomUUID() + extension;
+        String extension = originalFilename.substring(originalFilename.lastIndexOf(".")).toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(extension).matches() ? extension : "";
     }
 
     @Transactional(readOnly = true)
     public PaginatedImageResponse list(Pageable pageable) {
         log.debug("Listing categories: {}", pageable);
-        Page<Image> page = imageRepository.findAll(pageable);
+        Page<Image> page = imageRepository.findAllByDeletedAtIsNull(pageable);
         List<ImageResponse> images = page.getContent().stream()
                 .map(ImageDto::toResponse)
                 .toList();
@@ -128,4 +168,28 @@ public class ImageService {
                 page.getTotalPages()
         );
     }
-}
\ No newline at end of file
+
+    @Transactional(readOnly = true)
+    public ImageSliceResponse scroll(String cursor, int size) {
+        log.debug("Scrolling images: cursor={}, size={}", cursor, size);
+        int limit = ScrollDto.clampSize(size);
+        Cursor after = cursor != null && !cursor.isBlank() ? Cursor.decode(cursor) : null;
+
+        List<Image> images = after == null
+                ? imageRepository.findLatest(Limit.of(limit + 1))
+                : imageRepository.findLatestAfter(after.instantKey(), after.id(), Limit.of(limit + 1));
+
+        boolean hasNext = images.size() > limit;
+        if (hasNext) {
+            images = images.subList(0, limit);
+        }
+        String nextCursor = hasNext ? Cursor.of(images.getLast().getUploadedAt(), images.getLast().getId()).encode() : null;
+
+        return new ImageSliceResponse(
+                images.stream().map(ImageDto::toResponse).toList(),
+                limit,
+                hasNext,
+                nextCursor
+        );
+    }
+}
@@ -0,0 +1,198 @@
+package cz.upce.fei.redsys.service;
+
+import cz.upce.fei.redsys.dto.ImageDto.DownloadResource;
+import cz.upce.fei.redsys.dto.ImageDto.VariantResource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Resized copies of stored images. A variant is generated on the first request, written to disk next
+ * to the original and served from there afterwards. Resizing runs on a small dedicated pool, so a burst
+ * of thumbnail requests cannot occupy every request thread, and concurrent requests for the same
+ * variant wait for a single resize.
+ */
+@Service
+@Slf4j
+public class ImageVariantService {
+
+    /**
+     * Requested widths are rounded up to one of these, so the number of variants per image stays bounded.
+     */
+    private static final int[] WIDTHS = {160, 320, 640, 1024, 1600};
+
+    private static final Map<String, String> FORMATS = Map.of(
+            "jpeg", "image/jpeg",
+            "png", "image/png"
+    );
+
+    private final ImageService imageService;
+    private final FileStorageService fileStorageService;
+    private final ThreadPoolExecutor executor;
+    private final Map<Path, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+
+    public ImageVariantService(ImageService imageService,
+                               FileStorageService fileStorageService,
+                               @Value("${app.storage.variants.threads:2}") int threads,
+                               @Value("${app.storage.variants.queue-size:100}") int queueSize) {
+        this.imageService = imageService;
+        this.fileStorageService = fileStorageService;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variant-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The image scaled down to the given width and encoded in the given format ({@code jpeg} or
+     * {@code png}, defaults to the original's). Images are never scaled up. Images that cannot be
+     * decoded are returned unchanged, and so is every image while the resize queue is full; the
+     * result tells which of the two was served.
+     */
+    public VariantResource get(String fileName, Integer width, String format) {
+        validate(width, format);
+        DownloadResource original = imageService.get(fileName);
+        String targetFormat = format != null ? format.toLowerCase(Locale.ROOT) : formatOf(original.contentType());
+        if (targetFormat == null) {
+            log.debug("Image {} of type {} has no variants", fileName, original.contentType());
+            return new VariantResource(original, false);
+        }
+        int targetWidth = snapWidth(width);
+
+        Path variant = fileStorageService.variant(fileName, "w" + targetWidth + "." + extensionOf(targetFormat));
+        if (!Files.isReadable(variant)) {
+            try {
+                Path key = variant;
+                CompletableFuture<Path> future = inFlight.computeIfAbsent(key, path -> CompletableFuture.supplyAsync(
+                        () -> generate(fileName, original.path(), targetWidth, targetFormat), executor));
+                // Registered outside the mapping function, which must not modify the map itself
+                future.whenComplete((result, error) -> inFlight.remove(key, future));
+                variant = future.join();
+            } catch (RejectedExecutionException e) {
+                log.warn("Resize queue is full, serving original of {}", fileName);
+                return new VariantResource(original, false);
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        if (variant == null) {
+            return new VariantResource(original, false);
+        }
+
+        try {
+            return new VariantResource(new DownloadResource(variant, FORMATS.get(targetFormat), Files.size(variant),
+                    original.originalFilename()), true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read variant of " + fileName, e);
+        }
+    }
+
+    /**
+     * Rejects variant parameters that {@link #get} would not accept, without touching the image.
+     */
+    public void validate(Integer width, String format) {
+        if (width != null && width <= 0) {
+            throw new IllegalArgumentException("Width must be positive");
+        }
+        if (format != null && !FORMATS.containsKey(format.toLowerCase(Locale.ROOT))) {
+            throw new IllegalArgumentException("Unsupported image format: " + format + ", use one of " + FORMATS.keySet());
+        }
+    }
+
+    private static int snapWidth(Integer width) {
+        if (width == null) {
+            return WIDTHS[WIDTHS.length - 1];
+        }
+        for (int candidate : WIDTHS) {
+            if (candidate >= width) {
+                return candidate;
+            }
+        }
+        return WIDTHS[WIDTHS.length - 1];
+    }
+
+    // Returns null when the original should be served instead
+    private Path generate(String fileName, Path originalPath, int width, String format) {
+        long start = System.nanoTime();
+        try {
+            BufferedImage source = ImageIO.read(originalPath.toFile());
+            if (source == null) {
+                log.debug("Image {} cannot be decoded, no variant generated", fileName);
+                return null;
+            }
+            BufferedImage scaled = scale(source, Math.min(width, source.getWidth()), "jpeg".equals(format));
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            if (!ImageIO.write(scaled, format, out)) {
+                throw new IllegalStateException("No writer for image format " + format);
+            }
+            Path variant = fileStorageService.storeVariant(fileName, "w" + width + "." + extensionOf(format), out.toByteArray());
+            log.debug("Generated {} in {} ms", variant.getFileName(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return variant;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to resize image " + fileName, e);
+        }
+    }
+
+    private BufferedImage scale(BufferedImage source, int width, boolean opaque) {
+        int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+        // JPEG has no alpha channel, so transparent areas are painted white
+        BufferedImage target = new BufferedImage(width, height, opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.drawImage(source, 0, 0, width, height, opaque ? Color.WHITE : null, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static String formatOf(String contentType) {
+        return FORMATS.entrySet().stream()
+                .filter(entry -> entry.getValue().equals(contentType))
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static String extensionOf(String format) {
+        return "jpeg".equals(format) ? "jpg" : format;
+    }
+}
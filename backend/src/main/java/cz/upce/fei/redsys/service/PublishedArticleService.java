@@ -0,0 +1,178 @@
+package cz.upce.fei.redsys.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.upce.fei.redsys.cache.CacheInvalidationEvent;
+import cz.upce.fei.redsys.cache.ExpiringLruCache;
+import cz.upce.fei.redsys.domain.Article;
+import cz.upce.fei.redsys.domain.ArticleState;
+import cz.upce.fei.redsys.domain.ArticleVersion;
+import cz.upce.fei.redsys.domain.PublishedArticle;
+import cz.upce.fei.redsys.dto.ArticleDto;
+import cz.upce.fei.redsys.dto.ArticleDto.CacheValidator;
+import cz.upce.fei.redsys.repository.ArticleRepository;
+import cz.upce.fei.redsys.repository.ArticleVersionRepository;
+import cz.upce.fei.redsys.repository.PublishedArticleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps the published article read model in sync and serves it to readers. Rows are rewritten
+ * whenever a published article changes and the rendered JSON is kept in memory, so a public read
+ * is a single cache lookup.
+ */
+@Service
+@Slf4j
+public class PublishedArticleService {
+
+    private final PublishedArticleRepository publishedArticleRepository;
+    private final ArticleRepository articleRepository;
+    private final ArticleVersionRepository articleVersionRepository;
+    private final ArticleVersionStorage articleVersionStorage;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExpiringLruCache<Long, PublishedDocument> documents;
+
+    public PublishedArticleService(PublishedArticleRepository publishedArticleRepository,
+                                   ArticleRepository articleRepository,
+                                   ArticleVersionRepository articleVersionRepository,
+                                   ArticleVersionStorage articleVersionStorage,
+                                   ObjectMapper objectMapper,
+                                   ApplicationEventPublisher eventPublisher,
+                                   @Value("${articles.published-cache.max-size:1000}") int maxSize,
+                                   @Value("${articles.published-cache.ttl:PT10M}") Duration ttl) {
+        this.publishedArticleRepository = publishedArticleRepository;
+        this.articleRepository = articleRepository;
+        this.articleVersionRepository = articleVersionRepository;
+        this.articleVersionStorage = articleVersionStorage;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.documents = new ExpiringLruCache<>(maxSize, ttl);
+    }
+
+    /**
+     * Rendered detail response of a published article, or empty when the article is not published.
+     */
+    public Optional<PublishedDocument> findPublished(Long articleId) {
+        return Optional.ofNullable(documents.get(articleId, this::load));
+    }
+
+    /**
+     * Rewrites the read model from the given article and its current version. Articles that are
+     * no longer published are removed from it.
+     */
+    @Transactional
+    public void refresh(Article article, ArticleVersion version) {
+        if (article.getArticleState() != ArticleState.PUBLISHED) {
+            evict(article.getId());
+            return;
+        }
+
+        log.debug("Refreshing published article {} at version {}", article.getId(), version.getVersionNumber());
+        // Pending changes are flushed so the optimistic lock version and updatedAt are final
+        articleRepository.flush();
+        CacheValidator validator = ArticleDto.toCacheValidator(article.getId(), article.getVersion(),
+                version.getVersionNumber(), article.getUpdatedAt(), version.getCreatedAt());
+
+        PublishedArticle published = publishedArticleRepository.findById(article.getId())
+                .orElseGet(() -> PublishedArticle.builder().articleId(article.getId()).build());
+        published.setTitle(article.getTitle());
+        published.setVersionNumber(version.getVersionNumber());
+        published.setPublishedAt(article.getPublishedAt());
+        published.setDocument(render(article, version));
+        published.setEtag(validator.etag());
+        published.setLastModified(validator.lastModified());
+        published.setRefreshedAt(Instant.now());
+        publishedArticleRepository.save(published);
+
+        invalidate(article.getId());
+    }
+
+    @Transactional
+    public void evict(Long articleId) {
+        if (publishedArticleRepository.existsById(articleId)) {
+            log.debug("Removing article {} from the published read model", articleId);
+            publishedArticleRepository.deleteById(articleId);
+        }
+        invalidate(articleId);
+    }
+
+    // Fills in published articles that predate the read model or were published while it was not maintained
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildMissing() {
+        List<Long> ids = articleRepository.findIdsByStateWithoutReadModel(ArticleState.PUBLISHED);
+        if (ids.isEmpty()) {
+            return;
+        }
+        log.info("Building published read model for {} articles", ids.size());
+        for (Article article : articleRepository.findWithRelationsByIdIn(ids)) {
+            articleVersionRepository.findTopByArticleOrderByVersionNumberDesc(article)
+                    .ifPresentOrElse(
+                            version -> {
+                                articleVersionStorage.materialize(version);
+                                refresh(article, version);
+                            },
+                            () -> log.warn("Published article {} has no versions", article.getId()));
+        }
+    }
+
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (!event.remoteFor(CacheInvalidationEvent.ARTICLE)) {
+            return;
+        }
+        if (event.allEntries()) {
+            documents.invalidateAll();
+        } else {
+            documents.invalidate(event.id());
+        }
+    }
+
+    private PublishedDocument load(Long articleId) {
+        return publishedArticleRepository.findById(articleId)
+                .map(published -> new PublishedDocument(
+                        published.getDocument().getBytes(StandardCharsets.UTF_8),
+                        new CacheValidator(published.getEtag(), published.getLastModified())))
+                .orElse(null);
+    }
+
+    private String render(Article article, ArticleVersion version) {
+        try {
+            return objectMapper.writeValueAsString(
+                    ArticleDto.toDetailResponse(article, version.getContent(), version.getVersionNumber()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot render article " + article.getId(), e);
+        }
+    }
+
+    private void invalidate(Long articleId) {
+        documents.invalidate(articleId);
+        eventPublisher.publishEvent(CacheInvalidationEvent.local(CacheInvalidationEvent.ARTICLE, articleId));
+        // Readers may load the previous row until the transaction commits
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    documents.invalidate(articleId);
+                }
+            });
+        }
+    }
+
+    public record PublishedDocument(byte[] json, CacheValidator validator) {
+    }
+}
@@ -0,0 +1,100 @@
+package cz.upce.fei.redsys.service;
+
+import cz.upce.fei.redsys.cache.CacheInvalidationEvent;
+import cz.upce.fei.redsys.domain.ArticleState;
+import cz.upce.fei.redsys.dto.SuggestionDto.SuggestionListResponse;
+import cz.upce.fei.redsys.dto.SuggestionDto.SuggestionResponse;
+import cz.upce.fei.redsys.repository.ArticleRepository;
+import cz.upce.fei.redsys.repository.CategoryRepository;
+import cz.upce.fei.redsys.repository.UserRepository;
+import cz.upce.fei.redsys.search.SuggestionIndex;
+import cz.upce.fei.redsys.search.SuggestionIndex.Suggestion;
+import cz.upce.fei.redsys.search.SuggestionIndex.Type;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Search-as-you-type suggestions for the user, category and article pickers. The index is filled
+ * from the database at startup and kept current by the services that create and change users,
+ * categories and articles. It is also reloaded periodically, which bounds how long changes made on
+ * another node stay missing. Users and unpublished articles are only suggested to newsroom staff.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SuggestionService {
+
+    static final int MAX_LIMIT = 50;
+
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final ArticleRepository articleRepository;
+    private final SuggestionIndex suggestionIndex;
+    private final AuthService authService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${suggestions.refresh-interval:PT5M}", initialDelayString = "${suggestions.refresh-interval:PT5M}")
+    public void rebuild() {
+        long start = System.nanoTime();
+        List<Suggestion> suggestions = new ArrayList<>();
+        userRepository.findAll().forEach(user -> suggestions.add(SuggestionIndex.forUser(user)));
+        categoryRepository.findAll().forEach(category -> suggestions.add(SuggestionIndex.forCategory(category)));
+        articleRepository.findAllTitles().forEach(article -> suggestions.add(
+                SuggestionIndex.forArticle(article.getId(), article.getTitle(), article.getArticleState())));
+        suggestionIndex.replaceAll(suggestions);
+        log.debug("Suggestion index built with {} entries in {} ms", suggestionIndex.size(),
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    // Entries changed on another node are reloaded from the database
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (!event.remote()) {
+            return;
+        }
+        if (event.region().equals(CacheInvalidationEvent.ALL)) {
+            rebuild();
+            return;
+        }
+        if (event.id() == null) {
+            return;
+        }
+        switch (event.region()) {
+            case CacheInvalidationEvent.USER -> userRepository.findById(event.id()).ifPresentOrElse(
+                    user -> suggestionIndex.put(SuggestionIndex.forUser(user)),
+                    () -> suggestionIndex.remove(Type.USER, event.id()));
+            case CacheInvalidationEvent.CATEGORY -> categoryRepository.findById(event.id()).ifPresentOrElse(
+                    category -> suggestionIndex.put(SuggestionIndex.forCategory(category)),
+                    () -> suggestionIndex.remove(Type.CATEGORY, event.id()));
+            case CacheInvalidationEvent.ARTICLE -> articleRepository.findById(event.id())
+                    .filter(article -> article.getArticleState() != ArticleState.DELETED)
+                    .ifPresentOrElse(
+                            article -> suggestionIndex.put(SuggestionIndex.forArticle(article)),
+                            () -> suggestionIndex.remove(Type.ARTICLE, event.id()));
+            default -> {}
+        }
+    }
+
+    public SuggestionListResponse suggest(String query, List<Type> types, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Suggestion query must not be empty");
+        }
+        Set<Type> wanted = types == null || types.isEmpty() ? EnumSet.allOf(Type.class) : EnumSet.copyOf(types);
+
+        List<SuggestionResponse> suggestions = suggestionIndex
+                .suggest(query, wanted, authService.isStaff(), Math.clamp(limit, 1, MAX_LIMIT)).stream()
+                .map(suggestion -> new SuggestionResponse(suggestion.type(), suggestion.id(), suggestion.label(), suggestion.detail()))
+                .toList();
+        return new SuggestionListResponse(query, suggestions);
+    }
+}
@@ -55,14 +55,22 @@ public class TicketCommentService {
     @Transactional
     public TicketCommentResponse createComment(Long ticketId, CreateTicketCommentRequest req) {
         Ticket ticket = ticketService.requireTicketById(ticketId);
-        int nextNumber = commentRepository.findMaxTicketCommentNumberByTicket(ticket) + 1;
+        return addComment(ticket, authService.currentUser(), req.content());
+    }
+
+    /**
+     * Adds a comment to a ticket the caller has already loaded, on behalf of an already resolved user.
+     */
+    @Transactional
+    public TicketCommentResponse addComment(Ticket ticket, User author, String content) {
+        int nextNumber = ticketService.allocateCommentNumber(ticket);
 
-        log.debug("Creating comment for ticket {} with number {}", ticketId, nextNumber);
+        log.debug("Creating comment for ticket {} with number {}", ticket.getId(), nextNumber);
 
         TicketComment comment = TicketComment.builder()
                 .ticket(ticket)
-                .author(authService.currentUser())
-                .content(req.content())
+                .author(author)
+                .content(content)
                 .ticketCommentNumber(nextNumber)
                 .build();
 
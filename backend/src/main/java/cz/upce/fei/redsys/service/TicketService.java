@@ -5,11 +5,15 @@ import cz.upce.fei.redsys.dto.TicketDto;
 import cz.upce.fei.redsys.dto.TicketDto.CreateTicketRequest;
 import cz.upce.fei.redsys.dto.TicketDto.TicketResponse;
 import cz.upce.fei.redsys.dto.TicketDto.PaginatedTicketResponse;
+import cz.upce.fei.redsys.dto.TicketDto.TicketSliceResponse;
 import cz.upce.fei.redsys.dto.TicketDto.UpdateTicketRequest;
+import cz.upce.fei.redsys.dto.ScrollDto;
+import cz.upce.fei.redsys.dto.ScrollDto.Cursor;
 import cz.upce.fei.redsys.repository.TicketRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -51,6 +55,18 @@ public class TicketService {
         return response;
     }
 
+    /**
+     * Hands out the next comment number of the ticket. The increment locks only the ticket row
+     * until the caller's transaction ends, and the read sees the value it just wrote.
+     */
+    @Transactional
+    public int allocateCommentNumber(Ticket ticket) {
+        if (ticketRepository.incrementCommentCounter(ticket.getId()) == 0) {
+            throw new EntityNotFoundException("Ticket not found");
+        }
+        return ticketRepository.findCommentCounter(ticket.getId());
+    }
+
     public PaginatedTicketResponse list(Pageable pageable) {
         log.debug("Listing tickets: {}", pageable);
         Page<Ticket> ticketPage = ticketRepository.findAll(pageable);
@@ -70,6 +86,30 @@ public class TicketService {
         );
     }
 
+    public TicketSliceResponse scroll(String cursor, int size) {
+        log.debug("Scrolling tickets: cursor={}, size={}", cursor, size);
+        int limit = ScrollDto.clampSize(size);
+        Cursor after = cursor != null && !cursor.isBlank() ? Cursor.decode(cursor) : null;
+
+        List<Ticket> tickets = after == null
+                ? ticketRepository.findLatest(Limit.of(limit + 1))
+                : ticketRepository.findLatestAfter(after.instantKey(), after.id(), Limit.of(limit + 1));
+
+        boolean hasNext = tickets.size() > limit;
+        if (hasNext) {
+            tickets = tickets.subList(0, limit);
+        }
+        String nextCursor = hasNext ? Cursor.of(tickets.getLast().getCreatedAt(), tickets.getLast().getId()).encode() : null;
+
+        log.debug("Found {} tickets, hasNext={}", tickets.size(), hasNext);
+        return new TicketSliceResponse(
+                tickets.stream().map(TicketDto::toTicketResponse).toList(),
+                limit,
+                hasNext,
+                nextCursor
+        );
+    }
+
     public TicketResponse get(Long id) {
         log.debug("Getting ticket with id {}", id);
         Ticket ticket = ticketRepository.findById(id)
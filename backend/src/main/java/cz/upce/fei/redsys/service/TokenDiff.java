@@ -0,0 +1,164 @@
+package cz.upce.fei.redsys.service;
+
+import cz.upce.fei.redsys.dto.ArticleVersionDto.DiffOperation;
+import cz.upce.fei.redsys.dto.ArticleVersionDto.DiffSegment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Myers diff over HTML tokens: whole tags, entities, words, whitespace runs and single other
+ * characters. A tag is never split, so the result can be rendered by wrapping segments in
+ * {@code <ins>}/{@code <del>} without breaking the markup.
+ */
+final class TokenDiff {
+
+    private static final Pattern TOKEN = Pattern.compile("<[^>]*>|&#?\\w+;|[\\p{L}\\p{N}_]+|\\s+|.", Pattern.DOTALL);
+
+    // The trace of edit steps grows quadratically; beyond this the changed middle is reported as replaced
+    private static final int MAX_EDITS = 2000;
+
+    private TokenDiff() {}
+
+    static List<DiffSegment> diff(String from, String to) {
+        List<String> a = tokenize(from);
+        List<String> b = tokenize(to);
+        Segments segments = new Segments();
+
+        int prefix = 0;
+        while (prefix < a.size() && prefix < b.size() && a.get(prefix).equals(b.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < a.size() - prefix && suffix < b.size() - prefix
+                && a.get(a.size() - 1 - suffix).equals(b.get(b.size() - 1 - suffix))) {
+            suffix++;
+        }
+
+        segments.add(DiffOperation.EQUAL, a.subList(0, prefix));
+        List<String> middleA = a.subList(prefix, a.size() - suffix);
+        List<String> middleB = b.subList(prefix, b.size() - suffix);
+        if (!myers(middleA, middleB, segments)) {
+            segments.add(DiffOperation.DELETE, middleA);
+            segments.add(DiffOperation.INSERT, middleB);
+        }
+        segments.add(DiffOperation.EQUAL, a.subList(a.size() - suffix, a.size()));
+        return segments.finish();
+    }
+
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        Matcher matcher = TOKEN.matcher(text);
+        while (matcher.find()) {
+            tokens.add(matcher.group());
+        }
+        return tokens;
+    }
+
+    private static boolean myers(List<String> a, List<String> b, Segments segments) {
+        Map<String, Integer> ids = new HashMap<>();
+        int[] x0 = intern(a, ids);
+        int[] y0 = intern(b, ids);
+        int n = x0.length;
+        int m = y0.length;
+        int max = n + m;
+        if (max == 0) {
+            return true;
+        }
+
+        int offset = max + 1;
+        int[] v = new int[2 * max + 3];
+        List<int[]> trace = new ArrayList<>();
+        for (int d = 0; d <= Math.min(max, MAX_EDITS); d++) {
+            trace.add(Arrays.copyOfRange(v, offset - d, offset + d + 1));
+            for (int k = -d; k <= d; k += 2) {
+                int x = k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])
+                        ? v[offset + k + 1]
+                        : v[offset + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && x0[x] == y0[y]) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    backtrack(trace, a, b, segments);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void backtrack(List<int[]> trace, List<String> a, List<String> b, Segments segments) {
+        List<DiffSegment> reversed = new ArrayList<>();
+        int x = a.size();
+        int y = b.size();
+        for (int d = trace.size() - 1; d > 0; d--) {
+            int[] v = trace.get(d);
+            int k = x - y;
+            int previousK = k == -d || (k != d && v[k - 1 + d] < v[k + 1 + d]) ? k + 1 : k - 1;
+            int previousX = v[previousK + d];
+            int previousY = previousX - previousK;
+            while (x > previousX && y > previousY) {
+                reversed.add(new DiffSegment(DiffOperation.EQUAL, a.get(--x)));
+                y--;
+            }
+            if (x == previousX) {
+                reversed.add(new DiffSegment(DiffOperation.INSERT, b.get(--y)));
+            } else {
+                reversed.add(new DiffSegment(DiffOperation.DELETE, a.get(--x)));
+            }
+        }
+        while (x > 0 && y > 0) {
+            reversed.add(new DiffSegment(DiffOperation.EQUAL, a.get(--x)));
+            y--;
+        }
+        for (int i = reversed.size() - 1; i >= 0; i--) {
+            segments.add(reversed.get(i).operation(), List.of(reversed.get(i).text()));
+        }
+    }
+
+    private static int[] intern(List<String> tokens, Map<String, Integer> ids) {
+        int[] result = new int[tokens.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ids.computeIfAbsent(tokens.get(i), token -> ids.size());
+        }
+        return result;
+    }
+
+    // Joins neighbouring tokens with the same operation into one segment
+    private static final class Segments {
+        private final List<DiffSegment> result = new ArrayList<>();
+        private final StringBuilder text = new StringBuilder();
+        private DiffOperation operation;
+
+        void add(DiffOperation op, List<String> tokens) {
+            if (tokens.isEmpty()) {
+                return;
+            }
+            if (op != operation) {
+                flush();
+                operation = op;
+            }
+            tokens.forEach(text::append);
+        }
+
+        List<DiffSegment> finish() {
+            flush();
+            return result;
+        }
+
+        private void flush() {
+            if (operation != null && !text.isEmpty()) {
+                result.add(new DiffSegment(operation, text.toString()));
+            }
+            text.setLength(0);
+        }
+    }
+}
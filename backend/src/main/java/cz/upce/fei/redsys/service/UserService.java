@@ -4,9 +4,15 @@ import cz.upce.fei.redsys.domain.User;
 import cz.upce.fei.redsys.dto.UserDto;
 import cz.upce.fei.redsys.dto.UserDto.UserResponse;
 import cz.upce.fei.redsys.dto.UserDto.PaginatedUserResponse;
+import cz.upce.fei.redsys.dto.UserDto.UserSliceResponse;
+import cz.upce.fei.redsys.dto.ScrollDto;
+import cz.upce.fei.redsys.dto.ScrollDto.Cursor;
 import cz.upce.fei.redsys.repository.UserRepository;
+import cz.upce.fei.redsys.search.SuggestionIndex;
+import cz.upce.fei.redsys.security.PrincipalCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
@@ -25,6 +31,8 @@ import java.util.Optional;
 public class UserService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
+    private final SuggestionIndex suggestionIndex;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -68,6 +76,30 @@ public class UserService implements UserDetailsService {
         );
     }
 
+    public UserSliceResponse scroll(String cursor, int size) {
+        log.debug("Scrolling users: cursor={}, size={}", cursor, size);
+        int limit = ScrollDto.clampSize(size);
+        Cursor after = cursor != null && !cursor.isBlank() ? Cursor.decode(cursor) : null;
+
+        List<User> users = after == null
+                ? userRepository.findAllByOrderByUsernameAsc(Limit.of(limit + 1))
+                : userRepository.findByUsernameGreaterThanOrderByUsernameAsc(after.key(), Limit.of(limit + 1));
+
+        boolean hasNext = users.size() > limit;
+        if (hasNext) {
+            users = users.subList(0, limit);
+        }
+        String nextCursor = hasNext ? new Cursor(users.getLast().getUsername(), users.getLast().getId()).encode() : null;
+
+        log.debug("Found {} users, hasNext={}", users.size(), hasNext);
+        return new UserSliceResponse(
+                users.stream().map(UserDto::toUserResponse).toList(),
+                limit,
+                hasNext,
+                nextCursor
+        );
+    }
+
     public Optional<User> findByUsername(String username) {
         return userRepository.findByUsername(username);
     }
@@ -100,6 +132,7 @@ public class UserService implements UserDetailsService {
                 .build();
 
         User savedUser = userRepository.save(user);
+        suggestionIndex.put(SuggestionIndex.forUser(savedUser));
         log.info("User {} created with ID {}", savedUser.getUsername(), savedUser.getId());
         return savedUser;
     }
@@ -108,6 +141,7 @@ public class UserService implements UserDetailsService {
     public void updatePassword(User user, String hashedPassword) {
         user.setPassword(hashedPassword);
         userRepository.save(user);
+        principalCache.evict(user.getUsername());
     }
 
     public User requireUserByIdentifier(String identifier) {
@@ -119,13 +153,17 @@ public class UserService implements UserDetailsService {
     public UserResponse blockUser(String identifier) {
         User user = requireUserByIdentifier(identifier);
         user.setActive(false);
-        return UserDto.toUserResponse(userRepository.save(user));
+        UserResponse response = UserDto.toUserResponse(userRepository.save(user));
+        principalCache.evict(user.getUsername());
+        return response;
     }
 
     @Transactional
     public UserResponse unblockUser(String identifier) {
         User user = requireUserByIdentifier(identifier);
         user.setActive(true);
-        return UserDto.toUserResponse(userRepository.save(user));
+        UserResponse response = UserDto.toUserResponse(userRepository.save(user));
+        principalCache.evict(user.getUsername());
+        return response;
     }
 }
\ No newline at end of file
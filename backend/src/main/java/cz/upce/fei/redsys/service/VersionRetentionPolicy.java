@@ -0,0 +1,83 @@
+package cz.upce.fei.redsys.service;
+
+import cz.upce.fei.redsys.repository.ArticleVersionRepository.RetentionCandidate;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decides which versions of one article can be dropped. Everything newer than {@code keepAll} is
+ * kept; older versions are thinned to the newest one per day until {@code keepDaily}, and to the
+ * newest one per week after that. The latest version, retained versions and any snapshot a kept
+ * delta is based on are never dropped.
+ */
+public final class VersionRetentionPolicy {
+
+    private final Duration keepAll;
+    private final Duration keepDaily;
+
+    public VersionRetentionPolicy(Duration keepAll, Duration keepDaily) {
+        if (keepDaily.compareTo(keepAll) < 0) {
+            throw new IllegalArgumentException("Daily retention must not be shorter than full retention");
+        }
+        this.keepAll = keepAll;
+        this.keepDaily = keepDaily;
+    }
+
+    public Duration keepAll() {
+        return keepAll;
+    }
+
+    public List<Long> selectForDeletion(List<RetentionCandidate> versions, Instant now) {
+        Instant keepAllSince = now.minus(keepAll);
+        Instant dailySince = now.minus(keepDaily);
+        int latest = versions.stream().mapToInt(RetentionCandidate::getVersionNumber).max().orElse(0);
+
+        Set<Integer> kept = new HashSet<>();
+        Map<Bucket, RetentionCandidate> newestPerBucket = new HashMap<>();
+        for (RetentionCandidate version : versions) {
+            if (version.isRetained() || version.getVersionNumber() == latest
+                    || !version.getCreatedAt().isBefore(keepAllSince)) {
+                kept.add(version.getVersionNumber());
+                continue;
+            }
+            newestPerBucket.merge(bucket(version.getCreatedAt(), dailySince), version,
+                    (a, b) -> a.getVersionNumber() > b.getVersionNumber() ? a : b);
+        }
+        newestPerBucket.values().forEach(version -> kept.add(version.getVersionNumber()));
+
+        for (RetentionCandidate version : versions) {
+            if (kept.contains(version.getVersionNumber()) && version.getBaseVersionNumber() != null) {
+                kept.add(version.getBaseVersionNumber());
+            }
+        }
+
+        List<Long> deletable = new ArrayList<>();
+        for (RetentionCandidate version : versions) {
+            if (!kept.contains(version.getVersionNumber())) {
+                deletable.add(version.getId());
+            }
+        }
+        return deletable;
+    }
+
+    private static Bucket bucket(Instant createdAt, Instant dailySince) {
+        LocalDate day = LocalDate.ofInstant(createdAt, ZoneOffset.UTC);
+        return createdAt.isBefore(dailySince)
+                ? new Bucket(true, day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)))
+                : new Bucket(false, day);
+    }
+
+    private record Bucket(boolean weekly, LocalDate start) {
+    }
+}
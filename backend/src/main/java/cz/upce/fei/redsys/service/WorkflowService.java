@@ -1,21 +1,29 @@
 package cz.upce.fei.redsys.service;
 
 import cz.upce.fei.redsys.domain.*;
-import cz.upce.fei.redsys.dto.TicketCommentDto.CreateTicketCommentRequest;
 import cz.upce.fei.redsys.dto.TicketDto;
+import cz.upce.fei.redsys.dto.TicketDto.BulkTransitionRequest;
+import cz.upce.fei.redsys.dto.TicketDto.BulkTransitionResponse;
 import cz.upce.fei.redsys.dto.TicketDto.TicketResponse;
+import cz.upce.fei.redsys.dto.TicketDto.TransitionResult;
 import cz.upce.fei.redsys.repository.ArticleRepository;
 import cz.upce.fei.redsys.repository.TicketRepository;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -26,8 +34,11 @@ public class WorkflowService {
     private final ArticleRepository articleRepository;
     private final AuthService authService;
     private final ArticleVersionService articleVersionService;
-    private final TicketService ticketService;
     private final TicketCommentService ticketCommentService;
+    private final PublishedArticleService publishedArticleService;
+    private final ArticleSearchService articleSearchService;
+    private final CategoryOverviewService categoryOverviewService;
+    private final ApplicationEventPublisher eventPublisher;
 
     private final Map<TicketState, Set<TicketState>> allowedStateTransitions = Map.of(
             TicketState.OPEN, Set.of(TicketState.IN_PROGRESS),
@@ -47,29 +58,142 @@ public class WorkflowService {
 
     @Transactional
     public TicketResponse transition(Long ticketId, TicketState targetState, String comment) {
-        Ticket ticket = ticketService.requireTicketById(ticketId);
-        TicketState currentState = ticket.getState();
+        Ticket ticket = ticketRepository.findWithArticleById(ticketId)
+                .orElseThrow(() -> new EntityNotFoundException("Ticket not found"));
+        User currentUser = authService.currentUser();
+
+        log.debug("Changing state {} -> {} for ticket {}", ticket.getState(), targetState, ticketId);
+
+        if (ticket.getState() == targetState) return TicketDto.toTicketResponse(ticket);
+
+        checkTransition(ticket, targetState, currentUser);
+        return apply(ticket, targetState, comment, currentUser, Instant.now());
+    }
+
+    /**
+     * Moves several tickets to the same state in one transaction. Tickets that are missing or may
+     * not make the transition are reported in the result and skipped; the others are applied.
+     */
+    @Transactional
+    public BulkTransitionResponse transitionAll(BulkTransitionRequest request) {
+        List<Long> ticketIds = request.ticketIds().stream().distinct().toList();
+        User currentUser = authService.currentUser();
+        log.debug("Changing state to {} for tickets {}", request.targetState(), ticketIds);
+
+        Map<Long, Ticket> tickets = ticketRepository.findAllWithArticleByIdIn(ticketIds).stream()
+                .collect(Collectors.toMap(Ticket::getId, Function.identity()));
+
+        List<TransitionResult> results = new ArrayList<>(ticketIds.size());
+        int failed = 0;
+        for (Long ticketId : ticketIds) {
+            Ticket ticket = tickets.get(ticketId);
+            if (ticket == null) {
+                results.add(new TransitionResult(ticketId, null, "Ticket not found"));
+                failed++;
+                continue;
+            }
+            if (ticket.getState() == request.targetState()) {
+                results.add(new TransitionResult(ticketId, TicketDto.toTicketResponse(ticket), null));
+                continue;
+            }
+            try {
+                checkTransition(ticket, request.targetState(), currentUser);
+            } catch (WorkflowException | AccessDeniedException e) {
+                results.add(new TransitionResult(ticketId, null, e.getMessage()));
+                failed++;
+                continue;
+            }
+            results.add(new TransitionResult(ticketId,
+                    apply(ticket, request.targetState(), request.comment(), currentUser, Instant.now()), null));
+        }
+
+        log.info("Bulk state change to {} by {}: {} of {} tickets changed", request.targetState(),
+                currentUser.getUsername(), ticketIds.size() - failed, ticketIds.size());
+        return new BulkTransitionResponse(results, ticketIds.size() - failed, failed);
+    }
+
+    /**
+     * Publishes an approved ticket at the given time on behalf of the current user. The checks of a
+     * manual publication are made now; a later schedule replaces an earlier one.
+     */
+    @Transactional
+    public TicketResponse schedulePublication(Long ticketId, Instant publishAt) {
+        Ticket ticket = ticketRepository.findWithArticleById(ticketId)
+                .orElseThrow(() -> new EntityNotFoundException("Ticket not found"));
+        User currentUser = authService.currentUser();
+        checkTransition(ticket, TicketState.PUBLISHED, currentUser);
+
+        ticket.setScheduledPublishAt(publishAt);
+        ticket.setScheduledBy(currentUser);
+        Ticket saved = ticketRepository.save(ticket);
+        eventPublisher.publishEvent(new PublicationScheduled(ticketId, publishAt));
+
+        log.info("Ticket ({}) scheduled for publication at {} by {}", ticketId, publishAt, currentUser.getUsername());
+        return TicketDto.toTicketResponse(saved);
+    }
+
+    @Transactional
+    public TicketResponse cancelScheduledPublication(Long ticketId) {
+        Ticket ticket = ticketRepository.findWithArticleById(ticketId)
+                .orElseThrow(() -> new EntityNotFoundException("Ticket not found"));
         User currentUser = authService.currentUser();
+        checkRoleAllowed(TicketState.PUBLISHED, currentUser);
 
-        log.debug("Changing state {} -> {} for ticket {}", currentState, targetState, ticketId);
+        ticket.setScheduledPublishAt(null);
+        ticket.setScheduledBy(null);
+        log.info("Scheduled publication of ticket ({}) cancelled by {}", ticketId, currentUser.getUsername());
+        return TicketDto.toTicketResponse(ticketRepository.save(ticket));
+    }
 
-        if (currentState == targetState) return TicketDto.toTicketResponse(ticket);
+    /**
+     * Publishes those of the given tickets that are still approved and whose scheduled time is not
+     * after {@code now}, each on behalf of the user who scheduled it and dated to the scheduled
+     * time. Others are left alone, so stale or repeated requests are harmless. A schedule whose
+     * user may no longer publish is cancelled, leaving the ticket approved.
+     */
+    @Transactional
+    public int publishDue(List<Long> ticketIds, Instant now) {
+        int published = 0;
+        for (Ticket ticket : ticketRepository.findAllWithArticleByIdIn(ticketIds)) {
+            Instant publishAt = ticket.getScheduledPublishAt();
+            if (ticket.getState() != TicketState.APPROVED || publishAt == null || publishAt.isAfter(now)) {
+                continue;
+            }
+            User scheduledBy = ticket.getScheduledBy();
+            if (scheduledBy == null || !scheduledBy.isActive() || !isRoleAllowed(TicketState.PUBLISHED, scheduledBy)) {
+                log.warn("Cancelling scheduled publication of ticket ({}): {} may no longer publish", ticket.getId(),
+                        scheduledBy != null ? scheduledBy.getUsername() : "unknown user");
+                ticket.setScheduledPublishAt(null);
+                ticket.setScheduledBy(null);
+                ticketRepository.save(ticket);
+                continue;
+            }
+            apply(ticket, TicketState.PUBLISHED, null, scheduledBy, publishAt);
+            published++;
+        }
+        return published;
+    }
 
-        checkStateTransitionAllowed(currentState, targetState);
-        checkRoleAllowed(targetState, currentUser);
-        checkTicketOwnership(ticket, targetState, currentUser);
+    private void checkTransition(Ticket ticket, TicketState targetState, User user) {
+        checkStateTransitionAllowed(ticket.getState(), targetState);
+        checkRoleAllowed(targetState, user);
+        checkTicketOwnership(ticket, targetState, user);
+    }
 
-        performSideEffects(ticket, ticket.getArticle(), currentState, targetState, currentUser);
+    private TicketResponse apply(Ticket ticket, TicketState targetState, String comment, User currentUser, Instant at) {
+        TicketState currentState = ticket.getState();
+        performSideEffects(ticket, ticket.getArticle(), currentState, targetState, currentUser, at);
 
         ticket.setState(targetState);
+        ticket.setScheduledPublishAt(null);
+        ticket.setScheduledBy(null);
         Ticket saved = ticketRepository.save(ticket);
 
         if (comment != null && !comment.isBlank()) {
-            CreateTicketCommentRequest commentRequest = new CreateTicketCommentRequest(comment);
-            ticketCommentService.createComment(ticket.getId(), commentRequest);
+            ticketCommentService.addComment(saved, currentUser, comment);
         }
 
-        log.info("Ticket ({}) state changed: {} -> {} by {}", ticketId, currentState, targetState, currentUser.getUsername());
+        log.info("Ticket ({}) state changed: {} -> {} by {}", ticket.getId(), currentState, targetState, currentUser.getUsername());
         return TicketDto.toTicketResponse(saved);
     }
 
@@ -81,13 +205,17 @@ public class WorkflowService {
     }
 
     private void checkRoleAllowed(TicketState target, User user) {
-        if (user.getRole() == UserRole.ADMIN) return;
-        Set<UserRole> roles = allowedStateRoles.getOrDefault(target, Collections.emptySet());
-        if (!roles.isEmpty() && !roles.contains(user.getRole())) {
+        if (!isRoleAllowed(target, user)) {
             throw new AccessDeniedException("You don't have permission to change the ticket state to " + target);
         }
     }
 
+    private boolean isRoleAllowed(TicketState target, User user) {
+        if (user.getRole() == UserRole.ADMIN) return true;
+        Set<UserRole> roles = allowedStateRoles.getOrDefault(target, Collections.emptySet());
+        return roles.isEmpty() || roles.contains(user.getRole());
+    }
+
     private void checkTicketOwnership(Ticket ticket, TicketState targetState, User user) {
         if (user.getRole() == UserRole.ADMIN) return;
         switch (user.getRole()) {
@@ -106,12 +234,15 @@ public class WorkflowService {
         }
     }
 
-    private void performSideEffects(Ticket ticket, Article article, TicketState from, TicketState to, User actor) {
+    private void performSideEffects(Ticket ticket, Article article, TicketState from, TicketState to, User actor, Instant at) {
         switch (to) {
             case IN_PROGRESS -> {
                 if (from == TicketState.FOR_REVIEW) {
                     article.setArticleState(ArticleState.DRAFT);
                     articleRepository.save(article);
+                    publishedArticleService.evict(article.getId());
+                    articleSearchService.updateState(article);
+                    categoryOverviewService.articleChanged(article);
                 } else if (ticket.getAssignee() == null && actor.getRole() == UserRole.EDITOR) {
                     ticket.setAssignee(actor);
                 }
@@ -120,23 +251,26 @@ public class WorkflowService {
             case FOR_REVIEW -> {
                 article.setArticleState(ArticleState.IN_REVIEW);
                 articleRepository.save(article);
-                createArticleVersion(article);
+                articleVersionService.retainLatest(article);
+                publishedArticleService.evict(article.getId());
+                articleSearchService.updateState(article);
+                categoryOverviewService.articleChanged(article);
             }
 
             case PUBLISHED -> {
                 article.setArticleState(ArticleState.PUBLISHED);
-                article.setPublishedAt(Instant.now());
+                article.setPublishedAt(at);
                 articleRepository.save(article);
-                createArticleVersion(article);
+                publishedArticleService.refresh(article, articleVersionService.retainLatestWithContent(article));
+                articleSearchService.updateState(article);
+                categoryOverviewService.articleChanged(article);
             }
 
             default -> {}
         }
     }
 
-    private void createArticleVersion(Article article) {
-            ArticleVersion latest = articleVersionService.getLatestVersion(article);
-            articleVersionService.createNewVersionIfChanged(article, latest.getContent());
+    public record PublicationScheduled(Long ticketId, Instant publishAt) {
     }
 
     public static class WorkflowException extends RuntimeException {
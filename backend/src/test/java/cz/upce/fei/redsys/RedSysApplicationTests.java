@@ -0,0 +1,32 @@
+package cz.upce.fei.redsys;
+
+import cz.upce.fei.redsys.domain.User;
+import cz.upce.fei.redsys.repository.UserRepository;
+import cz.upce.fei.redsys.security.PrincipalCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase
+class RedSysApplicationTests {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Test
+    void contextLoads_WithSecondLevelCache() {
+        // Natural id lookups run outside of any transaction, as from the JWT filter
+        User admin = userRepository.findByUsername("admin").orElseThrow();
+
+        assertEquals("admin", admin.getUsername());
+        assertTrue(principalCache.get("admin").isPresent());
+        assertTrue(userRepository.findByUsername("nobody").isEmpty());
+    }
+}
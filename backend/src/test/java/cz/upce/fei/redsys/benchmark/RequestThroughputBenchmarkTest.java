@@ -0,0 +1,220 @@
+package cz.upce.fei.redsys.benchmark;
+
+import cz.upce.fei.redsys.domain.Image;
+import cz.upce.fei.redsys.repository.ArticleRepository;
+import cz.upce.fei.redsys.security.TokenProvider;
+import cz.upce.fei.redsys.service.ImageService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.domain.Limit;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput of the public read paths with many concurrent clients. Not part of the regular test
+ * run; start it with {@code ./gradlew benchmark} and once more with {@code -PvirtualThreads=true}
+ * to compare the platform thread pool with virtual threads. Runs against PostgreSQL: the database
+ * given by {@code -PbenchmarkDbUrl} (with {@code -PbenchmarkDbUser} and {@code -PbenchmarkDbPassword}),
+ * or a throwaway container started through Testcontainers.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class RequestThroughputBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestThroughputBenchmarkTest.class);
+
+    private static final int CLIENTS = 1000;
+    private static final Duration WARM_UP = Duration.ofSeconds(5);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(20);
+
+    @TempDir
+    static Path images;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("app.storage.images", () -> images.toString());
+        String url = System.getProperty("benchmark.datasource.url", "");
+        if (!url.isBlank()) {
+            registry.add("spring.datasource.url", () -> url);
+            registry.add("spring.datasource.username", () -> System.getProperty("benchmark.datasource.username", ""));
+            registry.add("spring.datasource.password", () -> System.getProperty("benchmark.datasource.password", ""));
+            return;
+        }
+        // Removed by Testcontainers once the JVM exits
+        PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:18");
+        postgres.start();
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private ImageService imageService;
+
+    @Autowired
+    private TokenProvider tokenProvider;
+
+    // Served from the published article cache, so this mostly measures the request handling itself
+    @Test
+    void publishedArticle() throws Exception {
+        Long id = articleRepository.findFeedIds(Limit.of(1)).getFirst();
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/articles/" + id)).GET().build();
+
+        Result result = run(request);
+
+        report("GET /api/articles/{id} (cached)", result);
+        assertTrue(result.completed() > 0);
+    }
+
+    // Not cached: every request takes a pooled connection for the keyset query and the article fetch
+    @Test
+    void articleFeed() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/articles/scroll?size=20")).GET().build();
+
+        Result result = run(request);
+
+        report("GET /api/articles/scroll", result);
+        assertTrue(result.completed() > 0);
+    }
+
+    @Test
+    void imageDownload() throws Exception {
+        Image image = imageService.upload(new MockMultipartFile("file", "benchmark.png", "image/png", noisePng()));
+        String token = tokenProvider.createToken(new UsernamePasswordAuthenticationToken("admin", null,
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/images/" + image.getFilename()))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+
+        Result result = run(request);
+
+        report("GET /api/images/{fileName}", result);
+        assertTrue(result.completed() > 0);
+    }
+
+    private Result run(HttpRequest request) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        long measureFrom = System.nanoTime() + WARM_UP.toNanos();
+        long end = measureFrom + MEASUREMENT.toNanos();
+        LongAdder failed = new LongAdder();
+        List<long[]> latencies = new ArrayList<>();
+
+        // Clients always run on virtual threads, so only the server side differs between runs
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTS; i++) {
+                long[] samples = new long[1 << 16];
+                latencies.add(samples);
+                clients.submit(() -> {
+                    int count = 0;
+                    long now;
+                    while ((now = System.nanoTime()) < end) {
+                        boolean ok;
+                        try {
+                            ok = client.send(request, HttpResponse.BodyHandlers.ofByteArray()).statusCode() == 200;
+                        } catch (IOException e) {
+                            ok = false;
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        if (now >= measureFrom) {
+                            if (!ok) {
+                                failed.increment();
+                            } else if (count < samples.length - 1) {
+                                samples[++count] = System.nanoTime() - now;
+                            }
+                        }
+                    }
+                    samples[0] = count;
+                });
+            }
+        }
+
+        long[] all = latencies.stream()
+                .flatMapToLong(samples -> Arrays.stream(samples, 1, (int) samples[0] + 1))
+                .sorted()
+                .toArray();
+        return new Result(all, failed.sum());
+    }
+
+    private void report(String endpoint, Result result) {
+        double seconds = MEASUREMENT.toNanos() / 1e9;
+        log.info("{} on {} threads, {} clients: {} req/s, p50 {} ms, p99 {} ms, {} failed",
+                endpoint, virtualThreads ? "virtual" : "platform", CLIENTS,
+                String.format("%.0f", result.completed() / seconds),
+                String.format("%.1f", result.percentile(0.50) / 1e6),
+                String.format("%.1f", result.percentile(0.99) / 1e6), result.failed());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    // Random pixels do not compress, so the file is large enough for the download to hit the disk
+    private static byte[] noisePng() throws IOException {
+        BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private record Result(long[] latencies, long failed) {
+        long completed() {
+            return latencies.length;
+        }
+
+        long percentile(double p) {
+            return latencies.length == 0 ? 0 : latencies[(int) Math.min(latencies.length - 1, p * latencies.length)];
+        }
+    }
+}
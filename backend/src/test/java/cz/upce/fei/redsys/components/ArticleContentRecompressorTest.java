@@ -0,0 +1,91 @@
+package cz.upce.fei.redsys.components;
+
+import cz.upce.fei.redsys.domain.ArticleVersion;
+import cz.upce.fei.redsys.domain.CompressedTextConverter;
+import cz.upce.fei.redsys.repository.ArticleVersionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ArticleContentRecompressorTest {
+
+    private static final String LONG_TEXT = "<p>Krajské volby začínají v pátek.</p>".repeat(50);
+
+    @Mock
+    private ArticleVersionRepository versionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final CompressedTextConverter converter = new CompressedTextConverter(true);
+
+    private ArticleContentRecompressor recompressor;
+
+    @BeforeEach
+    void setUp() {
+        recompressor = new ArticleContentRecompressor(versionRepository, converter, transactionManager, 2);
+    }
+
+    @Test
+    void recompress_ShouldRewriteShrinkingRows_InBatchesUntilExhausted() {
+        when(versionRepository.findUncompressedIdsAfter(0L, PageRequest.of(0, 2))).thenReturn(List.of(1L, 2L));
+        when(versionRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(version(1L, LONG_TEXT), version(2L, "Krátký")));
+        when(versionRepository.findUncompressedIdsAfter(2L, PageRequest.of(0, 2))).thenReturn(List.of(3L));
+        when(versionRepository.findAllById(List.of(3L))).thenReturn(List.of(version(3L, "")));
+        when(versionRepository.updateStoredColumn(eq(1L), anyString())).thenReturn(1);
+
+        recompressor.recompress();
+
+        ArgumentCaptor<String> column = ArgumentCaptor.forClass(String.class);
+        verify(versionRepository).updateStoredColumn(eq(1L), column.capture());
+        assertTrue(CompressedTextConverter.isCompressed(column.getValue()));
+        assertEquals(LONG_TEXT, converter.convertToEntityAttribute(column.getValue()));
+        verify(versionRepository, never()).updateStoredColumn(eq(2L), anyString());
+        verify(versionRepository, never()).updateStoredColumn(eq(3L), anyString());
+        verify(versionRepository, never()).findUncompressedIdsAfter(eq(3L), any());
+    }
+
+    @Test
+    void recompress_ShouldCompressPlainTextStartingWithMarker() {
+        String text = CompressedTextConverter.MARKER + "x";
+        when(versionRepository.findUncompressedIdsAfter(0L, PageRequest.of(0, 2))).thenReturn(List.of(5L));
+        when(versionRepository.findAllById(List.of(5L))).thenReturn(List.of(version(5L, text)));
+
+        recompressor.recompress();
+
+        ArgumentCaptor<String> column = ArgumentCaptor.forClass(String.class);
+        verify(versionRepository).updateStoredColumn(eq(5L), column.capture());
+        assertEquals(text, converter.convertToEntityAttribute(column.getValue()));
+    }
+
+    @Test
+    void recompress_ShouldContinueAfterLastSeenId_OnNextRun() {
+        when(versionRepository.findUncompressedIdsAfter(0L, PageRequest.of(0, 2))).thenReturn(List.of(7L));
+        when(versionRepository.findAllById(List.of(7L))).thenReturn(List.of(version(7L, "Krátký")));
+        when(versionRepository.findUncompressedIdsAfter(7L, PageRequest.of(0, 2))).thenReturn(List.of());
+
+        recompressor.recompress();
+        recompressor.recompress();
+
+        verify(versionRepository).findUncompressedIdsAfter(7L, PageRequest.of(0, 2));
+        verify(versionRepository, never()).updateStoredColumn(anyLong(), anyString());
+    }
+
+    private static ArticleVersion version(Long id, String content) {
+        return ArticleVersion.builder().id(id).storedContent(content).build();
+    }
+}
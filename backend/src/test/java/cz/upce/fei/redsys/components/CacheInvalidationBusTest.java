@@ -0,0 +1,142 @@
+package cz.upce.fei.redsys.components;
+
+import cz.upce.fei.redsys.cache.CacheInvalidationEvent;
+import cz.upce.fei.redsys.domain.Category;
+import cz.upce.fei.redsys.domain.User;
+import cz.upce.fei.redsys.security.PrincipalCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.jdbc.Work;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheInvalidationBusTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactoryImplementor sessionFactory;
+
+    @Mock
+    private CacheImplementor cache;
+
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    private CacheInvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+        bus = new CacheInvalidationBus(dataSource, entityManagerFactory, principalCache, eventPublisher,
+                Duration.ofSeconds(1), Duration.ofSeconds(1));
+    }
+
+    @Test
+    void handle_ShouldIgnoreMessagesFromOwnNode() {
+        bus.handle(bus.nodeId() + " " + User.class.getName() + " 7");
+
+        verify(sessionFactory, never()).getCache();
+        verifyNoInteractions(principalCache, eventPublisher);
+    }
+
+    @Test
+    void handle_ShouldEvictUserAndPrincipals_WhenUserChangedElsewhere() {
+        when(sessionFactory.getCache()).thenReturn(cache);
+
+        bus.handle("other-node " + User.class.getName() + " 7");
+
+        verify(cache).evictEntityData(User.class.getName(), 7L);
+        verify(principalCache).evictAll();
+        verify(eventPublisher).publishEvent(new CacheInvalidationEvent(CacheInvalidationEvent.USER, 7L, true));
+    }
+
+    @Test
+    void handle_ShouldRepublishApplicationRegions_AndEvictAllCategories() {
+        when(sessionFactory.getCache()).thenReturn(cache);
+
+        bus.handle("other-node article 5");
+        bus.handle("other-node category *");
+
+        verify(cache).evictEntityData(Category.class.getName());
+        verify(cache, never()).evictEntityData(any(String.class), any());
+        verifyNoInteractions(principalCache);
+        verify(eventPublisher).publishEvent(new CacheInvalidationEvent(CacheInvalidationEvent.ARTICLE, 5L, true));
+        verify(eventPublisher).publishEvent(new CacheInvalidationEvent(CacheInvalidationEvent.CATEGORY, null, true));
+    }
+
+    @Test
+    void onPostUpdate_ShouldNotify_OnlyForCacheableEntities() throws Exception {
+        EventSource session = mock(EventSource.class);
+        EntityPersister cached = mock(EntityPersister.class);
+        EntityPersister uncached = mock(EntityPersister.class);
+        when(cached.canWriteToCache()).thenReturn(true);
+        when(cached.getEntityName()).thenReturn(Category.class.getName());
+        when(uncached.canWriteToCache()).thenReturn(false);
+        when(connection.prepareStatement(any())).thenReturn(statement);
+
+        bus.onPostUpdate(updateEvent(session, uncached, 3L));
+        verify(session, never()).doWork(any());
+
+        bus.onPostUpdate(updateEvent(session, cached, 3L));
+        ArgumentCaptor<Work> work = ArgumentCaptor.forClass(Work.class);
+        verify(session).doWork(work.capture());
+        work.getValue().execute(connection);
+
+        verify(statement).setString(1, CacheInvalidationBus.CHANNEL);
+        verify(statement).setString(2, bus.nodeId() + " " + Category.class.getName() + " 3");
+        verify(statement).execute();
+    }
+
+    @Test
+    void forward_ShouldNotifyLocalEvents_AndSkipRemoteOnes() throws Exception {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(any())).thenReturn(statement);
+
+        bus.forward(new CacheInvalidationEvent(CacheInvalidationEvent.ARTICLE, 4L, true));
+        bus.forward(CacheInvalidationEvent.local(CacheInvalidationEvent.ARTICLE, 5L));
+
+        verify(dataSource, times(1)).getConnection();
+        verify(statement).setString(2, bus.nodeId() + " article 5");
+        verify(connection).close();
+    }
+
+    private static PostUpdateEvent updateEvent(EventSource session, EntityPersister persister, Long id) {
+        PostUpdateEvent event = mock(PostUpdateEvent.class);
+        when(event.getSession()).thenReturn(session);
+        when(event.getPersister()).thenReturn(persister);
+        when(event.getId()).thenReturn(id);
+        return event;
+    }
+}
@@ -0,0 +1,107 @@
+package cz.upce.fei.redsys.components;
+
+import cz.upce.fei.redsys.domain.Image;
+import cz.upce.fei.redsys.repository.ImageRepository;
+import cz.upce.fei.redsys.service.FileStorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageSweeperTest {
+
+    @Mock
+    private ImageRepository imageRepository;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ImageSweeper imageSweeper;
+
+    @BeforeEach
+    void setUp() {
+        imageSweeper = new ImageSweeper(imageRepository, fileStorageService, transactionManager, 2);
+    }
+
+    @Test
+    void sweep_ShouldDeleteFileAndRow_WhileRowIsLocked() {
+        Image image = image(1L, "a.png");
+        when(imageRepository.findDeletedIds(Limit.of(2))).thenReturn(List.of(1L));
+        when(imageRepository.findDeletedByIdForUpdate(1L)).thenReturn(Optional.of(image));
+
+        imageSweeper.sweep();
+
+        InOrder order = inOrder(imageRepository, fileStorageService, transactionManager);
+        order.verify(imageRepository).findDeletedByIdForUpdate(1L);
+        order.verify(fileStorageService).delete("a.png");
+        order.verify(imageRepository).delete(image);
+        order.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void sweep_ShouldKeepFile_WhenImageWasRevivedSinceListed() {
+        Image image = image(2L, "b.png");
+        when(imageRepository.findDeletedIds(Limit.of(2))).thenReturn(List.of(1L, 2L));
+        when(imageRepository.findDeletedByIdForUpdate(1L)).thenReturn(Optional.empty());
+        when(imageRepository.findDeletedByIdForUpdate(2L)).thenReturn(Optional.of(image));
+
+        imageSweeper.sweep();
+
+        verify(fileStorageService, never()).delete("a.png");
+        verify(fileStorageService).delete("b.png");
+        verify(imageRepository).delete(image);
+        // Not everything was removed, so the same batch is not listed again in this run
+        verify(imageRepository, times(1)).findDeletedIds(Limit.of(2));
+    }
+
+    @Test
+    void sweep_ShouldKeepRow_WhenFileCannotBeDeleted() {
+        Image broken = image(1L, "a.png");
+        Image image = image(2L, "b.png");
+        when(imageRepository.findDeletedIds(Limit.of(2))).thenReturn(List.of(1L, 2L));
+        when(imageRepository.findDeletedByIdForUpdate(1L)).thenReturn(Optional.of(broken));
+        when(imageRepository.findDeletedByIdForUpdate(2L)).thenReturn(Optional.of(image));
+        doThrow(new RuntimeException("disk full")).when(fileStorageService).delete("a.png");
+
+        imageSweeper.sweep();
+
+        verify(imageRepository, never()).delete(broken);
+        verify(imageRepository).delete(image);
+        verify(imageRepository, times(1)).findDeletedIds(Limit.of(2));
+    }
+
+    @Test
+    void sweep_ShouldContinueWithNextBatch_WhenWholeBatchWasRemoved() {
+        when(imageRepository.findDeletedIds(Limit.of(2)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+        when(imageRepository.findDeletedByIdForUpdate(any())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            return Optional.of(image(id, id + ".png"));
+        });
+
+        imageSweeper.sweep();
+
+        verify(fileStorageService, times(3)).delete(any());
+        verify(imageRepository, times(2)).findDeletedIds(Limit.of(2));
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    private static Image image(Long id, String filename) {
+        return Image.builder().id(id).filename(filename).build();
+    }
+}
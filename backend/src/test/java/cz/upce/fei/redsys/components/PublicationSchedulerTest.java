@@ -0,0 +1,127 @@
+package cz.upce.fei.redsys.components;
+
+import cz.upce.fei.redsys.domain.TicketState;
+import cz.upce.fei.redsys.repository.TicketRepository;
+import cz.upce.fei.redsys.repository.TicketRepository.ScheduledPublication;
+import cz.upce.fei.redsys.service.WorkflowService;
+import cz.upce.fei.redsys.service.WorkflowService.PublicationScheduled;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PublicationSchedulerTest {
+
+    private static final Duration HORIZON = Duration.ofHours(24);
+
+    @Mock
+    private TicketRepository ticketRepository;
+
+    @Mock
+    private WorkflowService workflowService;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    private PublicationScheduler publicationScheduler;
+
+    @BeforeEach
+    void setUp() {
+        publicationScheduler = new PublicationScheduler(ticketRepository, workflowService, taskScheduler, HORIZON, 2);
+    }
+
+    @Test
+    void resync_ShouldQueueApprovedTicketsWithinHorizon() {
+        Instant before = Instant.now();
+
+        publicationScheduler.resync();
+
+        ArgumentCaptor<Instant> until = ArgumentCaptor.forClass(Instant.class);
+        verify(ticketRepository).findScheduledPublications(eq(TicketState.APPROVED), until.capture());
+        assertFalse(until.getValue().isBefore(before.plus(HORIZON)));
+        assertFalse(until.getValue().isAfter(Instant.now().plus(HORIZON)));
+        verify(taskScheduler, never()).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void fire_ShouldPublishOnlyDueTicketsOnceAndRearmForTheNext() {
+        Instant past = Instant.now().minusSeconds(60);
+        Instant later = Instant.now().plus(Duration.ofHours(1));
+        when(ticketRepository.findScheduledPublications(eq(TicketState.APPROVED), any(Instant.class)))
+                .thenReturn(List.of(publication(1L, past), publication(2L, past.plusSeconds(1)), publication(3L, later)));
+        publicationScheduler.resync();
+        // Rescheduling an already queued ticket queues it a second time
+        publicationScheduler.onPublicationScheduled(new PublicationScheduled(1L, past.plusSeconds(2)));
+        when(workflowService.publishDue(eq(List.of(1L, 2L)), any(Instant.class))).thenReturn(2);
+
+        armedTimer().run();
+
+        verify(workflowService).publishDue(eq(List.of(1L, 2L)), any(Instant.class));
+        verifyNoMoreInteractions(workflowService);
+        verify(taskScheduler).schedule(any(Runnable.class), eq(later));
+    }
+
+    @Test
+    void fire_ShouldSkipFailingTicket_AndPublishTheRestOfItsBatch() {
+        Instant past = Instant.now().minusSeconds(60);
+        when(ticketRepository.findScheduledPublications(eq(TicketState.APPROVED), any(Instant.class)))
+                .thenReturn(List.of(publication(1L, past), publication(2L, past), publication(3L, past)));
+        publicationScheduler.resync();
+        when(workflowService.publishDue(eq(List.of(1L, 2L)), any(Instant.class)))
+                .thenThrow(new IllegalStateException("Broken article"));
+        when(workflowService.publishDue(eq(List.of(1L)), any(Instant.class))).thenReturn(1);
+        when(workflowService.publishDue(eq(List.of(2L)), any(Instant.class)))
+                .thenThrow(new IllegalStateException("Broken article"));
+        when(workflowService.publishDue(eq(List.of(3L)), any(Instant.class))).thenReturn(1);
+
+        armedTimer().run();
+
+        verify(workflowService).publishDue(eq(List.of(1L)), any(Instant.class));
+        verify(workflowService).publishDue(eq(List.of(2L)), any(Instant.class));
+        verify(workflowService).publishDue(eq(List.of(3L)), any(Instant.class));
+        verify(workflowService, times(4)).publishDue(anyList(), any(Instant.class));
+    }
+
+    @Test
+    void onPublicationScheduled_ShouldIgnorePublicationsBeyondHorizon() {
+        publicationScheduler.onPublicationScheduled(
+                new PublicationScheduled(1L, Instant.now().plus(HORIZON).plus(Duration.ofHours(1))));
+
+        verifyNoInteractions(taskScheduler);
+    }
+
+    // Every armed timer runs the same task, so the last one captured stands for the timer that fires
+    private Runnable armedTimer() {
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler, atLeastOnce()).schedule(task.capture(), any(Instant.class));
+        return task.getValue();
+    }
+
+    private static ScheduledPublication publication(Long id, Instant scheduledPublishAt) {
+        return new ScheduledPublication() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Instant getScheduledPublishAt() {
+                return scheduledPublishAt;
+            }
+        };
+    }
+}
@@ -6,27 +6,39 @@ import cz.upce.fei.redsys.domain.UserRole;
 import cz.upce.fei.redsys.dto.ArticleDto.*;
 import cz.upce.fei.redsys.dto.CategoryDto.CategoryResponse;
 import cz.upce.fei.redsys.dto.UserDto.UserResponse;
+import cz.upce.fei.redsys.dto.SearchDto.CategoryFacet;
+import cz.upce.fei.redsys.dto.SearchDto.SearchHit;
+import cz.upce.fei.redsys.dto.SearchDto.SearchResponse;
+import cz.upce.fei.redsys.service.ArticleSearchService;
 import cz.upce.fei.redsys.service.ArticleService;
+import cz.upce.fei.redsys.service.PublishedArticleService;
+import cz.upce.fei.redsys.service.PublishedArticleService.PublishedDocument;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -53,6 +65,12 @@ public class ArticleControllerTest {
     @MockitoBean
     private ArticleService articleService;
 
+    @MockitoBean
+    private PublishedArticleService publishedArticleService;
+
+    @MockitoBean
+    private ArticleSearchService articleSearchService;
+
     @Test
     @WithMockUser(username = TEST_AUTHOR, roles = {"EDITOR"})
     void create_ShouldReturnArticleAnd201() throws Exception {
@@ -115,6 +133,7 @@ public class ArticleControllerTest {
                 .categories(Set.of(categoryResponse))
                 .build();
 
+        when(articleService.getCacheValidator(TEST_ID)).thenReturn(new CacheValidator("\"1-0-1\"", TEST_PUBLISHED_AT));
         when(articleService.get(TEST_ID)).thenReturn(mockResponse);
 
         mockMvc.perform(get(API_BASE + "/{id}", TEST_ID)
@@ -127,6 +146,33 @@ public class ArticleControllerTest {
                 .andExpect(jsonPath("$.author.username").value(TEST_AUTHOR));
     }
 
+    @Test
+    void get_ShouldServePublishedReadModel_WithoutLoadingArticle() throws Exception {
+        String document = "{\"id\":1,\"title\":\"" + TEST_TITLE + "\",\"articleState\":\"PUBLISHED\"}";
+        when(publishedArticleService.findPublished(TEST_ID)).thenReturn(Optional.of(new PublishedDocument(
+                document.getBytes(StandardCharsets.UTF_8),
+                new CacheValidator("\"1-3-2\"", TEST_PUBLISHED_AT))));
+
+        mockMvc.perform(get(API_BASE + "/{id}", TEST_ID))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-3-2\""))
+                .andExpect(jsonPath("$.id").value(TEST_ID))
+                .andExpect(jsonPath("$.title").value(TEST_TITLE));
+
+        verify(articleService, never()).get(any());
+    }
+
+    @Test
+    void get_ShouldReturn304_WhenEtagMatches() throws Exception {
+        when(articleService.getCacheValidator(TEST_ID)).thenReturn(new CacheValidator("\"1-0-1\"", TEST_PUBLISHED_AT));
+
+        mockMvc.perform(get(API_BASE + "/{id}", TEST_ID)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-0-1\""))
+                .andExpect(status().isNotModified());
+
+        verify(articleService, never()).get(any());
+    }
+
     @Test
     @WithMockUser(username = TEST_AUTHOR)
     void list_ShouldReturnPaginatedArticlesAnd200() throws Exception {
@@ -230,4 +276,23 @@ public class ArticleControllerTest {
                         .with(csrf()))
                 .andExpect(status().isNoContent());
     }
+
+    @Test
+    void search_ShouldReturnRankedHitsAndFacets() throws Exception {
+        SearchResponse response = new SearchResponse("volby",
+                List.of(new SearchHit(TEST_ID, TEST_TITLE, ArticleState.PUBLISHED, TEST_PUBLISHED_AT, 2.5,
+                        "Krajské <mark>volby</mark> začínají")),
+                List.of(new CategoryFacet(CATEGORY_ID, "Politika", 1)),
+                0, 20, 1, 1);
+        when(articleSearchService.search("volby", List.of(CATEGORY_ID), 0, 20)).thenReturn(response);
+
+        mockMvc.perform(get(API_BASE + "/search")
+                        .param("q", "volby")
+                        .param("categoryIds", CATEGORY_ID.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits[0].id").value(TEST_ID))
+                .andExpect(jsonPath("$.hits[0].highlight").value("Krajské <mark>volby</mark> začínají"))
+                .andExpect(jsonPath("$.facets[0].name").value("Politika"))
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
 }
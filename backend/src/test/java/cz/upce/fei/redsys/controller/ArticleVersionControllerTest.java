@@ -4,8 +4,11 @@ import cz.upce.fei.redsys.domain.Article;
 import cz.upce.fei.redsys.domain.ArticleVersion;
 import cz.upce.fei.redsys.domain.UserRole;
 import cz.upce.fei.redsys.dto.ArticleVersionDto.ArticleVersionResponse;
+import cz.upce.fei.redsys.dto.ArticleVersionDto.DiffOperation;
+import cz.upce.fei.redsys.dto.ArticleVersionDto.DiffSegment;
 import cz.upce.fei.redsys.dto.ArticleVersionDto.PaginatedArticleVersionResponse;
 import cz.upce.fei.redsys.dto.UserDto.UserResponse;
+import cz.upce.fei.redsys.service.ArticleDiffService;
 import cz.upce.fei.redsys.service.ArticleService;
 import cz.upce.fei.redsys.service.ArticleVersionService;
 import jakarta.persistence.EntityNotFoundException;
@@ -15,6 +18,7 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -25,9 +29,12 @@ import java.util.List;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -51,6 +58,9 @@ public class ArticleVersionControllerTest {
     @MockitoBean
     private ArticleVersionService articleVersionService;
 
+    @MockitoBean
+    private ArticleDiffService articleDiffService;
+
     @Test
     @WithMockUser(username = TEST_USERNAME)
     void list_ShouldReturnPaginatedVersionsAnd200() throws Exception {
@@ -135,6 +145,59 @@ public class ArticleVersionControllerTest {
                 .andExpect(jsonPath("$.content").value(TEST_CONTENT));
     }
 
+    @Test
+    @WithMockUser(username = TEST_USERNAME)
+    void get_ShouldReturn304WhenEtagMatches() throws Exception {
+        Article mockArticle = mock(Article.class);
+        when(articleService.requireArticleById(TEST_ARTICLE_ID)).thenReturn(mockArticle);
+
+        mockMvc.perform(get("/api/articles/{articleId}/versions/{versionNumber}",
+                        TEST_ARTICLE_ID, TEST_VERSION_NUMBER)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-v1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-v1\""));
+
+        verify(articleVersionService).requireVersionExists(mockArticle, TEST_VERSION_NUMBER);
+        verify(articleVersionService, never()).getVersion(any(), any());
+    }
+
+    @Test
+    @WithMockUser(username = TEST_USERNAME)
+    void diff_ShouldReturnSegmentsAnd200() throws Exception {
+        Article mockArticle = mock(Article.class);
+        when(articleService.requireArticleById(TEST_ARTICLE_ID)).thenReturn(mockArticle);
+        when(articleDiffService.diff(mockArticle, 1, 2)).thenReturn(List.of(
+                new DiffSegment(DiffOperation.EQUAL, "<p>Hello "),
+                new DiffSegment(DiffOperation.DELETE, "old"),
+                new DiffSegment(DiffOperation.INSERT, "new"),
+                new DiffSegment(DiffOperation.EQUAL, "</p>")));
+
+        mockMvc.perform(get("/api/articles/{articleId}/versions/{from}/diff/{to}", TEST_ARTICLE_ID, 1, 2))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1-v1-v2\""))
+                .andExpect(jsonPath("$.fromVersion").value(1))
+                .andExpect(jsonPath("$.toVersion").value(2))
+                .andExpect(jsonPath("$.segments.length()").value(4))
+                .andExpect(jsonPath("$.segments[1].operation").value("DELETE"))
+                .andExpect(jsonPath("$.segments[2].text").value("new"));
+
+        verify(articleVersionService).requireVersionExists(mockArticle, 1);
+        verify(articleVersionService).requireVersionExists(mockArticle, 2);
+    }
+
+    @Test
+    @WithMockUser(username = TEST_USERNAME)
+    void diff_ShouldReturn304WhenEtagMatches() throws Exception {
+        Article mockArticle = mock(Article.class);
+        when(articleService.requireArticleById(TEST_ARTICLE_ID)).thenReturn(mockArticle);
+
+        mockMvc.perform(get("/api/articles/{articleId}/versions/{from}/diff/{to}", TEST_ARTICLE_ID, 1, 2)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"1-v1-v2\""))
+                .andExpect(status().isNotModified());
+
+        verify(articleDiffService, never()).diff(any(), any(), any());
+    }
+
     @Test
     @WithMockUser(username = TEST_USERNAME)
     void list_ShouldReturn404WhenArticleNotFound() throws Exception {
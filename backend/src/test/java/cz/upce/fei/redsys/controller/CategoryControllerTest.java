@@ -2,6 +2,7 @@ package cz.upce.fei.redsys.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import cz.upce.fei.redsys.dto.CategoryDto.*;
+import cz.upce.fei.redsys.service.CategoryOverviewService;
 import cz.upce.fei.redsys.service.CategoryService;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
@@ -15,6 +16,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -46,6 +48,9 @@ public class CategoryControllerTest {
     @MockitoBean
     private CategoryService categoryService;
 
+    @MockitoBean
+    private CategoryOverviewService categoryOverviewService;
+
     @Test
     @WithMockUser(username = "admin", roles = {"ADMIN"})
     void create_ShouldReturnCategoryAnd201() throws Exception {
@@ -87,6 +92,20 @@ public class CategoryControllerTest {
                 .andExpect(jsonPath("$.description").value(TEST_DESCRIPTION));
     }
 
+    @Test
+    void overview_ShouldBePublicAndReturn200() throws Exception {
+        CategoryOverviewResponse overview = new CategoryOverviewResponse(TEST_ID, TEST_NAME, TEST_DESCRIPTION, 3,
+                Instant.parse("2026-01-10T08:00:00Z"), List.of());
+
+        when(categoryOverviewService.overview()).thenReturn(new CategoryOverviewListResponse(List.of(overview)));
+
+        mockMvc.perform(get(API_BASE + "/overview"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.categories[0].id").value(TEST_ID))
+                .andExpect(jsonPath("$.categories[0].publishedArticleCount").value(3))
+                .andExpect(jsonPath("$.categories[0].latestArticles").isEmpty());
+    }
+
     @Test
     @WithMockUser(username = "user")
     void list_ShouldReturnPaginatedCategoriesAnd200() throws Exception {
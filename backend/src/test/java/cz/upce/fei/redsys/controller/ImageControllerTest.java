@@ -0,0 +1,192 @@
+package cz.upce.fei.redsys.controller;
+
+import cz.upce.fei.redsys.dto.ImageDto.DownloadResource;
+import cz.upce.fei.redsys.dto.ImageDto.VariantResource;
+import cz.upce.fei.redsys.service.ImageService;
+import cz.upce.fei.redsys.service.ImageVariantService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+public class ImageControllerTest {
+
+    private static final String API_BASE = "/api/images";
+    private static final String FILE_NAME = "photo.png";
+    private static final String CONTENT = "0123456789abcdefghij";
+    private static final String IMMUTABLE = "max-age=31536000, public, immutable";
+
+    @TempDir
+    Path storage;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ImageService imageService;
+
+    @MockitoBean
+    private ImageVariantService imageVariantService;
+
+    private DownloadResource original;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path file = storage.resolve(FILE_NAME);
+        Files.writeString(file, CONTENT, StandardCharsets.US_ASCII);
+        original = new DownloadResource(file, "image/png", CONTENT.length(), FILE_NAME);
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void get_ShouldServeVariant_WithVariantEtagAndImmutableCaching() throws Exception {
+        Path resized = storage.resolve("w320.png");
+        Files.writeString(resized, "small", StandardCharsets.US_ASCII);
+        when(imageVariantService.get(FILE_NAME, 300, null))
+                .thenReturn(new VariantResource(new DownloadResource(resized, "image/png", 5, FILE_NAME), true));
+
+        mockMvc.perform(get(API_BASE + "/{fileName}", FILE_NAME).param("w", "300"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + FILE_NAME + ";w=300;format=null\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, IMMUTABLE))
+                .andExpect(content().string("small"));
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void get_ShouldServeOriginalEtagWithoutLongCaching_WhenVariantFellBack() throws Exception {
+        when(imageVariantService.get(FILE_NAME, 300, null)).thenReturn(new VariantResource(original, false));
+
+        mockMvc.perform(get(API_BASE + "/{fileName}", FILE_NAME).param("w", "300"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + FILE_NAME + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void get_ShouldReturn304_WhenVariantEtagMatches() throws Exception {
+        when(imageService.exists(FILE_NAME)).thenReturn(true);
+
+        mockMvc.perform(get(API_BASE + "/{fileName}", FILE_NAME).param("w", "300")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + FILE_NAME + ";w=300;format=null\""))
+                .andExpect(status().isNotModified());
+
+        verify(imageVariantService, never()).get(FILE_NAME, 300, null);
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void get_ShouldReturn400_ForInvalidVariantBeforeRevalidation() throws Exception {
+        doThrow(new IllegalArgumentException("Width must be positive")).when(imageVariantService).validate(0, null);
+
+        mockMvc.perform(get(API_BASE + "/{fileName}", FILE_NAME).param("w", "0")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + FILE_NAME + ";w=0;format=null\""))
+                .andExpect(status().isBadRequest());
+
+        verify(imageService, never()).exists(FILE_NAME);
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void get_ShouldServeWholeFileWithRangeSupport() throws Exception {
+        when(imageService.get(FILE_NAME)).thenReturn(original);
+
+        mockMvc.perform(get(API_BASE + "/{fileName}", FILE_NAME))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTENT.length()))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void get_ShouldReturn206_ForSingleRange() throws Exception {
+        when(imageService.get(FILE_NAME)).thenReturn(original);
+
+        mockMvc.perform(get(API_BASE + "/{fileName}", FILE_NAME)
+                        .header(HttpHeaders.RANGE, "bytes=5-9"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 5-9/" + CONTENT.length()))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 5))
+                .andExpect(content().string("56789"));
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void get_ShouldReturn206_ForSuffixRangeWithMatchingIfRange() throws Exception {
+        when(imageService.get(FILE_NAME)).thenReturn(original);
+
+        mockMvc.perform(get(API_BASE + "/{fileName}", FILE_NAME)
+                        .header(HttpHeaders.RANGE, "bytes=-3")
+                        .header(HttpHeaders.IF_RANGE, "\"" + FILE_NAME + "\""))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 17-19/" + CONTENT.length()))
+                .andExpect(content().string("hij"));
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void get_ShouldReturn416_ForUnsatisfiableRange() throws Exception {
+        when(imageService.get(FILE_NAME)).thenReturn(original);
+
+        mockMvc.perform(get(API_BASE + "/{fileName}", FILE_NAME)
+                        .header(HttpHeaders.RANGE, "bytes=100-200"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + CONTENT.length()))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void get_ShouldServeWholeFile_WhenIfRangeDoesNotMatch() throws Exception {
+        when(imageService.get(FILE_NAME)).thenReturn(original);
+
+        mockMvc.perform(get(API_BASE + "/{fileName}", FILE_NAME)
+                        .header(HttpHeaders.RANGE, "bytes=5-9")
+                        .header(HttpHeaders.IF_RANGE, "\"other.png\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void head_ShouldSendHeadersWithoutBody() throws Exception {
+        when(imageService.get(FILE_NAME)).thenReturn(original);
+
+        mockMvc.perform(head(API_BASE + "/{fileName}", FILE_NAME))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + FILE_NAME + "\""))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTENT.length()))
+                .andExpect(content().string(""));
+    }
+}
@@ -5,7 +5,11 @@ import cz.upce.fei.redsys.domain.TicketFilterType;
 import cz.upce.fei.redsys.dto.TicketDto.CreateTicketRequest;
 import cz.upce.fei.redsys.dto.TicketDto.TicketResponse;
 import cz.upce.fei.redsys.domain.TicketState;
+import cz.upce.fei.redsys.dto.TicketDto.BulkTransitionRequest;
+import cz.upce.fei.redsys.dto.TicketDto.BulkTransitionResponse;
+import cz.upce.fei.redsys.dto.TicketDto.TransitionResult;
 import cz.upce.fei.redsys.service.TicketService;
+import cz.upce.fei.redsys.service.WorkflowService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -43,6 +47,9 @@ public class TicketControllerTest {
     @MockitoBean
     private TicketService ticketService;
 
+    @MockitoBean
+    private WorkflowService workflowService;
+
     private TicketResponse mockTicketResponse;
 
     @BeforeEach
@@ -56,7 +63,8 @@ public class TicketControllerTest {
                 TicketState.OPEN,
                 null,
                 null,
-                1L
+                1L,
+                null
         );
     }
 
@@ -187,4 +195,37 @@ public class TicketControllerTest {
 
         verify(ticketService, times(1)).listMyTickets(eq(TicketFilterType.OWNED), any());
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser(roles = "CHIEF_EDITOR")
+    void changeStates_ShouldReturnPerTicketResults() throws Exception {
+        BulkTransitionRequest request = new BulkTransitionRequest(List.of(TICKET_ID, 11L), TicketState.PUBLISHED, null);
+        when(workflowService.transitionAll(any(BulkTransitionRequest.class))).thenReturn(new BulkTransitionResponse(
+                List.of(new TransitionResult(TICKET_ID, mockTicketResponse, null),
+                        new TransitionResult(11L, null, "Ticket not found")),
+                1, 1));
+
+        mockMvc.perform(post("/api/tickets/state")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.results[0].ticket.id").value(TICKET_ID))
+                .andExpect(jsonPath("$.results[1].error").value("Ticket not found"));
+    }
+
+    @Test
+    @WithMockUser(roles = "CHIEF_EDITOR")
+    void changeStates_ShouldReturn400_WhenNoTickets() throws Exception {
+        BulkTransitionRequest request = new BulkTransitionRequest(List.of(), TicketState.PUBLISHED, null);
+
+        mockMvc.perform(post("/api/tickets/state")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        verify(workflowService, never()).transitionAll(any());
+    }
+}
@@ -0,0 +1,64 @@
+package cz.upce.fei.redsys.domain;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedTextConverterTest {
+
+    private static final String LONG_TEXT = "<p>Krajské volby začínají v pátek.</p>".repeat(50);
+
+    private final CompressedTextConverter enabled = new CompressedTextConverter(true);
+    private final CompressedTextConverter disabled = new CompressedTextConverter(false);
+
+    @Test
+    void convert_ShouldCompressLongText_AndReadItBack() {
+        String column = enabled.convertToDatabaseColumn(LONG_TEXT);
+
+        assertTrue(CompressedTextConverter.isCompressed(column));
+        assertTrue(column.length() < LONG_TEXT.length());
+        assertEquals(LONG_TEXT, enabled.convertToEntityAttribute(column));
+        assertEquals(LONG_TEXT, disabled.convertToEntityAttribute(column));
+    }
+
+    @Test
+    void convert_ShouldKeepText_ThatCompressionWouldNotShorten() {
+        assertEquals("Krátký text", enabled.convertToDatabaseColumn("Krátký text"));
+        assertEquals(LONG_TEXT, disabled.convertToDatabaseColumn(LONG_TEXT));
+    }
+
+    @Test
+    void convertToEntityAttribute_ShouldReadLegacyRowsWithoutMarker() {
+        assertEquals(LONG_TEXT, enabled.convertToEntityAttribute(LONG_TEXT));
+        assertEquals("z1: no marker", enabled.convertToEntityAttribute("z1: no marker"));
+    }
+
+    @Test
+    void convert_ShouldPassEmptyAndNullValues() {
+        assertEquals("", enabled.convertToDatabaseColumn(""));
+        assertEquals("", enabled.convertToEntityAttribute(""));
+        assertNull(enabled.convertToDatabaseColumn(null));
+        assertNull(enabled.convertToEntityAttribute(null));
+    }
+
+    @Test
+    void convert_ShouldAlwaysCompressText_StartingWithMarker() {
+        String text = CompressedTextConverter.MARKER + "not Base64 at all";
+
+        for (CompressedTextConverter converter : new CompressedTextConverter[]{enabled, disabled}) {
+            String column = converter.convertToDatabaseColumn(text);
+
+            assertNotEquals(text, column);
+            assertTrue(CompressedTextConverter.isCompressed(column));
+            assertEquals(text, converter.convertToEntityAttribute(column));
+        }
+    }
+
+    @Test
+    void convertToEntityAttribute_ShouldRejectTruncatedData() {
+        String column = enabled.convertToDatabaseColumn(LONG_TEXT);
+        String truncated = column.substring(0, column.length() / 2 / 4 * 4);
+
+        assertThrows(IllegalStateException.class, () -> enabled.convertToEntityAttribute(truncated));
+    }
+}
@@ -0,0 +1,104 @@
+package cz.upce.fei.redsys.repository;
+
+import cz.upce.fei.redsys.domain.Image;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class ImageRepositoryTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T08:00:00Z");
+
+    @Autowired
+    private ImageRepository imageRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void releaseReferences_ShouldMarkDeleted_OnlyWhenLastReferenceGoes() {
+        Image image = persist("a", 2);
+
+        assertEquals(1, imageRepository.releaseReferences(List.of(image.getFilename()), NOW));
+        Image afterFirst = reload(image);
+        assertEquals(1, afterFirst.getReferenceCount());
+        assertNull(afterFirst.getDeletedAt());
+
+        assertEquals(1, imageRepository.releaseReferences(List.of(image.getFilename()), NOW));
+        Image afterLast = reload(image);
+        assertEquals(0, afterLast.getReferenceCount());
+        assertEquals(NOW, afterLast.getDeletedAt());
+
+        assertEquals(0, imageRepository.releaseReferences(List.of(image.getFilename()), NOW));
+        assertEquals(0, reload(image).getReferenceCount());
+    }
+
+    @Test
+    void releaseReferences_ShouldCountOnlyLiveImages() {
+        Image live = persist("b", 1);
+        Image deleted = persist("c", 0);
+        deleted.setDeletedAt(NOW);
+        entityManager.flush();
+
+        int released = imageRepository.releaseReferences(
+                List.of(live.getFilename(), deleted.getFilename(), "missing.png"), NOW);
+
+        assertEquals(1, released);
+        assertEquals(0, reload(deleted).getReferenceCount());
+    }
+
+    @Test
+    void acquireReference_ShouldReviveDeletedImage() {
+        Image image = persist("d", 0);
+        image.setDeletedAt(NOW);
+        entityManager.flush();
+
+        assertEquals(1, imageRepository.acquireReference(image.getContentHash()));
+
+        Image revived = reload(image);
+        assertEquals(1, revived.getReferenceCount());
+        assertNull(revived.getDeletedAt());
+        assertEquals(0, imageRepository.acquireReference("f".repeat(64)));
+    }
+
+    @Test
+    void findDeletedIds_ShouldSkipRevivedImages() {
+        Image image = persist("e", 0);
+        image.setDeletedAt(NOW);
+        persist("f", 1);
+        entityManager.flush();
+
+        assertEquals(List.of(image.getId()), imageRepository.findDeletedIds(Limit.of(10)));
+
+        imageRepository.acquireReference(image.getContentHash());
+        entityManager.clear();
+
+        assertTrue(imageRepository.findDeletedIds(Limit.of(10)).isEmpty());
+    }
+
+    private Image persist(String hashChar, int references) {
+        String hash = hashChar.repeat(64);
+        return entityManager.persistFlushFind(Image.builder()
+                .filename(hash + ".png")
+                .originalFilename("photo.png")
+                .contentType("image/png")
+                .fileSize(3L)
+                .path("/images/" + hash + ".png")
+                .contentHash(hash)
+                .referenceCount(references)
+                .build());
+    }
+
+    private Image reload(Image image) {
+        entityManager.clear();
+        return entityManager.find(Image.class, image.getId());
+    }
+}
@@ -0,0 +1,171 @@
+package cz.upce.fei.redsys.security;
+
+import cz.upce.fei.redsys.domain.UserRole;
+import cz.upce.fei.redsys.security.PrincipalCache.CachedPrincipal;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenProviderTest {
+
+    private static final String SECRET = "test-secret-that-is-at-least-32-bytes-long";
+
+    @Mock
+    private PrincipalCache principalCache;
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-03-01T10:00:00Z"));
+
+    private TokenProvider tokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        tokenProvider = new TokenProvider(principalCache, clock);
+        ReflectionTestUtils.setField(tokenProvider, "secret", SECRET);
+        ReflectionTestUtils.setField(tokenProvider, "verifiedCacheSize", 100);
+        tokenProvider.init();
+    }
+
+    @Test
+    void toAuthentication_ShouldResolveUserAndAuthorities() {
+        when(principalCache.get("editor")).thenReturn(Optional.of(principal("editor", true)));
+
+        Authentication authentication = tokenProvider.toAuthentication(token("editor", "ROLE_EDITOR"));
+
+        assertEquals("editor", authentication.getName());
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_EDITOR")), List.copyOf(authentication.getAuthorities()));
+    }
+
+    @Test
+    void toAuthentication_ShouldServeVerifiedToken_FromCache() {
+        when(principalCache.get("editor")).thenReturn(Optional.of(principal("editor", true)));
+        String token = token("editor", "ROLE_EDITOR");
+        tokenProvider.toAuthentication(token);
+
+        // A parser for another key fails every signature check, so only a cache hit can succeed
+        ReflectionTestUtils.setField(tokenProvider, "parser", Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor("another-secret-that-is-at-least-32-bytes".getBytes(StandardCharsets.UTF_8)))
+                .build());
+
+        assertEquals("editor", tokenProvider.toAuthentication(token).getName());
+        assertThrows(JwtException.class, () -> tokenProvider.toAuthentication(token("chief", "ROLE_CHIEF_EDITOR")));
+    }
+
+    @Test
+    void toAuthentication_ShouldRejectCachedSignature_WithDifferentPayload() {
+        when(principalCache.get("editor")).thenReturn(Optional.of(principal("editor", true)));
+        String token = token("editor", "ROLE_EDITOR");
+        tokenProvider.toAuthentication(token);
+
+        String[] parts = token.split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("ROLE_EDITOR", "ROLE_ADMIN");
+        String forged = parts[0] + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+
+        assertThrows(JwtException.class, () -> tokenProvider.toAuthentication(forged));
+    }
+
+    @Test
+    void toAuthentication_ShouldNotServeCachedToken_AfterItExpires() {
+        when(principalCache.get("editor")).thenReturn(Optional.of(principal("editor", true)));
+        String token = Jwts.builder()
+                .issuer("SemA")
+                .subject("editor")
+                .expiration(Date.from(clock.instant().plusSeconds(2)))
+                .claim("authorities", List.of("ROLE_EDITOR"))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        tokenProvider.toAuthentication(token);
+
+        clock.advance(Duration.ofSeconds(1));
+        assertEquals("editor", tokenProvider.toAuthentication(token).getName());
+
+        clock.advance(Duration.ofSeconds(2));
+        assertThrows(JwtException.class, () -> tokenProvider.toAuthentication(token));
+    }
+
+    @Test
+    void createToken_ShouldExpireAfterFifteenMinutes() {
+        when(principalCache.get("editor")).thenReturn(Optional.of(principal("editor", true)));
+        String token = token("editor", "ROLE_EDITOR");
+
+        clock.advance(Duration.ofMinutes(15).minusSeconds(1));
+        assertEquals("editor", tokenProvider.toAuthentication(token).getName());
+
+        clock.advance(Duration.ofSeconds(2));
+        assertThrows(JwtException.class, () -> tokenProvider.toAuthentication(token));
+    }
+
+    @Test
+    void toAuthentication_ShouldRejectInactiveUser_EvenWithCachedToken() {
+        when(principalCache.get("editor"))
+                .thenReturn(Optional.of(principal("editor", true)))
+                .thenReturn(Optional.of(principal("editor", false)));
+        String token = token("editor", "ROLE_EDITOR");
+        tokenProvider.toAuthentication(token);
+
+        assertThrows(AccessDeniedException.class, () -> tokenProvider.toAuthentication(token));
+    }
+
+    private String token(String username, String authority) {
+        return tokenProvider.createToken(new UsernamePasswordAuthenticationToken(username, null,
+                List.of(new SimpleGrantedAuthority(authority))));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+
+    private static CachedPrincipal principal(String username, boolean active) {
+        return new CachedPrincipal(1L, username, "Test User", UserRole.EDITOR, active);
+    }
+}
@@ -0,0 +1,94 @@
+package cz.upce.fei.redsys.service;
+
+import cz.upce.fei.redsys.domain.Article;
+import cz.upce.fei.redsys.domain.ArticleVersion;
+import cz.upce.fei.redsys.dto.ArticleVersionDto.DiffOperation;
+import cz.upce.fei.redsys.dto.ArticleVersionDto.DiffSegment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ArticleDiffServiceTest {
+
+    @Mock
+    private ArticleVersionService articleVersionService;
+
+    private ArticleDiffService articleDiffService;
+    private Article article;
+
+    @BeforeEach
+    void setUp() {
+        articleDiffService = new ArticleDiffService(articleVersionService, 10, Duration.ofMinutes(5));
+        article = Article.builder().id(1L).title("Test article").build();
+    }
+
+    @Test
+    void diff_ShouldReturnTokenLevelChanges_AndKeepTagsWhole() {
+        stubVersion(1, "<p>Hello old world</p>");
+        stubVersion(2, "<p>Hello new world</p><p class=\"x\">Added</p>");
+
+        List<DiffSegment> segments = articleDiffService.diff(article, 1, 2);
+
+        assertEquals(List.of(
+                new DiffSegment(DiffOperation.EQUAL, "<p>Hello "),
+                new DiffSegment(DiffOperation.DELETE, "old"),
+                new DiffSegment(DiffOperation.INSERT, "new"),
+                new DiffSegment(DiffOperation.EQUAL, " world"),
+                new DiffSegment(DiffOperation.INSERT, "</p><p class=\"x\">Added"),
+                new DiffSegment(DiffOperation.EQUAL, "</p>")
+        ), segments);
+    }
+
+    @Test
+    void diff_ShouldReconstructBothVersions() {
+        String from = "<h1>Title</h1><p>First paragraph.</p><p>Second &amp; third.</p>";
+        String to = "<h1>New title</h1><p>Second &amp; fourth.</p><ul><li>Item</li></ul>";
+        stubVersion(1, from);
+        stubVersion(2, to);
+
+        List<DiffSegment> segments = articleDiffService.diff(article, 1, 2);
+
+        StringBuilder old = new StringBuilder();
+        StringBuilder current = new StringBuilder();
+        for (DiffSegment segment : segments) {
+            if (segment.operation() != DiffOperation.INSERT) {
+                old.append(segment.text());
+            }
+            if (segment.operation() != DiffOperation.DELETE) {
+                current.append(segment.text());
+            }
+        }
+        assertEquals(from, old.toString());
+        assertEquals(to, current.toString());
+    }
+
+    @Test
+    void diff_ShouldBeMemoized() {
+        stubVersion(1, "<p>a</p>");
+        stubVersion(2, "<p>b</p>");
+
+        List<DiffSegment> first = articleDiffService.diff(article, 1, 2);
+        List<DiffSegment> second = articleDiffService.diff(article, 1, 2);
+
+        assertSame(first, second);
+        verify(articleVersionService, times(1)).getVersion(article, 1);
+        verify(articleVersionService, times(1)).getVersion(article, 2);
+    }
+
+    private void stubVersion(int versionNumber, String content) {
+        when(articleVersionService.getVersion(article, versionNumber)).thenReturn(ArticleVersion.builder()
+                .article(article)
+                .versionNumber(versionNumber)
+                .content(content)
+                .build());
+    }
+}
@@ -0,0 +1,216 @@
+package cz.upce.fei.redsys.service;
+
+import cz.upce.fei.redsys.domain.Article;
+import cz.upce.fei.redsys.domain.ArticleSearchDocument;
+import cz.upce.fei.redsys.domain.ArticleState;
+import cz.upce.fei.redsys.domain.ArticleVersion;
+import cz.upce.fei.redsys.domain.Category;
+import cz.upce.fei.redsys.dto.SearchDto.SearchResponse;
+import cz.upce.fei.redsys.repository.ArticleRepository;
+import cz.upce.fei.redsys.repository.ArticleSearchDocumentRepository;
+import cz.upce.fei.redsys.repository.ArticleSearchDocumentRepositoryCustom.SearchRow;
+import cz.upce.fei.redsys.search.SuggestionIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ArticleSearchServiceTest {
+
+    @Mock
+    private ArticleRepository articleRepository;
+
+    @Mock
+    private ArticleSearchDocumentRepository searchDocumentRepository;
+
+    @Mock
+    private ArticleVersionService articleVersionService;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @Mock
+    private AuthService authService;
+
+    @Mock
+    private SuggestionIndex suggestionIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ArticleSearchService articleSearchService;
+
+    private Category politics;
+    private Category sport;
+
+    @BeforeEach
+    void setUp() {
+        politics = new Category();
+        politics.setId(1L);
+        politics.setName("Politika");
+        sport = new Category();
+        sport.setId(2L);
+        sport.setName("Sport");
+    }
+
+    @Test
+    void index_ShouldStoreNormalizedTerms_AndPlainText() {
+        articleSearchService.index(article(1L, "Krajské volby", ArticleState.PUBLISHED, politics),
+                "<p>Volby do krajských zastupitelstev &amp; obcí.</p>");
+
+        ArgumentCaptor<ArticleSearchDocument> captor = ArgumentCaptor.forClass(ArticleSearchDocument.class);
+        verify(searchDocumentRepository).save(captor.capture());
+        assertEquals(1L, captor.getValue().getArticleId());
+        assertEquals("krajske volby", captor.getValue().getTitleTerms());
+        assertEquals("volby do krajskych zastupitelstev obci", captor.getValue().getBodyTerms());
+        assertEquals("Volby do krajských zastupitelstev & obcí.", captor.getValue().getBody());
+        verify(suggestionIndex).put(any());
+    }
+
+    @Test
+    void search_ShouldHighlightHits_AndReturnFacets_ForReaders() {
+        when(authService.isStaff()).thenReturn(false);
+        List<String> terms = List.of("volby");
+        Set<ArticleState> published = EnumSet.of(ArticleState.PUBLISHED);
+        when(searchDocumentRepository.count(terms, published, Set.of())).thenReturn(2L);
+        when(searchDocumentRepository.search(terms, published, Set.of(), 0, 20)).thenReturn(List.of(
+                row(1L, "Krajské volby", 1.0, "Volby do krajských zastupitelstev začínají v pátek."),
+                row(2L, "Hokejisté slaví", 0.4, "Po zápase se mluvilo o volby kapitána.")));
+        when(searchDocumentRepository.countByCategory(terms, published)).thenReturn(Map.of(1L, 1L, 2L, 1L));
+        when(categoryService.findAllByIds(Set.of(1L, 2L))).thenReturn(List.of(politics, sport));
+
+        SearchResponse response = articleSearchService.search("Volby", null, 0, 20);
+
+        assertEquals(2, response.totalElements());
+        assertEquals(1L, response.hits().get(0).id());
+        assertEquals("<mark>Volby</mark> do krajských zastupitelstev začínají v pátek.", response.hits().get(0).highlight());
+        assertEquals(2, response.facets().size());
+    }
+
+    @Test
+    void search_ShouldNormalizeTerms_AndIncludeDrafts_ForStaff() {
+        when(authService.isStaff()).thenReturn(true);
+        List<String> terms = List.of("rozpracovany");
+        Set<ArticleState> visible = EnumSet.complementOf(EnumSet.of(ArticleState.DELETED));
+        when(searchDocumentRepository.count(terms, visible, Set.of(1L))).thenReturn(1L);
+        when(searchDocumentRepository.search(terms, visible, Set.of(1L), 0, 20))
+                .thenReturn(List.of(row(3L, "Koncept", 0.4, "Rozpracovaný text.")));
+        when(searchDocumentRepository.countByCategory(terms, visible)).thenReturn(Map.of(1L, 1L));
+        when(categoryService.findAllByIds(Set.of(1L))).thenReturn(List.of(politics));
+
+        SearchResponse response = articleSearchService.search("Rozpracovaný rozpracovany", List.of(1L), 0, 20);
+
+        assertEquals(1, response.totalElements());
+        assertEquals("<mark>Rozpracovaný</mark> text.", response.hits().getFirst().highlight());
+    }
+
+    @Test
+    void search_ShouldSkipHitsAndFacets_WhenNothingMatches() {
+        when(authService.isStaff()).thenReturn(false);
+        when(searchDocumentRepository.count(any(), any(), any())).thenReturn(0L);
+
+        SearchResponse response = articleSearchService.search("volby", null, 0, 20);
+
+        assertEquals(0, response.totalElements());
+        verify(searchDocumentRepository, never()).search(any(), any(), any(), anyInt(), anyInt());
+        verify(categoryService, never()).findAllByIds(any());
+    }
+
+    @Test
+    void search_ShouldRequireQuery() {
+        assertThrows(IllegalArgumentException.class, () -> articleSearchService.search(" ", null, 0, 20));
+    }
+
+    @Test
+    void indexMissing_ShouldIndexArticlesWithoutSearchRow() {
+        Article article = article(4L, "Starý článek", ArticleState.PUBLISHED, sport);
+        ArticleVersion version = ArticleVersion.builder().content("<p>Text</p>").build();
+        when(articleRepository.findIdsWithoutSearchDocument()).thenReturn(List.of(4L));
+        when(articleRepository.findWithRelationsByIdIn(List.of(4L))).thenReturn(List.of(article));
+        when(articleVersionService.getLatestVersion(article)).thenReturn(version);
+
+        articleSearchService.indexMissing();
+
+        verify(searchDocumentRepository).save(any(ArticleSearchDocument.class));
+        verifyNoInteractions(suggestionIndex);
+    }
+
+    @Test
+    void indexMissing_ShouldIndexTitleOnly_WhenArticleHasNoVersion() {
+        Article article = article(4L, "Starý článek", ArticleState.PUBLISHED, sport);
+        when(articleRepository.findIdsWithoutSearchDocument()).thenReturn(List.of(4L));
+        when(articleRepository.findWithRelationsByIdIn(List.of(4L))).thenReturn(List.of(article));
+        when(articleVersionService.getLatestVersion(article)).thenThrow(new IllegalStateException("Article has no versions"));
+
+        articleSearchService.indexMissing();
+
+        ArgumentCaptor<ArticleSearchDocument> captor = ArgumentCaptor.forClass(ArticleSearchDocument.class);
+        verify(searchDocumentRepository).save(captor.capture());
+        assertEquals("stary clanek", captor.getValue().getTitleTerms());
+        assertEquals("", captor.getValue().getBodyTerms());
+    }
+
+    @Test
+    void indexMissing_ShouldCommitEachBatch_AndContinueAfterFailedOne() {
+        List<Long> ids = LongStream.rangeClosed(1, 150).boxed().toList();
+        Article article = article(5L, "Nový článek", ArticleState.PUBLISHED, sport);
+        when(articleRepository.findIdsWithoutSearchDocument()).thenReturn(ids);
+        when(articleRepository.findWithRelationsByIdIn(ids.subList(0, 100))).thenThrow(new IllegalArgumentException("broken row"));
+        when(articleRepository.findWithRelationsByIdIn(ids.subList(100, 150))).thenReturn(List.of(article));
+        when(articleVersionService.getLatestVersion(article)).thenReturn(ArticleVersion.builder().content("<p>Text</p>").build());
+
+        assertDoesNotThrow(() -> articleSearchService.indexMissing());
+
+        verify(transactionManager).rollback(any());
+        verify(transactionManager).commit(any());
+        verify(searchDocumentRepository).save(any(ArticleSearchDocument.class));
+    }
+
+    @Test
+    void indexMissing_ShouldNotFailStartup_WhenListingFails() {
+        when(articleRepository.findIdsWithoutSearchDocument()).thenThrow(new IllegalStateException("no table"));
+
+        assertDoesNotThrow(() -> articleSearchService.indexMissing());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void updateState_ShouldRemoveSuggestion_OfDeletedArticle() {
+        articleSearchService.updateState(article(1L, "Krajské volby", ArticleState.DELETED, politics));
+
+        verify(suggestionIndex).remove(SuggestionIndex.Type.ARTICLE, 1L);
+        verifyNoInteractions(searchDocumentRepository);
+    }
+
+    private static SearchRow row(Long id, String title, double score, String body) {
+        return new SearchRow(id, title, ArticleState.PUBLISHED, Instant.parse("2025-01-01T08:00:00Z"), score, body);
+    }
+
+    private static Article article(Long id, String title, ArticleState state, Category category) {
+        return Article.builder()
+                .id(id)
+                .title(title)
+                .articleState(state)
+                .publishedAt(Instant.parse("2025-01-0" + id + "T08:00:00Z"))
+                .categories(Set.of(category))
+                .build();
+    }
+}
@@ -2,6 +2,7 @@ package cz.upce.fei.redsys.service;
 
 import cz.upce.fei.redsys.domain.*;
 import cz.upce.fei.redsys.dto.ArticleDto.*;
+import cz.upce.fei.redsys.dto.ScrollDto.Cursor;
 import cz.upce.fei.redsys.repository.ArticleRepository;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,9 +11,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
 
@@ -42,6 +45,14 @@ public class ArticleServiceTest {
     private CategoryService categoryService;
     @Mock
     private ArticleVersionService articleVersionService;
+    @Mock
+    private PublishedArticleService publishedArticleService;
+
+    @Mock
+    private ArticleSearchService articleSearchService;
+
+    @Mock
+    private CategoryOverviewService categoryOverviewService;
 
     @InjectMocks
     private ArticleService articleService;
@@ -166,6 +177,7 @@ public class ArticleServiceTest {
     @Test
     void get_ShouldReturnArticleWithLatestVersion() {
         when(articleRepository.findById(ARTICLE_ID)).thenReturn(Optional.of(mockArticle));
+        when(authService.isStaff()).thenReturn(true);
         when(articleVersionService.getLatestVersion(mockArticle)).thenReturn(mockVersion);
 
         ArticleDetailResponse response = articleService.get(ARTICLE_ID);
@@ -198,31 +210,120 @@ public class ArticleServiceTest {
                 .categories(Set.of())
                 .build();
 
-        Page<Article> page = new PageImpl<>(List.of(mockArticle, article2), pageable, 2);
-        when(articleRepository.findAll(pageable)).thenReturn(page);
+        Page<Long> page = new PageImpl<>(List.of(ARTICLE_ID, 2L), pageable, 2);
+        when(authService.isStaff()).thenReturn(true);
+        when(articleRepository.findPageIds(pageable)).thenReturn(page);
+        when(articleRepository.findWithRelationsByIdIn(List.of(ARTICLE_ID, 2L))).thenReturn(List.of(article2, mockArticle));
 
         PaginatedArticleResponse response = articleService.list(pageable, new ArrayList<>());
 
         assertNotNull(response);
         assertEquals(2, response.articles().size());
+        assertEquals(ARTICLE_ID, response.articles().get(0).id());
+        assertEquals(2L, response.articles().get(1).id());
         assertEquals(0, response.page());
         assertEquals(20, response.size());
         assertEquals(2, response.totalElements());
         assertEquals(1, response.totalPages());
-        verify(articleRepository, times(1)).findAll(pageable);
+        verify(articleRepository, times(1)).findPageIds(pageable);
+    }
+
+    @Test
+    void list_ShouldFilterByCategories() {
+        Pageable pageable = PageRequest.of(0, 20);
+        List<Long> categoryIds = List.of(CATEGORY_ID);
+        Page<Long> page = new PageImpl<>(List.of(ARTICLE_ID), pageable, 1);
+        when(authService.isStaff()).thenReturn(true);
+        when(articleRepository.findPageIdsByCategoryIds(categoryIds, pageable)).thenReturn(page);
+        when(articleRepository.findWithRelationsByIdIn(List.of(ARTICLE_ID))).thenReturn(List.of(mockArticle));
+
+        PaginatedArticleResponse response = articleService.list(pageable, categoryIds);
+
+        assertEquals(1, response.articles().size());
+        assertEquals(1, response.totalElements());
+        verify(articleRepository, never()).findPageIds(any());
     }
 
     @Test
     void list_ShouldReturnEmptyList_WhenNoArticles() {
         Pageable pageable = PageRequest.of(0, 20);
-        Page<Article> emptyPage = new PageImpl<>(List.of(), pageable, 0);
-        when(articleRepository.findAll(pageable)).thenReturn(emptyPage);
+        Page<Long> emptyPage = new PageImpl<>(List.of(), pageable, 0);
+        when(authService.isStaff()).thenReturn(true);
+        when(articleRepository.findPageIds(pageable)).thenReturn(emptyPage);
 
         PaginatedArticleResponse response = articleService.list(pageable, new ArrayList<>());
 
         assertNotNull(response);
         assertEquals(0, response.articles().size());
         assertEquals(0, response.totalElements());
+        verify(articleRepository, never()).findWithRelationsByIdIn(any());
+    }
+
+    @Test
+    void get_ShouldThrowEntityNotFoundException_WhenUnpublishedAndNotStaff() {
+        when(articleRepository.findById(ARTICLE_ID)).thenReturn(Optional.of(mockArticle));
+        when(authService.isStaff()).thenReturn(false);
+
+        assertThrows(EntityNotFoundException.class, () -> articleService.get(ARTICLE_ID));
+        verify(articleVersionService, never()).getLatestVersion(any());
+    }
+
+    @Test
+    void list_ShouldListPublishedOnly_WhenNotStaff() {
+        Pageable pageable = PageRequest.of(1, 10, Sort.by("title"));
+        List<Long> categoryIds = List.of(CATEGORY_ID);
+        Page<Long> page = new PageImpl<>(List.of(ARTICLE_ID), PageRequest.of(1, 10), 11);
+        when(authService.isStaff()).thenReturn(false);
+        when(articleRepository.findPublishedPageIdsByCategoryIds(categoryIds, PageRequest.of(1, 10))).thenReturn(page);
+        when(articleRepository.findWithRelationsByIdIn(List.of(ARTICLE_ID))).thenReturn(List.of(mockArticle));
+
+        PaginatedArticleResponse response = articleService.list(pageable, categoryIds);
+
+        assertEquals(1, response.articles().size());
+        assertEquals(11, response.totalElements());
+        verify(articleRepository, never()).findPageIdsByCategoryIds(any(), any());
+        verify(articleRepository, never()).findPageIds(any());
+    }
+
+    @Test
+    void scroll_ShouldReturnCursor_WhenMoreArticlesExist() {
+        Article article2 = Article.builder()
+                .id(2L)
+                .title("Article 2")
+                .articleState(ArticleState.PUBLISHED)
+                .author(mockAuthor)
+                .publishedAt(TEST_PUBLISHED_AT)
+                .categories(Set.of())
+                .build();
+        when(articleRepository.findFeedIds(Limit.of(2))).thenReturn(List.of(2L, ARTICLE_ID));
+        when(articleRepository.findWithRelationsByIdIn(List.of(2L))).thenReturn(List.of(article2));
+
+        ArticleSliceResponse response = articleService.scroll(null, 1, null);
+
+        assertEquals(1, response.articles().size());
+        assertTrue(response.hasNext());
+        Cursor cursor = Cursor.decode(response.nextCursor());
+        assertEquals(TEST_PUBLISHED_AT, cursor.instantKey());
+        assertEquals(2L, cursor.id());
+    }
+
+    @Test
+    void scroll_ShouldContinueAfterCursor() {
+        String cursor = Cursor.of(TEST_PUBLISHED_AT, 2L).encode();
+        when(articleRepository.findFeedIdsAfter(TEST_PUBLISHED_AT, 2L, Limit.of(21))).thenReturn(List.of(ARTICLE_ID));
+        when(articleRepository.findWithRelationsByIdIn(List.of(ARTICLE_ID))).thenReturn(List.of(mockArticle));
+
+        ArticleSliceResponse response = articleService.scroll(cursor, 20, List.of());
+
+        assertEquals(1, response.articles().size());
+        assertFalse(response.hasNext());
+        assertNull(response.nextCursor());
+    }
+
+    @Test
+    void scroll_ShouldThrow_WhenCursorIsInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> articleService.scroll("not a cursor", 20, null));
+        verifyNoInteractions(articleRepository);
     }
 
     @Test
@@ -270,6 +371,7 @@ public class ArticleServiceTest {
         assertEquals(2, response.currentVersion());
         verify(articleRepository, times(1)).save(any(Article.class));
         verify(articleVersionService, times(1)).createNewVersionIfChanged(any(Article.class), eq("Updated content"));
+        verify(categoryOverviewService, times(1)).articleChanged(Set.of(CATEGORY_ID));
     }
 
     @Test
@@ -356,11 +458,14 @@ public class ArticleServiceTest {
     @Test
     void delete_ShouldDeleteArticle_WhenExists() {
         when(articleRepository.existsById(ARTICLE_ID)).thenReturn(true);
+        when(articleRepository.findCategoryIds(ARTICLE_ID)).thenReturn(List.of(3L));
 
         assertDoesNotThrow(() -> articleService.delete(ARTICLE_ID));
 
         verify(articleRepository, times(1)).existsById(ARTICLE_ID);
+        verify(publishedArticleService, times(1)).evict(ARTICLE_ID);
         verify(articleRepository, times(1)).deleteById(ARTICLE_ID);
+        verify(categoryOverviewService, times(1)).articleChanged(List.of(3L));
     }
 
     @Test
@@ -6,6 +6,8 @@ import cz.upce.fei.redsys.domain.User;
 import cz.upce.fei.redsys.domain.UserRole;
 import cz.upce.fei.redsys.dto.ArticleVersionDto.PaginatedArticleVersionResponse;
 import cz.upce.fei.redsys.repository.ArticleVersionRepository;
+import cz.upce.fei.redsys.repository.ArticleVersionRepository.VersionHead;
+import cz.upce.fei.redsys.repository.ArticleVersionRepository.VersionSummary;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -36,6 +38,9 @@ class ArticleVersionServiceTest {
     @Mock
     private AuthService authService;
 
+    @Mock
+    private ArticleVersionStorage articleVersionStorage;
+
     @InjectMocks
     private ArticleVersionService articleVersionService;
 
@@ -108,9 +113,10 @@ class ArticleVersionServiceTest {
 
     @Test
     void createNewVersionIfChanged_ShouldCreateNewVersion_WhenContentDiffers() {
+        VersionHead head = head(version1);
         when(authService.currentUser()).thenReturn(editor);
-        when(versionRepository.findTopByArticleOrderByVersionNumberDesc(article))
-                .thenReturn(Optional.of(version1));
+        when(versionRepository.findFirstByArticleOrderByVersionNumberDesc(article))
+                .thenReturn(Optional.of(head));
         when(versionRepository.save(any(ArticleVersion.class))).thenAnswer(invocation -> {
             ArticleVersion v = invocation.getArgument(0);
             v.setId(2L);
@@ -123,21 +129,52 @@ class ArticleVersionServiceTest {
         assertEquals(2, result.getVersionNumber());
         assertEquals("Updated content", result.getContent());
         assertEquals(editor, result.getCreatedBy());
+        verify(articleVersionStorage, times(1)).encode(result, head);
         verify(versionRepository, times(1)).save(any(ArticleVersion.class));
     }
 
     @Test
     void createNewVersionIfChanged_ShouldReturnCurrentVersion_WhenContentUnchanged() {
+        VersionHead head = head(version1);
+        when(authService.currentUser()).thenReturn(editor);
+        when(versionRepository.findFirstByArticleOrderByVersionNumberDesc(article))
+                .thenReturn(Optional.of(head));
+
+        ArticleVersion result = articleVersionService.createNewVersionIfChanged(article, "Initial content");
+
+        assertEquals(version1.getId(), result.getId());
+        assertEquals(1, result.getVersionNumber());
+        assertEquals("Initial content", result.getContent());
+        verify(versionRepository, never()).findTopByArticleOrderByVersionNumberDesc(any());
+        verify(versionRepository, never()).save(any());
+    }
+
+    @Test
+    void createNewVersionIfChanged_ShouldCompareContent_WhenDigestMissing() {
+        VersionHead head = mock(VersionHead.class);
+        when(head.getVersionNumber()).thenReturn(1);
         when(authService.currentUser()).thenReturn(editor);
+        when(versionRepository.findFirstByArticleOrderByVersionNumberDesc(article))
+                .thenReturn(Optional.of(head));
         when(versionRepository.findTopByArticleOrderByVersionNumberDesc(article))
                 .thenReturn(Optional.of(version1));
 
         ArticleVersion result = articleVersionService.createNewVersionIfChanged(article, "Initial content");
 
-        assertSame(version1, result);
+        assertEquals(1, result.getVersionNumber());
+        verify(articleVersionStorage, times(1)).fillDigest(version1);
         verify(versionRepository, never()).save(any());
     }
 
+    private VersionHead head(ArticleVersion version) {
+        VersionHead head = mock(VersionHead.class);
+        lenient().when(head.getId()).thenReturn(version.getId());
+        lenient().when(head.getVersionNumber()).thenReturn(version.getVersionNumber());
+        lenient().when(head.getContentDigest()).thenReturn(ArticleVersionStorage.digest(version.getContent()));
+        lenient().when(head.getContentLength()).thenReturn(version.getContent().length());
+        return head;
+    }
+
     // getLatestVersion
 
     @Test
@@ -240,11 +277,11 @@ class ArticleVersionServiceTest {
     @Test
     void listVersions_ShouldReturnPaginatedVersions_WhenUserHasPermission() {
         Pageable pageable = Pageable.ofSize(10);
-        Page<ArticleVersion> page = new PageImpl<>(
-                List.of(version2, version1), pageable, 2);
+        Page<VersionSummary> page = new PageImpl<>(
+                List.of(summary(version2), summary(version1)), pageable, 2);
 
         when(authService.currentUser()).thenReturn(editor);
-        when(versionRepository.findAllByArticleOrderByVersionNumberDesc(article, pageable))
+        when(versionRepository.findSummariesByArticle(article, pageable))
                 .thenReturn(page);
 
         PaginatedArticleVersionResponse response =
@@ -256,8 +293,11 @@ class ArticleVersionServiceTest {
         assertEquals(10, response.size());
         assertEquals(2, response.totalElements());
         assertEquals(1, response.totalPages());
+        assertEquals(2, response.versions().getFirst().versionNumber());
+        assertEquals("editor", response.versions().getFirst().createdBy().username());
+        assertNull(response.versions().getFirst().content());
         verify(versionRepository, times(1))
-                .findAllByArticleOrderByVersionNumberDesc(article, pageable);
+                .findSummariesByArticle(article, pageable);
     }
 
     @Test
@@ -276,6 +316,17 @@ class ArticleVersionServiceTest {
                 () -> articleVersionService.listVersions(article, pageable));
 
         verify(versionRepository, never())
-                .findAllByArticleOrderByVersionNumberDesc(any(), any());
+                .findSummariesByArticle(any(), any());
+    }
+
+    private VersionSummary summary(ArticleVersion version) {
+        VersionSummary summary = mock(VersionSummary.class);
+        when(summary.getId()).thenReturn(version.getId());
+        when(summary.getVersionNumber()).thenReturn(version.getVersionNumber());
+        when(summary.getCreatedById()).thenReturn(version.getCreatedBy().getId());
+        when(summary.getCreatedByUsername()).thenReturn(version.getCreatedBy().getUsername());
+        when(summary.getCreatedByRole()).thenReturn(version.getCreatedBy().getRole());
+        when(summary.getCreatedByActive()).thenReturn(true);
+        return summary;
     }
 }
@@ -0,0 +1,198 @@
+package cz.upce.fei.redsys.service;
+
+import cz.upce.fei.redsys.domain.Article;
+import cz.upce.fei.redsys.domain.ArticleVersion;
+import cz.upce.fei.redsys.repository.ArticleVersionRepository;
+import cz.upce.fei.redsys.repository.ArticleVersionRepository.VersionHead;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ArticleVersionStorageTest {
+
+    private static final Long ARTICLE_ID = 1L;
+
+    @Mock
+    private ArticleVersionRepository versionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ArticleVersionStorage storage;
+    private Article article;
+    private String original;
+
+    @BeforeEach
+    void setUp() {
+        storage = new ArticleVersionStorage(versionRepository, transactionManager, ArticleVersionStorage.Mode.DELTA, 3);
+        article = Article.builder().id(ARTICLE_ID).title("Test article").build();
+
+        StringBuilder html = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            html.append("<p>Paragraph number ").append(i).append(" with some longer text in it.</p>\n");
+        }
+        original = html.toString();
+    }
+
+    @Test
+    void encode_ShouldStoreDeltaAgainstSnapshot_WhenPreviousIsSnapshot() {
+        ArticleVersion next = version(2, original.replace("Paragraph number 7 ", "Edited paragraph 7 "));
+        when(versionRepository.findStoredContent(ARTICLE_ID, 1)).thenReturn(Optional.of(original));
+
+        storage.encode(next, head(1, null));
+
+        assertEquals(1, next.getBaseVersionNumber());
+        assertTrue(next.isDeltaChecked());
+        assertEquals(ArticleVersionStorage.digest(next.getContent()), next.getContentDigest());
+        assertEquals(next.getContent().length(), next.getContentLength());
+        assertTrue(next.getStoredContent().length() < next.getContent().length() / 2);
+        assertEquals(next.getContent(), ContentDelta.apply(original, next.getStoredContent()));
+    }
+
+    @Test
+    void encode_ShouldStoreSnapshot_WhenIntervalReached() {
+        ArticleVersion next = version(4, original + "<p>New paragraph</p>");
+
+        storage.encode(next, head(3, 1));
+
+        assertTrue(next.isSnapshot());
+        assertEquals(next.getContent(), next.getStoredContent());
+        verifyNoInteractions(versionRepository);
+    }
+
+    @Test
+    void encode_ShouldStoreSnapshot_WhenContentRewritten() {
+        ArticleVersion next = version(2, "<p>Completely different text</p>".repeat(40));
+        when(versionRepository.findStoredContent(ARTICLE_ID, 1)).thenReturn(Optional.of(original));
+
+        storage.encode(next, head(1, null));
+
+        assertTrue(next.isSnapshot());
+        assertEquals(next.getContent(), next.getStoredContent());
+    }
+
+    @Test
+    void materialize_ShouldReconstructDeltaFromSnapshot() {
+        String edited = "<h1>Title</h1>\n" + original.replace("number 42", "forty-two");
+        ArticleVersion stored = ArticleVersion.builder()
+                .article(article)
+                .versionNumber(2)
+                .baseVersionNumber(1)
+                .storedContent(ContentDelta.encode(original, edited))
+                .build();
+        when(versionRepository.findStoredContent(ARTICLE_ID, 1)).thenReturn(Optional.of(original));
+
+        storage.materialize(stored);
+
+        assertEquals(edited, stored.getContent());
+    }
+
+    @Test
+    void materialize_ShouldThrow_WhenSnapshotMissing() {
+        ArticleVersion stored = ArticleVersion.builder()
+                .article(article)
+                .versionNumber(2)
+                .baseVersionNumber(1)
+                .storedContent("C0,10;")
+                .build();
+        when(versionRepository.findStoredContent(ARTICLE_ID, 1)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalStateException.class, () -> storage.materialize(stored));
+    }
+
+    @Test
+    void encodeExisting_ShouldEncodeFullCopiesOnce_AndMarkEveryVersion() {
+        ArticleVersion first = version(1, original);
+        ArticleVersion edited = version(2, original.replace("Paragraph number 7 ", "Edited paragraph 7 "));
+        ArticleVersion rewritten = version(3, "<p>Completely different text</p>".repeat(40));
+        when(versionRepository.findArticleIdsNotDeltaChecked()).thenReturn(List.of(ARTICLE_ID));
+        when(versionRepository.findAllByArticleId(ARTICLE_ID)).thenReturn(List.of(first, edited, rewritten));
+
+        storage.encodeExisting();
+
+        assertTrue(first.isSnapshot());
+        assertEquals(1, edited.getBaseVersionNumber());
+        assertTrue(rewritten.isSnapshot());
+        assertNotNull(rewritten.getContentDigest());
+        for (ArticleVersion version : List.of(first, edited, rewritten)) {
+            assertTrue(version.isDeltaChecked());
+        }
+    }
+
+    @Test
+    void encodeExisting_ShouldKeepSnapshot_WhenDeltasAreBasedOnIt() {
+        ArticleVersion first = version(1, original);
+        first.setDeltaChecked(true);
+        // Written in full mode, then used as the base of a delta after switching to delta mode
+        ArticleVersion fullCopy = version(2, original + "<p>Added</p>");
+        ArticleVersion delta = ArticleVersion.builder()
+                .article(article)
+                .versionNumber(3)
+                .baseVersionNumber(2)
+                .storedContent("C0,10;")
+                .deltaChecked(true)
+                .build();
+        when(versionRepository.findArticleIdsNotDeltaChecked()).thenReturn(List.of(ARTICLE_ID));
+        when(versionRepository.findAllByArticleId(ARTICLE_ID)).thenReturn(List.of(first, fullCopy, delta));
+
+        storage.encodeExisting();
+
+        assertTrue(fullCopy.isSnapshot());
+        assertTrue(fullCopy.isDeltaChecked());
+        assertEquals("C0,10;", delta.getStoredContent());
+    }
+
+    @Test
+    void encodeExisting_ShouldReadNothing_WhenEverythingIsChecked() {
+        when(versionRepository.findArticleIdsNotDeltaChecked()).thenReturn(List.of());
+
+        storage.encodeExisting();
+
+        verify(versionRepository, never()).findAllByArticleId(any());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void encodeExisting_ShouldDoNothing_InFullMode() {
+        storage = new ArticleVersionStorage(versionRepository, transactionManager, ArticleVersionStorage.Mode.FULL, 3);
+
+        storage.encodeExisting();
+
+        verifyNoInteractions(versionRepository, transactionManager);
+    }
+
+    @Test
+    void contentDelta_ShouldRoundTrip_WhenTextsShareNothing() {
+        String base = "abc";
+        String target = "<p>unrelated</p>\nline";
+
+        assertEquals(target, ContentDelta.apply(base, ContentDelta.encode(base, target)));
+        assertEquals("", ContentDelta.apply(base, ContentDelta.encode(base, "")));
+    }
+
+    private VersionHead head(int versionNumber, Integer baseVersionNumber) {
+        VersionHead head = mock(VersionHead.class);
+        lenient().when(head.getVersionNumber()).thenReturn(versionNumber);
+        lenient().when(head.getBaseVersionNumber()).thenReturn(baseVersionNumber);
+        return head;
+    }
+
+    private ArticleVersion version(int number, String content) {
+        return ArticleVersion.builder()
+                .article(article)
+                .versionNumber(number)
+                .content(content)
+                .build();
+    }
+}
@@ -4,7 +4,10 @@ import cz.upce.fei.redsys.domain.PasswordResetToken;
 import cz.upce.fei.redsys.domain.User;
 import cz.upce.fei.redsys.dto.AuthDto.*;
 import cz.upce.fei.redsys.dto.UserDto.UserResponse;
+import cz.upce.fei.redsys.domain.UserRole;
 import cz.upce.fei.redsys.repository.PasswordResetTokenRepository;
+import cz.upce.fei.redsys.security.PrincipalCache;
+import cz.upce.fei.redsys.security.PrincipalCache.CachedPrincipal;
 import cz.upce.fei.redsys.security.TokenProvider;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ValidationException;
@@ -15,14 +18,17 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -54,6 +60,8 @@ public class AuthServiceTest {
     private SecurityContext securityContext;
     @Mock
     private UUIDCodeGenerator codeGenerator;
+    @Mock
+    private PrincipalCache principalCache;
 
     @InjectMocks
     private AuthService authService;
@@ -240,4 +248,55 @@ public class AuthServiceTest {
         assertThrows(AccessDeniedException.class, () -> authService.changePassword(request));
         verify(userService, never()).updatePassword(any(), any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void currentUser_ShouldResolveFromPrincipalCache_WithoutLoadingEntity() {
+        Authentication auth = mock(Authentication.class);
+        when(auth.getName()).thenReturn(TEST_USERNAME);
+        when(securityContext.getAuthentication()).thenReturn(auth);
+        SecurityContextHolder.setContext(securityContext);
+        when(principalCache.get(TEST_USERNAME))
+                .thenReturn(Optional.of(new CachedPrincipal(1L, TEST_USERNAME, TEST_FULLNAME, UserRole.EDITOR, true)));
+
+        User user = authService.currentUser();
+
+        assertEquals(1L, user.getId());
+        assertEquals(TEST_USERNAME, user.getUsername());
+        assertEquals(UserRole.EDITOR, user.getRole());
+        verify(userService, never()).findByUsername(any());
+    }
+
+    @Test
+    void currentUser_ShouldThrowAccessDenied_WhenCachedPrincipalInactive() {
+        Authentication auth = mock(Authentication.class);
+        when(auth.getName()).thenReturn(TEST_USERNAME);
+        when(securityContext.getAuthentication()).thenReturn(auth);
+        SecurityContextHolder.setContext(securityContext);
+        when(principalCache.get(TEST_USERNAME))
+                .thenReturn(Optional.of(new CachedPrincipal(1L, TEST_USERNAME, TEST_FULLNAME, UserRole.EDITOR, false)));
+
+        assertThrows(AccessDeniedException.class, () -> authService.currentUser());
+    }
+
+    @Test
+    void isStaff_ShouldBeTrue_ForNewsroomRole() {
+        when(securityContext.getAuthentication()).thenReturn(new UsernamePasswordAuthenticationToken(
+                TEST_USERNAME, null, List.of(new SimpleGrantedAuthority("ROLE_REVIEWER"))));
+        SecurityContextHolder.setContext(securityContext);
+
+        assertTrue(authService.isStaff());
+        verifyNoInteractions(principalCache, userService);
+    }
+
+    @Test
+    void isStaff_ShouldBeFalse_ForAnonymousAndReaders() {
+        when(securityContext.getAuthentication()).thenReturn(new AnonymousAuthenticationToken(
+                "key", "anonymousUser", List.of(new SimpleGrantedAuthority("ROLE_ANONYMOUS"))));
+        SecurityContextHolder.setContext(securityContext);
+        assertFalse(authService.isStaff());
+
+        when(securityContext.getAuthentication()).thenReturn(new UsernamePasswordAuthenticationToken(
+                TEST_USERNAME, null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        assertFalse(authService.isStaff());
+    }
+}
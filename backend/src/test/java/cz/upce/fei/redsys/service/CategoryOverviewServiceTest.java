@@ -0,0 +1,198 @@
+package cz.upce.fei.redsys.service;
+
+import cz.upce.fei.redsys.cache.CacheInvalidationEvent;
+import cz.upce.fei.redsys.domain.Article;
+import cz.upce.fei.redsys.domain.ArticleState;
+import cz.upce.fei.redsys.domain.Category;
+import cz.upce.fei.redsys.domain.User;
+import cz.upce.fei.redsys.dto.ArticleDto.ArticleResponse;
+import cz.upce.fei.redsys.dto.CategoryDto.CategoryOverviewListResponse;
+import cz.upce.fei.redsys.dto.CategoryDto.CategoryOverviewResponse;
+import cz.upce.fei.redsys.repository.ArticleRepository;
+import cz.upce.fei.redsys.repository.ArticleRepository.CategoryArticleId;
+import cz.upce.fei.redsys.repository.CategoryRepository;
+import cz.upce.fei.redsys.repository.CategoryRepository.PublishedStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryOverviewServiceTest {
+
+    private static final Instant PUBLISHED_AT = Instant.parse("2026-01-10T08:00:00Z");
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private ArticleRepository articleRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private CategoryOverviewService categoryOverviewService;
+    private Category sport;
+    private Category culture;
+    private Article match;
+
+    @BeforeEach
+    void setUp() {
+        categoryOverviewService = new CategoryOverviewService(categoryRepository, articleRepository, eventPublisher, 3, 10, Duration.ofMinutes(5));
+        sport = Category.builder().id(1L).name("Sport").publishedArticleCount(1).lastPublishedAt(PUBLISHED_AT).build();
+        culture = Category.builder().id(2L).name("Kultura").publishedArticleCount(0).build();
+        User author = User.builder().id(5L).username("author").fullName("Author").build();
+        match = Article.builder().id(10L).title("Zápas").articleState(ArticleState.PUBLISHED)
+                .publishedAt(PUBLISHED_AT).author(author).categories(Set.of(sport)).build();
+    }
+
+    @Test
+    void overview_ShouldReturnCountsAndNewestArticles_AndCacheThem() {
+        when(categoryRepository.findAll(Sort.by("name"))).thenReturn(List.of(culture, sport));
+        when(articleRepository.findLatestIdsPerCategory(Set.of(1L), 3)).thenReturn(List.of(row(1L, 10L)));
+        when(articleRepository.findWithRelationsByIdIn(Set.of(10L))).thenReturn(List.of(match));
+
+        CategoryOverviewListResponse first = categoryOverviewService.overview();
+        CategoryOverviewListResponse second = categoryOverviewService.overview();
+
+        CategoryOverviewResponse empty = first.categories().get(0);
+        assertEquals("Kultura", empty.name());
+        assertEquals(0, empty.publishedArticleCount());
+        assertTrue(empty.latestArticles().isEmpty());
+
+        CategoryOverviewResponse filled = first.categories().get(1);
+        assertEquals(1, filled.publishedArticleCount());
+        assertEquals(PUBLISHED_AT, filled.lastPublishedAt());
+        assertEquals(List.of(10L), filled.latestArticles().stream().map(ArticleResponse::id).toList());
+        assertEquals(first, second);
+        verify(articleRepository, times(1)).findLatestIdsPerCategory(any(), anyInt());
+    }
+
+    @Test
+    void overview_ShouldLoadNewestArticlesOfAllMissedCategories_InOneQuery() {
+        Category politics = Category.builder().id(3L).name("Politika").publishedArticleCount(2).lastPublishedAt(PUBLISHED_AT).build();
+        Article debate = Article.builder().id(11L).title("Debata").articleState(ArticleState.PUBLISHED)
+                .publishedAt(PUBLISHED_AT).author(match.getAuthor()).categories(Set.of(politics, sport)).build();
+        Article vote = Article.builder().id(12L).title("Hlasování").articleState(ArticleState.PUBLISHED)
+                .publishedAt(PUBLISHED_AT.minusSeconds(60)).author(match.getAuthor()).categories(Set.of(politics)).build();
+        when(categoryRepository.findAll(Sort.by("name"))).thenReturn(List.of(culture, politics, sport));
+        when(articleRepository.findLatestIdsPerCategory(Set.of(1L, 3L), 3))
+                .thenReturn(List.of(row(1L, 11L), row(1L, 10L), row(3L, 11L), row(3L, 12L)));
+        when(articleRepository.findWithRelationsByIdIn(Set.of(10L, 11L, 12L))).thenReturn(List.of(vote, match, debate));
+
+        CategoryOverviewListResponse overview = categoryOverviewService.overview();
+
+        assertEquals(List.of(11L, 12L), overview.categories().get(1).latestArticles().stream().map(ArticleResponse::id).toList());
+        assertEquals(List.of(11L, 10L), overview.categories().get(2).latestArticles().stream().map(ArticleResponse::id).toList());
+        verify(articleRepository, times(1)).findLatestIdsPerCategory(any(), anyInt());
+        verify(articleRepository, times(1)).findWithRelationsByIdIn(any());
+    }
+
+    @Test
+    void articleChanged_ShouldLockThenRecount_AndDropCachedArticles() {
+        when(categoryRepository.findAll(Sort.by("name"))).thenReturn(List.of(sport));
+        when(articleRepository.findLatestIdsPerCategory(Set.of(1L), 3)).thenReturn(List.of(row(1L, 10L)));
+        when(articleRepository.findWithRelationsByIdIn(Set.of(10L))).thenReturn(List.of(match));
+        categoryOverviewService.overview();
+
+        Instant republishedAt = PUBLISHED_AT.plusSeconds(3600);
+        when(categoryRepository.lockAllByIdIn(Set.of(1L))).thenReturn(List.of(sport));
+        when(categoryRepository.findPublishedStats(List.of(1L))).thenReturn(List.of(stats(1L, 2L, republishedAt)));
+
+        categoryOverviewService.articleChanged(match);
+        categoryOverviewService.overview();
+
+        InOrder inOrder = inOrder(categoryRepository);
+        inOrder.verify(categoryRepository).lockAllByIdIn(Set.of(1L));
+        inOrder.verify(categoryRepository).findPublishedStats(List.of(1L));
+        assertEquals(2, sport.getPublishedArticleCount());
+        assertEquals(republishedAt, sport.getLastPublishedAt());
+        verify(articleRepository, times(2)).findLatestIdsPerCategory(Set.of(1L), 3);
+        verify(eventPublisher).publishEvent(CacheInvalidationEvent.local(CacheInvalidationEvent.CATEGORY, 1L));
+    }
+
+    @Test
+    void articleChanged_ShouldLockInIdOrder_AndResetCategoriesWithoutPublishedArticles() {
+        Category politics = Category.builder().id(3L).name("Politika").publishedArticleCount(4).build();
+        when(categoryRepository.lockAllByIdIn(Set.of(1L, 2L, 3L))).thenReturn(List.of(sport, culture, politics));
+        when(categoryRepository.findPublishedStats(List.of(1L, 2L, 3L))).thenReturn(List.of(stats(1L, 1L, PUBLISHED_AT)));
+
+        categoryOverviewService.articleChanged(List.of(3L, 1L, 2L, 3L));
+
+        verify(categoryRepository).lockAllByIdIn(argThat(ids -> List.copyOf(ids).equals(List.of(1L, 2L, 3L))));
+        assertEquals(1, sport.getPublishedArticleCount());
+        assertEquals(0, politics.getPublishedArticleCount());
+        assertNull(politics.getLastPublishedAt());
+        verify(categoryRepository, never()).findAll();
+    }
+
+    @Test
+    void onCacheInvalidation_ShouldDropCachedArticles_OnlyForRemoteEvents() {
+        when(categoryRepository.findAll(Sort.by("name"))).thenReturn(List.of(sport));
+        when(articleRepository.findLatestIdsPerCategory(Set.of(1L), 3)).thenReturn(List.of(row(1L, 10L)));
+        when(articleRepository.findWithRelationsByIdIn(Set.of(10L))).thenReturn(List.of(match));
+        categoryOverviewService.overview();
+
+        categoryOverviewService.onCacheInvalidation(CacheInvalidationEvent.local(CacheInvalidationEvent.CATEGORY, 1L));
+        categoryOverviewService.overview();
+        categoryOverviewService.onCacheInvalidation(new CacheInvalidationEvent(CacheInvalidationEvent.CATEGORY, 1L, true));
+        categoryOverviewService.overview();
+
+        verify(articleRepository, times(2)).findLatestIdsPerCategory(Set.of(1L), 3);
+    }
+
+    @Test
+    void articleChanged_ShouldDoNothing_WithoutCategories() {
+        categoryOverviewService.articleChanged(List.of());
+
+        verifyNoInteractions(categoryRepository);
+    }
+
+    private static PublishedStats stats(Long categoryId, Long count, Instant lastPublishedAt) {
+        return new PublishedStats() {
+            @Override
+            public Long getCategoryId() {
+                return categoryId;
+            }
+
+            @Override
+            public Long getPublishedArticleCount() {
+                return count;
+            }
+
+            @Override
+            public Instant getLastPublishedAt() {
+                return lastPublishedAt;
+            }
+        };
+    }
+
+    private static CategoryArticleId row(Long categoryId, Long articleId) {
+        return new CategoryArticleId() {
+            @Override
+            public Long getCategoryId() {
+                return categoryId;
+            }
+
+            @Override
+            public Long getArticleId() {
+                return articleId;
+            }
+        };
+    }
+}
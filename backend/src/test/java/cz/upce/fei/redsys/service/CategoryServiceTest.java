@@ -6,6 +6,7 @@ import cz.upce.fei.redsys.dto.CategoryDto.CreateCategoryRequest;
 import cz.upce.fei.redsys.dto.CategoryDto.PaginatedCategoryResponse;
 import cz.upce.fei.redsys.dto.CategoryDto.UpdateCategoryRequest;
 import cz.upce.fei.redsys.repository.CategoryRepository;
+import cz.upce.fei.redsys.search.SuggestionIndex;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -36,6 +37,9 @@ class CategoryServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private SuggestionIndex suggestionIndex;
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -232,6 +236,7 @@ class CategoryServiceTest {
 
         verify(categoryRepository, times(1)).existsById(CATEGORY_ID);
         verify(categoryRepository, times(1)).deleteById(CATEGORY_ID);
+        verify(suggestionIndex).remove(SuggestionIndex.Type.CATEGORY, CATEGORY_ID);
     }
 
     @Test
@@ -252,13 +257,13 @@ class CategoryServiceTest {
         category2.setId(2L);
         category2.setName("Science");
 
-        when(categoryRepository.findAllById(ids))
+        when(categoryRepository.findAllCachedById(ids))
                 .thenReturn(List.of(category, category2));
 
         List<Category> result = categoryService.findAllByIds(ids);
 
         assertNotNull(result);
         assertEquals(2, result.size());
-        verify(categoryRepository, times(1)).findAllById(ids);
+        verify(categoryRepository, times(1)).findAllCachedById(ids);
     }
 }
@@ -0,0 +1,189 @@
+package cz.upce.fei.redsys.service;
+
+import cz.upce.fei.redsys.domain.Image;
+import cz.upce.fei.redsys.dto.ImageDto.BulkDeleteImagesRequest;
+import cz.upce.fei.redsys.dto.ImageDto.BulkDeleteImagesResponse;
+import cz.upce.fei.redsys.dto.ImageDto.ImageSliceResponse;
+import cz.upce.fei.redsys.dto.ScrollDto.Cursor;
+import cz.upce.fei.redsys.repository.ImageRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageServiceTest {
+
+    private static final String HASH = "a".repeat(64);
+    private static final String FILENAME = HASH + ".png";
+
+    @Mock
+    private ImageRepository imageRepository;
+
+    @Mock
+    private FileStorageService fileStorageService;
+
+    @InjectMocks
+    private ImageService imageService;
+
+    private final MockMultipartFile file = new MockMultipartFile("file", "Photo.PNG", "image/png", new byte[]{1, 2, 3});
+
+    @Test
+    void upload_ShouldStoreNewImage_UnderContentHash() {
+        when(fileStorageService.hash(file)).thenReturn(HASH);
+        when(imageRepository.acquireReference(HASH)).thenReturn(0);
+        when(fileStorageService.store(file, FILENAME)).thenReturn("/images/aa/" + FILENAME);
+        when(imageRepository.saveAndFlush(any(Image.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Image image = imageService.upload(file);
+
+        assertEquals(FILENAME, image.getFilename());
+        assertEquals(HASH, image.getContentHash());
+        assertEquals("Photo.PNG", image.getOriginalFilename());
+        assertEquals(1, image.getReferenceCount());
+    }
+
+    @Test
+    void upload_ShouldReuseExistingImage_ForDuplicateContent() {
+        Image existing = image(2);
+        when(fileStorageService.hash(file)).thenReturn(HASH);
+        when(imageRepository.acquireReference(HASH)).thenReturn(1);
+        when(imageRepository.findByContentHash(HASH)).thenReturn(Optional.of(existing));
+        when(fileStorageService.exists(FILENAME)).thenReturn(true);
+
+        Image image = imageService.upload(file);
+
+        assertSame(existing, image);
+        verify(fileStorageService, never()).store(any(), any());
+        verify(imageRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void upload_ShouldStoreFileAgain_WhenRevivedImageWasAlreadySwept() {
+        Image existing = image(1);
+        when(fileStorageService.hash(file)).thenReturn(HASH);
+        when(imageRepository.acquireReference(HASH)).thenReturn(1);
+        when(imageRepository.findByContentHash(HASH)).thenReturn(Optional.of(existing));
+        when(fileStorageService.exists(FILENAME)).thenReturn(false);
+
+        Image image = imageService.upload(file);
+
+        assertSame(existing, image);
+        verify(fileStorageService).store(file, FILENAME);
+        verify(imageRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void upload_ShouldReportConflict_WhenSameContentIsInsertedConcurrently() {
+        when(fileStorageService.hash(file)).thenReturn(HASH);
+        when(imageRepository.acquireReference(HASH)).thenReturn(0);
+        when(imageRepository.saveAndFlush(any(Image.class))).thenThrow(new DataIntegrityViolationException("uk_images_content_hash"));
+
+        assertThrows(IllegalStateException.class, () -> imageService.upload(file));
+    }
+
+    @Test
+    void upload_ShouldRejectDisallowedType_BeforeHashing() {
+        MockMultipartFile text = new MockMultipartFile("file", "notes.txt", "text/plain", new byte[]{1});
+
+        assertThrows(IllegalArgumentException.class, () -> imageService.upload(text));
+        verifyNoInteractions(fileStorageService, imageRepository);
+    }
+
+    @Test
+    void delete_ShouldReleaseOneReference() {
+        when(imageRepository.releaseReferences(eq(List.of(FILENAME)), any(Instant.class))).thenReturn(1);
+
+        imageService.delete(FILENAME);
+
+        verify(imageRepository).releaseReferences(eq(List.of(FILENAME)), any(Instant.class));
+    }
+
+    @Test
+    void delete_ShouldThrow_WhenNothingWasReleased() {
+        when(imageRepository.releaseReferences(eq(List.of(FILENAME)), any(Instant.class))).thenReturn(0);
+
+        assertThrows(EntityNotFoundException.class, () -> imageService.delete(FILENAME));
+    }
+
+    @Test
+    void bulkDelete_ShouldReleaseEachNameOnce_AndReportReleasedCount() {
+        when(imageRepository.releaseReferences(eq(Set.of(FILENAME, "missing.png")), any(Instant.class))).thenReturn(1);
+
+        BulkDeleteImagesResponse response = imageService.bulkDelete(
+                new BulkDeleteImagesRequest(List.of(FILENAME, FILENAME, "missing.png")));
+
+        assertEquals(2, response.requested());
+        assertEquals(1, response.deleted());
+    }
+
+    @Test
+    void scroll_ShouldReturnCursor_WhenMoreImagesExist() {
+        Instant uploadedAt = Instant.parse("2026-03-01T10:00:00Z");
+        Image newer = image(1);
+        newer.setUploadedAt(uploadedAt);
+        Image older = image(1);
+        older.setId(2L);
+        older.setUploadedAt(uploadedAt.minusSeconds(60));
+        when(imageRepository.findLatest(Limit.of(2))).thenReturn(List.of(newer, older));
+
+        ImageSliceResponse response = imageService.scroll(null, 1);
+
+        assertEquals(1, response.images().size());
+        assertEquals(1L, response.images().getFirst().id());
+        assertTrue(response.hasNext());
+        Cursor cursor = Cursor.decode(response.nextCursor());
+        assertEquals(uploadedAt, cursor.instantKey());
+        assertEquals(1L, cursor.id());
+    }
+
+    @Test
+    void scroll_ShouldReturnLastPage_AfterCursor() {
+        Instant uploadedAt = Instant.parse("2026-03-01T10:00:00Z");
+        String cursor = Cursor.of(uploadedAt, 1L).encode();
+        Image older = image(1);
+        older.setId(2L);
+        when(imageRepository.findLatestAfter(uploadedAt, 1L, Limit.of(21))).thenReturn(List.of(older));
+
+        ImageSliceResponse response = imageService.scroll(cursor, 20);
+
+        assertEquals(1, response.images().size());
+        assertEquals(2L, response.images().getFirst().id());
+        assertFalse(response.hasNext());
+        assertNull(response.nextCursor());
+        verify(imageRepository, never()).findLatest(any());
+    }
+
+    @Test
+    void scroll_ShouldThrow_WhenCursorIsInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> imageService.scroll("not a cursor", 20));
+        verifyNoInteractions(imageRepository);
+    }
+
+    private static Image image(int references) {
+        return Image.builder()
+                .id(1L)
+                .filename(FILENAME)
+                .originalFilename("photo.png")
+                .contentType("image/png")
+                .fileSize(3L)
+                .path("/images/aa/" + FILENAME)
+                .contentHash(HASH)
+                .referenceCount(references)
+                .build();
+    }
+}
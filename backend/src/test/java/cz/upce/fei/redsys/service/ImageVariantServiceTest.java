@@ -0,0 +1,148 @@
+package cz.upce.fei.redsys.service;
+
+import cz.upce.fei.redsys.dto.ImageDto.DownloadResource;
+import cz.upce.fei.redsys.dto.ImageDto.VariantResource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageVariantServiceTest {
+
+    private static final String FILENAME = "photo.png";
+
+    @TempDir
+    Path storage;
+
+    @Mock
+    private ImageService imageService;
+
+    private FileStorageService fileStorageService;
+    private ImageVariantService imageVariantService;
+
+    @BeforeEach
+    void setUp() {
+        fileStorageService = new FileStorageService(storage.toString());
+        fileStorageService.init();
+        imageVariantService = new ImageVariantService(imageService, fileStorageService, 1, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageVariantService.shutdown();
+    }
+
+    @Test
+    void get_ShouldScaleDownToRoundedWidth_AndStoreVariant() throws IOException {
+        DownloadResource original = original(FILENAME, "image/png", png(800, 400));
+        when(imageService.get(FILENAME)).thenReturn(original);
+
+        VariantResource variant = imageVariantService.get(FILENAME, 300, null);
+
+        assertTrue(variant.resized());
+        assertEquals("image/png", variant.resource().contentType());
+        assertEquals(fileStorageService.variant(FILENAME, "w320.png"), variant.resource().path());
+        BufferedImage scaled = ImageIO.read(variant.resource().path().toFile());
+        assertEquals(320, scaled.getWidth());
+        assertEquals(160, scaled.getHeight());
+        assertEquals(Files.size(variant.resource().path()), variant.resource().contentLength());
+        assertEquals(FILENAME, variant.resource().originalFilename());
+    }
+
+    @Test
+    void get_ShouldRoundWidthsUpToNextStep_AndNeverScaleUp() throws IOException {
+        when(imageService.get(FILENAME)).thenReturn(original(FILENAME, "image/png", png(800, 400)));
+
+        assertEquals(fileStorageService.variant(FILENAME, "w160.png"), imageVariantService.get(FILENAME, 1, null).resource().path());
+        assertEquals(fileStorageService.variant(FILENAME, "w640.png"), imageVariantService.get(FILENAME, 640, null).resource().path());
+
+        VariantResource largest = imageVariantService.get(FILENAME, 5000, null);
+        assertEquals(fileStorageService.variant(FILENAME, "w1600.png"), largest.resource().path());
+        assertEquals(800, ImageIO.read(largest.resource().path().toFile()).getWidth());
+    }
+
+    @Test
+    void get_ShouldConvertFormat_AndReuseStoredVariant() throws IOException {
+        when(imageService.get(FILENAME)).thenReturn(original(FILENAME, "image/png", png(400, 400)));
+
+        VariantResource first = imageVariantService.get(FILENAME, 160, "JPEG");
+        long modified = Files.getLastModifiedTime(first.resource().path()).toMillis();
+        VariantResource second = imageVariantService.get(FILENAME, 100, "jpeg");
+
+        assertEquals("image/jpeg", first.resource().contentType());
+        assertEquals(fileStorageService.variant(FILENAME, "w160.jpg"), first.resource().path());
+        assertEquals(first.resource().path(), second.resource().path());
+        assertEquals(modified, Files.getLastModifiedTime(second.resource().path()).toMillis());
+    }
+
+    @Test
+    void get_ShouldServeOriginal_WhenImageCannotBeDecoded() throws IOException {
+        DownloadResource original = original(FILENAME, "image/png", new byte[]{1, 2, 3, 4});
+        when(imageService.get(FILENAME)).thenReturn(original);
+
+        VariantResource variant = imageVariantService.get(FILENAME, 320, null);
+
+        assertFalse(variant.resized());
+        assertSame(original, variant.resource());
+        assertFalse(Files.exists(fileStorageService.variant(FILENAME, "w320.png")));
+    }
+
+    @Test
+    void get_ShouldServeOriginal_ForFormatWithoutVariants() throws IOException {
+        DownloadResource original = original("anim.gif", "image/gif", new byte[]{1});
+        when(imageService.get("anim.gif")).thenReturn(original);
+
+        VariantResource variant = imageVariantService.get("anim.gif", 320, null);
+
+        assertFalse(variant.resized());
+        assertSame(original, variant.resource());
+    }
+
+    @Test
+    void get_ShouldServeOriginal_WhenResizeIsRejected() throws IOException {
+        DownloadResource original = original(FILENAME, "image/png", png(800, 400));
+        when(imageService.get(FILENAME)).thenReturn(original);
+        imageVariantService.shutdown();
+
+        VariantResource variant = imageVariantService.get(FILENAME, 320, null);
+
+        assertFalse(variant.resized());
+        assertSame(original, variant.resource());
+    }
+
+    @Test
+    void validate_ShouldRejectInvalidWidthAndFormat() {
+        assertThrows(IllegalArgumentException.class, () -> imageVariantService.validate(0, null));
+        assertThrows(IllegalArgumentException.class, () -> imageVariantService.validate(null, "gif"));
+        assertDoesNotThrow(() -> imageVariantService.validate(320, "PNG"));
+        assertThrows(IllegalArgumentException.class, () -> imageVariantService.get(FILENAME, -5, null));
+        verifyNoInteractions(imageService);
+    }
+
+    private DownloadResource original(String fileName, String contentType, byte[] content) throws IOException {
+        Path path = storage.resolve(fileName);
+        Files.write(path, content);
+        return new DownloadResource(path, contentType, content.length, fileName);
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,168 @@
+package cz.upce.fei.redsys.service;
+
+import cz.upce.fei.redsys.cache.CacheInvalidationEvent;
+import cz.upce.fei.redsys.domain.ArticleState;
+import cz.upce.fei.redsys.domain.Category;
+import cz.upce.fei.redsys.domain.User;
+import cz.upce.fei.redsys.dto.SuggestionDto.SuggestionListResponse;
+import cz.upce.fei.redsys.dto.SuggestionDto.SuggestionResponse;
+import cz.upce.fei.redsys.repository.ArticleRepository;
+import cz.upce.fei.redsys.repository.CategoryRepository;
+import cz.upce.fei.redsys.repository.UserRepository;
+import cz.upce.fei.redsys.search.SuggestionIndex;
+import cz.upce.fei.redsys.search.SuggestionIndex.Type;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SuggestionServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private ArticleRepository articleRepository;
+
+    @Spy
+    private SuggestionIndex suggestionIndex = new SuggestionIndex();
+
+    @Mock
+    private AuthService authService;
+
+    @InjectMocks
+    private SuggestionService suggestionService;
+
+    @BeforeEach
+    void setUp() {
+        suggestionIndex.put(SuggestionIndex.forUser(User.builder().id(1L).username("jnovak").fullName("Jan Novák").build()));
+        suggestionIndex.put(SuggestionIndex.forCategory(category(2L, "Novinky")));
+        suggestionIndex.put(SuggestionIndex.forArticle(3L, "Nová sezóna začíná", ArticleState.PUBLISHED));
+        suggestionIndex.put(SuggestionIndex.forArticle(4L, "Novela zákona", ArticleState.DRAFT));
+    }
+
+    @Test
+    void suggest_ShouldMatchAnyWord_AndHideRestricted_ForReaders() {
+        when(authService.isStaff()).thenReturn(false);
+
+        SuggestionListResponse response = suggestionService.suggest("nov", null, 10);
+
+        assertEquals(List.of(2L, 3L), ids(response));
+    }
+
+    @Test
+    void suggest_ShouldOfferUsersAndDrafts_ForStaff_LabelStartFirst() {
+        when(authService.isStaff()).thenReturn(true);
+
+        SuggestionListResponse response = suggestionService.suggest("Nov", null, 10);
+
+        assertEquals(List.of(2L, 4L, 3L, 1L), ids(response));
+        assertEquals("jnovak", response.suggestions().getLast().detail());
+    }
+
+    @Test
+    void suggest_ShouldFilterTypes_AndMatchPhrases() {
+        when(authService.isStaff()).thenReturn(true);
+
+        assertEquals(List.of(1L), ids(suggestionService.suggest("jan nov", List.of(Type.USER), 10)));
+        assertEquals(List.of(1L), ids(suggestionService.suggest("jnov", null, 10)));
+        assertTrue(suggestionService.suggest("jan nov", List.of(Type.CATEGORY), 10).suggestions().isEmpty());
+    }
+
+    @Test
+    void suggest_ShouldReflectRenamesAndRemovals() {
+        when(authService.isStaff()).thenReturn(false);
+        suggestionIndex.put(SuggestionIndex.forCategory(category(2L, "Sport")));
+        suggestionIndex.remove(Type.ARTICLE, 3L);
+
+        assertTrue(suggestionService.suggest("nov", null, 10).suggestions().isEmpty());
+        assertEquals(List.of(2L), ids(suggestionService.suggest("spo", null, 10)));
+    }
+
+    @Test
+    void suggest_ShouldLimitResults() {
+        when(authService.isStaff()).thenReturn(true);
+
+        assertEquals(2, suggestionService.suggest("nov", null, 2).suggestions().size());
+    }
+
+    @Test
+    void suggest_ShouldFindPublicEntries_BehindManyRestrictedOnes() {
+        when(authService.isStaff()).thenReturn(false);
+        for (long id = 1000; id < 1600; id++) {
+            suggestionIndex.put(SuggestionIndex.forArticle(id, "Nováček " + id, ArticleState.DRAFT));
+        }
+        suggestionIndex.put(SuggestionIndex.forArticle(5L, "Nový stadion", ArticleState.PUBLISHED));
+
+        assertEquals(List.of(2L, 5L, 3L), ids(suggestionService.suggest("nov", List.of(Type.ARTICLE, Type.CATEGORY), 10)));
+    }
+
+    @Test
+    void suggest_ShouldRankLabelStarts_BeforeManyLaterWords() {
+        when(authService.isStaff()).thenReturn(true);
+        for (long id = 1000; id < 1600; id++) {
+            suggestionIndex.put(SuggestionIndex.forArticle(id, "Zpráva " + id + " zzz", ArticleState.PUBLISHED));
+        }
+        suggestionIndex.put(SuggestionIndex.forArticle(5L, "Zzz", ArticleState.PUBLISHED));
+
+        assertEquals(5L, ids(suggestionService.suggest("zzz", null, 1)).getFirst());
+    }
+
+    @Test
+    void suggest_ShouldRejectBlankQuery() {
+        assertThrows(IllegalArgumentException.class, () -> suggestionService.suggest(" ", null, 10));
+        verifyNoInteractions(authService);
+    }
+
+    @Test
+    void rebuild_ShouldLoadEverythingFromDatabase() {
+        when(userRepository.findAll()).thenReturn(List.of());
+        when(categoryRepository.findAll()).thenReturn(List.of(category(5L, "Kultura")));
+        when(articleRepository.findAllTitles()).thenReturn(List.of());
+
+        suggestionService.rebuild();
+
+        assertEquals(1, suggestionIndex.size());
+        assertTrue(suggestionIndex.suggest("nov", Set.of(Type.CATEGORY), true, 10).isEmpty());
+    }
+
+    @Test
+    void onCacheInvalidation_ShouldReloadEntriesChangedOnAnotherNode() {
+        when(authService.isStaff()).thenReturn(false);
+        when(categoryRepository.findById(2L)).thenReturn(Optional.of(category(2L, "Sport")));
+        when(articleRepository.findById(3L)).thenReturn(Optional.empty());
+
+        suggestionService.onCacheInvalidation(new CacheInvalidationEvent(CacheInvalidationEvent.CATEGORY, 2L, true));
+        suggestionService.onCacheInvalidation(new CacheInvalidationEvent(CacheInvalidationEvent.ARTICLE, 3L, true));
+        suggestionService.onCacheInvalidation(CacheInvalidationEvent.local(CacheInvalidationEvent.USER, 1L));
+
+        assertTrue(suggestionService.suggest("nov", null, 10).suggestions().isEmpty());
+        assertEquals(List.of(2L), ids(suggestionService.suggest("spo", null, 10)));
+        verifyNoInteractions(userRepository);
+    }
+
+    private static Category category(Long id, String name) {
+        Category category = new Category();
+        category.setId(id);
+        category.setName(name);
+        return category;
+    }
+
+    private static List<Long> ids(SuggestionListResponse response) {
+        return response.suggestions().stream().map(SuggestionResponse::id).toList();
+    }
+}
@@ -142,8 +142,8 @@ class TicketCommentServiceTest {
                 new CreateTicketCommentRequest("New comment");
 
         when(ticketService.requireTicketById(TICKET_ID)).thenReturn(ticket);
-        when(commentRepository.findMaxTicketCommentNumberByTicket(ticket))
-                .thenReturn(COMMENT_NUMBER_2);
+        when(ticketService.allocateCommentNumber(ticket))
+                .thenReturn(COMMENT_NUMBER_2 + 1);
         when(authService.currentUser()).thenReturn(author);
         when(commentRepository.save(any(TicketComment.class))).thenAnswer(invocation -> {
             TicketComment c = invocation.getArgument(0);
@@ -159,8 +159,7 @@ class TicketCommentServiceTest {
         assertEquals(COMMENT_NUMBER_2 + 1, response.number());
         assertEquals(author.getId(), response.author().id());
         verify(ticketService, times(1)).requireTicketById(TICKET_ID);
-        verify(commentRepository, times(1))
-                .findMaxTicketCommentNumberByTicket(ticket);
+        verify(ticketService, times(1)).allocateCommentNumber(ticket);
         verify(commentRepository, times(1)).save(any(TicketComment.class));
     }
 
@@ -1,8 +1,10 @@
 package cz.upce.fei.redsys.service;
 
 import cz.upce.fei.redsys.domain.*;
+import cz.upce.fei.redsys.dto.ScrollDto.Cursor;
 import cz.upce.fei.redsys.dto.TicketDto.CreateTicketRequest;
 import cz.upce.fei.redsys.dto.TicketDto.PaginatedTicketResponse;
+import cz.upce.fei.redsys.dto.TicketDto.TicketSliceResponse;
 import cz.upce.fei.redsys.dto.TicketDto.UpdateTicketRequest;
 import cz.upce.fei.redsys.repository.TicketRepository;
 import jakarta.persistence.EntityNotFoundException;
@@ -12,10 +14,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -115,6 +119,23 @@ public class TicketServiceTest {
         verify(ticketRepository, times(1)).findById(TICKET_ID);
     }
 
+    @Test
+    void allocateCommentNumber_ShouldReturnIncrementedCounter() {
+        when(ticketRepository.incrementCommentCounter(TICKET_ID)).thenReturn(1);
+        when(ticketRepository.findCommentCounter(TICKET_ID)).thenReturn(4);
+
+        assertEquals(4, ticketService.allocateCommentNumber(mockTicket));
+        verify(ticketRepository, times(1)).incrementCommentCounter(TICKET_ID);
+    }
+
+    @Test
+    void allocateCommentNumber_ShouldThrowNotFound_WhenTicketDeleted() {
+        when(ticketRepository.incrementCommentCounter(TICKET_ID)).thenReturn(0);
+
+        assertThrows(EntityNotFoundException.class, () -> ticketService.allocateCommentNumber(mockTicket));
+        verify(ticketRepository, never()).findCommentCounter(any());
+    }
+
     @Test
     void get_ShouldThrowNotFound_WhenTicketDoesNotExist() {
         when(ticketRepository.findById(TICKET_ID)).thenReturn(Optional.empty());
@@ -215,4 +236,42 @@ public class TicketServiceTest {
         verify(ticketRepository, never()).findByAssignee(any(), any());
         verify(ticketRepository, never()).findByAuthor(any(), any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void scroll_ShouldReturnCursor_WhenMoreTicketsExist() {
+        Instant createdAt = Instant.parse("2026-03-01T10:00:00Z");
+        Ticket newer = Ticket.builder().id(11L).title("Newer").state(TicketState.OPEN).createdAt(createdAt).build();
+        mockTicket.setCreatedAt(createdAt.minusSeconds(60));
+        when(ticketRepository.findLatest(Limit.of(2))).thenReturn(List.of(newer, mockTicket));
+
+        TicketSliceResponse response = ticketService.scroll(null, 1);
+
+        assertEquals(1, response.tickets().size());
+        assertEquals(11L, response.tickets().getFirst().id());
+        assertTrue(response.hasNext());
+        Cursor cursor = Cursor.decode(response.nextCursor());
+        assertEquals(createdAt, cursor.instantKey());
+        assertEquals(11L, cursor.id());
+    }
+
+    @Test
+    void scroll_ShouldReturnLastPage_AfterCursor() {
+        Instant createdAt = Instant.parse("2026-03-01T10:00:00Z");
+        String cursor = Cursor.of(createdAt, 11L).encode();
+        when(ticketRepository.findLatestAfter(createdAt, 11L, Limit.of(21))).thenReturn(List.of(mockTicket));
+
+        TicketSliceResponse response = ticketService.scroll(cursor, 20);
+
+        assertEquals(1, response.tickets().size());
+        assertEquals(TICKET_ID, response.tickets().getFirst().id());
+        assertFalse(response.hasNext());
+        assertNull(response.nextCursor());
+        verify(ticketRepository, never()).findLatest(any());
+    }
+
+    @Test
+    void scroll_ShouldThrow_WhenCursorIsInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> ticketService.scroll("not a cursor", 20));
+        verifyNoInteractions(ticketRepository);
+    }
+}
@@ -3,18 +3,24 @@ package cz.upce.fei.redsys.service;
 import cz.upce.fei.redsys.domain.User;
 import cz.upce.fei.redsys.domain.UserRole;
 import cz.upce.fei.redsys.repository.UserRepository;
+import cz.upce.fei.redsys.search.SuggestionIndex;
+import cz.upce.fei.redsys.security.PrincipalCache;
 import cz.upce.fei.redsys.dto.UserDto.UserResponse;
+import cz.upce.fei.redsys.dto.UserDto.UserSliceResponse;
+import cz.upce.fei.redsys.dto.ScrollDto.Cursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.*;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -31,6 +37,12 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private SuggestionIndex suggestionIndex;
+
     @InjectMocks
     private UserService userService;
 
@@ -176,6 +188,7 @@ class UserServiceTest {
         verify(userRepository, times(1)).findByUsername(USERNAME);
         verify(userRepository, times(1)).findByEmail(EMAIL);
         verify(userRepository, times(1)).save(any(User.class));
+        verify(suggestionIndex).put(SuggestionIndex.forUser(result));
     }
 
     @Test
@@ -213,6 +226,7 @@ class UserServiceTest {
 
         assertEquals(newHashedPassword, activeUser.getPassword());
         verify(userRepository, times(1)).save(activeUser);
+        verify(principalCache, times(1)).evict(USERNAME);
     }
 
     // requireUserByIdentifier
@@ -262,6 +276,7 @@ class UserServiceTest {
         assertEquals(1L, result.id());
         assertFalse(activeUser.isActive());
         verify(userRepository).save(activeUser);
+        verify(principalCache).evict("john");
     }
 
     @Test
@@ -271,6 +286,7 @@ class UserServiceTest {
 
         assertThrows(AccessDeniedException.class,
                 () -> userService.blockUser("missing"));
+        verify(principalCache, never()).evict(anyString());
     }
 
     // unblockUser
@@ -288,5 +304,35 @@ class UserServiceTest {
         assertEquals(2L, result.id());
         assertTrue(inactiveUser.isActive());
         verify(userRepository).save(inactiveUser);
+        verify(principalCache).evict("inactive");
+    }
+
+    @Test
+    void scroll_ShouldReturnCursor_WhenMoreUsersExist() {
+        when(userRepository.findAllByOrderByUsernameAsc(Limit.of(2))).thenReturn(List.of(inactiveUser, activeUser));
+
+        UserSliceResponse response = userService.scroll(null, 1);
+
+        assertEquals(1, response.users().size());
+        assertEquals("inactive", response.users().getFirst().username());
+        assertTrue(response.hasNext());
+        Cursor cursor = Cursor.decode(response.nextCursor());
+        assertEquals("inactive", cursor.key());
+        assertEquals(2L, cursor.id());
+    }
+
+    @Test
+    void scroll_ShouldReturnLastPage_AfterCursor() {
+        String cursor = new Cursor("inactive", 2L).encode();
+        when(userRepository.findByUsernameGreaterThanOrderByUsernameAsc("inactive", Limit.of(21)))
+                .thenReturn(List.of(activeUser));
+
+        UserSliceResponse response = userService.scroll(cursor, 20);
+
+        assertEquals(1, response.users().size());
+        assertEquals(USERNAME, response.users().getFirst().username());
+        assertFalse(response.hasNext());
+        assertNull(response.nextCursor());
+        verify(userRepository, never()).findAllByOrderByUsernameAsc(any());
     }
 }
@@ -0,0 +1,83 @@
+package cz.upce.fei.redsys.service;
+
+import cz.upce.fei.redsys.repository.ArticleVersionRepository.RetentionCandidate;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionRetentionPolicyTest {
+
+    private static final Instant NOW = Instant.parse("2025-06-30T12:00:00Z");
+
+    private final VersionRetentionPolicy policy = new VersionRetentionPolicy(Duration.ofDays(30), Duration.ofDays(180));
+
+    @Test
+    void selectForDeletion_ShouldKeepEverything_WithinKeepAllWindow() {
+        List<RetentionCandidate> versions = List.of(
+                candidate(1, daysAgo(10), null, false),
+                candidate(2, daysAgo(10), 1, false),
+                candidate(3, daysAgo(1), 1, false));
+
+        assertTrue(policy.selectForDeletion(versions, NOW).isEmpty());
+    }
+
+    @Test
+    void selectForDeletion_ShouldKeepNewestPerDay_AfterKeepAllWindow() {
+        List<RetentionCandidate> versions = List.of(
+                candidate(1, daysAgo(40), null, false),
+                candidate(2, daysAgo(40).plusSeconds(60), null, false),
+                candidate(3, daysAgo(40).plusSeconds(120), null, false),
+                candidate(4, daysAgo(39), null, false));
+
+        assertEquals(List.of(1L, 2L), policy.selectForDeletion(versions, NOW));
+    }
+
+    @Test
+    void selectForDeletion_ShouldKeepNewestPerWeek_AfterDailyWindow() {
+        // 2024-12-02 is a Monday
+        Instant monday = Instant.parse("2024-12-02T08:00:00Z");
+        List<RetentionCandidate> versions = List.of(
+                candidate(1, monday, null, false),
+                candidate(2, monday.plus(Duration.ofDays(3)), null, false),
+                candidate(3, monday.plus(Duration.ofDays(7)), null, false),
+                candidate(4, daysAgo(1), null, false));
+
+        assertEquals(List.of(1L), policy.selectForDeletion(versions, NOW));
+    }
+
+    @Test
+    void selectForDeletion_ShouldKeepRetainedLatestAndReferencedSnapshots() {
+        List<RetentionCandidate> versions = List.of(
+                candidate(1, daysAgo(50), null, false),
+                candidate(2, daysAgo(50).plusSeconds(60), null, true),
+                candidate(3, daysAgo(50).plusSeconds(120), 1, false),
+                candidate(4, daysAgo(45), null, false),
+                candidate(5, daysAgo(45).plusSeconds(60), 4, false));
+
+        assertTrue(policy.selectForDeletion(versions, NOW).isEmpty());
+    }
+
+    @Test
+    void constructor_ShouldReject_WhenDailyShorterThanKeepAll() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new VersionRetentionPolicy(Duration.ofDays(30), Duration.ofDays(7)));
+    }
+
+    private static Instant daysAgo(int days) {
+        return NOW.minus(Duration.ofDays(days));
+    }
+
+    private static RetentionCandidate candidate(int versionNumber, Instant createdAt, Integer base, boolean retained) {
+        return new RetentionCandidate() {
+            public Long getId() { return (long) versionNumber; }
+            public Integer getVersionNumber() { return versionNumber; }
+            public Integer getBaseVersionNumber() { return base; }
+            public Instant getCreatedAt() { return createdAt; }
+            public boolean isRetained() { return retained; }
+        };
+    }
+}
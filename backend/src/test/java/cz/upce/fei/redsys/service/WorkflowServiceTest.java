@@ -1,18 +1,25 @@
 package cz.upce.fei.redsys.service;
 
 import cz.upce.fei.redsys.domain.*;
-import cz.upce.fei.redsys.dto.TicketCommentDto.CreateTicketCommentRequest;
+import cz.upce.fei.redsys.dto.TicketDto.BulkTransitionRequest;
+import cz.upce.fei.redsys.dto.TicketDto.BulkTransitionResponse;
 import cz.upce.fei.redsys.dto.TicketDto.TicketResponse;
 import cz.upce.fei.redsys.repository.ArticleRepository;
 import cz.upce.fei.redsys.repository.TicketRepository;
+import cz.upce.fei.redsys.service.WorkflowService.PublicationScheduled;
 import cz.upce.fei.redsys.service.WorkflowService.WorkflowException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -37,10 +44,19 @@ class WorkflowServiceTest {
     private ArticleVersionService articleVersionService;
 
     @Mock
-    private TicketService ticketService;
+    private TicketCommentService ticketCommentService;
 
     @Mock
-    private TicketCommentService ticketCommentService;
+    private PublishedArticleService publishedArticleService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ArticleSearchService articleSearchService;
+
+    @Mock
+    private CategoryOverviewService categoryOverviewService;
 
     @InjectMocks
     private WorkflowService workflowService;
@@ -102,7 +118,7 @@ class WorkflowServiceTest {
     void transition_ShouldReturnSameResponse_WhenStateUnchanged() {
         ticket.setState(TicketState.OPEN);
 
-        when(ticketService.requireTicketById(TICKET_ID)).thenReturn(ticket);
+        when(ticketRepository.findWithArticleById(TICKET_ID)).thenReturn(Optional.of(ticket));
         when(authService.currentUser()).thenReturn(chiefEditor);
 
         TicketResponse response =
@@ -111,7 +127,7 @@ class WorkflowServiceTest {
         assertNotNull(response);
         assertEquals(TicketState.OPEN, response.state());
         verify(ticketRepository, never()).save(any());
-        verify(ticketCommentService, never()).createComment(anyLong(), any());
+        verify(ticketCommentService, never()).addComment(any(), any(), anyString());
     }
 
     @Test
@@ -119,7 +135,7 @@ class WorkflowServiceTest {
         ticket.setState(TicketState.OPEN);
         ticket.setAssignee(editor);
 
-        when(ticketService.requireTicketById(TICKET_ID)).thenReturn(ticket);
+        when(ticketRepository.findWithArticleById(TICKET_ID)).thenReturn(Optional.of(ticket));
         when(authService.currentUser()).thenReturn(editor);
         when(ticketRepository.save(any(Ticket.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -138,7 +154,7 @@ class WorkflowServiceTest {
     void transition_OpenToInProgress_ShouldThrowAccessDenied_WhenUserNotAllowedRole() {
         ticket.setState(TicketState.OPEN);
 
-        when(ticketService.requireTicketById(TICKET_ID)).thenReturn(ticket);
+        when(ticketRepository.findWithArticleById(TICKET_ID)).thenReturn(Optional.of(ticket));
         User normalUser = User.builder()
                 .id(10L)
                 .username("user")
@@ -157,7 +173,7 @@ class WorkflowServiceTest {
         ticket.setState(TicketState.OPEN);
         ticket.setAssignee(otherEditor);
 
-        when(ticketService.requireTicketById(TICKET_ID)).thenReturn(ticket);
+        when(ticketRepository.findWithArticleById(TICKET_ID)).thenReturn(Optional.of(ticket));
         when(authService.currentUser()).thenReturn(editor);
 
         assertThrows(AccessDeniedException.class,
@@ -172,19 +188,10 @@ class WorkflowServiceTest {
         ticket.setAssignee(editor);
         article.setArticleState(ArticleState.DRAFT);
 
-        ArticleVersion latestVersion = ArticleVersion.builder()
-                .id(100L)
-                .article(article)
-                .versionNumber(1)
-                .content("Current content")
-                .build();
-
-        when(ticketService.requireTicketById(TICKET_ID)).thenReturn(ticket);
+        when(ticketRepository.findWithArticleById(TICKET_ID)).thenReturn(Optional.of(ticket));
         when(authService.currentUser()).thenReturn(editor);
         when(ticketRepository.save(any(Ticket.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(articleVersionService.getLatestVersion(article)).thenReturn(latestVersion);
-        when(articleVersionService.createNewVersionIfChanged(article, "Current content"))
-                .thenReturn(latestVersion);
+        when(articleVersionService.retainLatest(article)).thenReturn(1);
 
         TicketResponse response =
                 workflowService.transition(TICKET_ID, TicketState.FOR_REVIEW, "Ready for review");
@@ -193,12 +200,10 @@ class WorkflowServiceTest {
         assertEquals(TicketState.FOR_REVIEW, response.state());
         assertEquals(ArticleState.IN_REVIEW, article.getArticleState());
         verify(articleRepository, times(1)).save(article);
-        verify(articleVersionService, times(1)).getLatestVersion(article);
-        verify(articleVersionService, times(1))
-                .createNewVersionIfChanged(article, "Current content");
+        verify(articleVersionService, times(1)).retainLatest(article);
+        verify(articleVersionService, never()).getLatestVersion(any());
         verify(ticketRepository, times(1)).save(ticket);
-        verify(ticketCommentService, times(1))
-                .createComment(eq(TICKET_ID), any(CreateTicketCommentRequest.class));
+        verify(ticketCommentService, times(1)).addComment(ticket, editor, "Ready for review");
     }
 
     @Test
@@ -207,7 +212,7 @@ class WorkflowServiceTest {
         ticket.setAssignee(editor);
         article.setArticleState(ArticleState.IN_REVIEW);
 
-        when(ticketService.requireTicketById(TICKET_ID)).thenReturn(ticket);
+        when(ticketRepository.findWithArticleById(TICKET_ID)).thenReturn(Optional.of(ticket));
         when(authService.currentUser()).thenReturn(editor);
         when(ticketRepository.save(any(Ticket.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -218,7 +223,7 @@ class WorkflowServiceTest {
         assertEquals(TicketState.IN_PROGRESS, response.state());
         assertEquals(ArticleState.DRAFT, article.getArticleState());
         verify(articleRepository, times(1)).save(article);
-        verify(articleVersionService, never()).createNewVersionIfChanged(any(), anyString());
+        verify(articleVersionService, never()).retainLatest(any());
     }
 
     @Test
@@ -233,12 +238,10 @@ class WorkflowServiceTest {
                 .content("Approved content")
                 .build();
 
-        when(ticketService.requireTicketById(TICKET_ID)).thenReturn(ticket);
+        when(ticketRepository.findWithArticleById(TICKET_ID)).thenReturn(Optional.of(ticket));
         when(authService.currentUser()).thenReturn(chiefEditor);
         when(ticketRepository.save(any(Ticket.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(articleVersionService.getLatestVersion(article)).thenReturn(latestVersion);
-        when(articleVersionService.createNewVersionIfChanged(article, "Approved content"))
-                .thenReturn(latestVersion);
+        when(articleVersionService.retainLatestWithContent(article)).thenReturn(latestVersion);
 
         TicketResponse response =
                 workflowService.transition(TICKET_ID, TicketState.PUBLISHED, null);
@@ -248,16 +251,17 @@ class WorkflowServiceTest {
         assertEquals(ArticleState.PUBLISHED, article.getArticleState());
         assertNotNull(article.getPublishedAt());
         verify(articleRepository, times(1)).save(article);
-        verify(articleVersionService, times(1)).getLatestVersion(article);
-        verify(articleVersionService, times(1))
-                .createNewVersionIfChanged(article, "Approved content");
+        verify(articleVersionService, times(1)).retainLatestWithContent(article);
+        verify(publishedArticleService, times(1)).refresh(article, latestVersion);
+        verify(articleSearchService, times(1)).updateState(article);
+        verify(categoryOverviewService, times(1)).articleChanged(article);
     }
 
     @Test
     void transition_ShouldThrowWorkflowException_WhenInvalidTransition() {
         ticket.setState(TicketState.OPEN);
 
-        when(ticketService.requireTicketById(TICKET_ID)).thenReturn(ticket);
+        when(ticketRepository.findWithArticleById(TICKET_ID)).thenReturn(Optional.of(ticket));
         when(authService.currentUser()).thenReturn(chiefEditor);
 
         assertThrows(WorkflowException.class,
@@ -270,7 +274,7 @@ class WorkflowServiceTest {
     void transition_ShouldAllowAdminForAnyTargetState_IgnoringRoleRestrictions() {
         ticket.setState(TicketState.OPEN);
 
-        when(ticketService.requireTicketById(TICKET_ID)).thenReturn(ticket);
+        when(ticketRepository.findWithArticleById(TICKET_ID)).thenReturn(Optional.of(ticket));
         when(authService.currentUser()).thenReturn(admin);
         when(ticketRepository.save(any(Ticket.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -286,7 +290,7 @@ class WorkflowServiceTest {
     void transition_ShouldThrowAccessDenied_ForReviewerOnInvalidOwnership() {
         ticket.setState(TicketState.OPEN);
 
-        when(ticketService.requireTicketById(TICKET_ID)).thenReturn(ticket);
+        when(ticketRepository.findWithArticleById(TICKET_ID)).thenReturn(Optional.of(ticket));
         when(authService.currentUser()).thenReturn(reviewer);
 
         assertThrows(AccessDeniedException.class,
@@ -294,4 +298,145 @@ class WorkflowServiceTest {
 
         verify(ticketRepository, never()).save(any());
     }
+
+    @Test
+    void transitionAll_ShouldApplyAllowedTickets_AndReportOthers() {
+        Ticket other = Ticket.builder()
+                .id(2L)
+                .title("Other ticket")
+                .state(TicketState.APPROVED)
+                .author(chiefEditor)
+                .article(article)
+                .build();
+        ticket.setState(TicketState.IN_PROGRESS);
+
+        when(authService.currentUser()).thenReturn(chiefEditor);
+        when(ticketRepository.findAllWithArticleByIdIn(List.of(TICKET_ID, 2L, 3L))).thenReturn(List.of(ticket, other));
+        when(ticketRepository.save(any(Ticket.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        BulkTransitionResponse response = workflowService.transitionAll(
+                new BulkTransitionRequest(List.of(TICKET_ID, 2L, 2L, 3L), TicketState.OPEN, "Back to backlog"));
+
+        assertEquals(3, response.results().size());
+        assertEquals(1, response.succeeded());
+        assertEquals(2, response.failed());
+        assertEquals(TicketState.OPEN, response.results().get(0).ticket().state());
+        assertNull(response.results().get(1).ticket());
+        assertNotNull(response.results().get(1).error());
+        assertEquals("Ticket not found", response.results().get(2).error());
+        verify(authService, times(1)).currentUser();
+        verify(ticketRepository, times(1)).save(ticket);
+        verify(ticketRepository, never()).save(other);
+        verify(ticketCommentService, times(1)).addComment(ticket, chiefEditor, "Back to backlog");
+    }
+
+    @Test
+    void transitionAll_ShouldReportAccessDenied_WithoutApplying() {
+        ticket.setState(TicketState.APPROVED);
+
+        when(authService.currentUser()).thenReturn(reviewer);
+        when(ticketRepository.findAllWithArticleByIdIn(List.of(TICKET_ID))).thenReturn(List.of(ticket));
+
+        BulkTransitionResponse response = workflowService.transitionAll(
+                new BulkTransitionRequest(List.of(TICKET_ID), TicketState.PUBLISHED, null));
+
+        assertEquals(0, response.succeeded());
+        assertEquals(1, response.failed());
+        verify(articleRepository, never()).save(any());
+        verify(publishedArticleService, never()).refresh(any(), any());
+    }
+
+    @Test
+    void schedulePublication_ShouldStoreTimeAndNotifyScheduler() {
+        ticket.setState(TicketState.APPROVED);
+        Instant publishAt = Instant.now().plus(Duration.ofHours(2));
+
+        when(ticketRepository.findWithArticleById(TICKET_ID)).thenReturn(Optional.of(ticket));
+        when(authService.currentUser()).thenReturn(chiefEditor);
+        when(ticketRepository.save(any(Ticket.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TicketResponse response = workflowService.schedulePublication(TICKET_ID, publishAt);
+
+        assertEquals(publishAt, response.scheduledPublishAt());
+        assertEquals(TicketState.APPROVED, response.state());
+        assertEquals(chiefEditor, ticket.getScheduledBy());
+        verify(eventPublisher, times(1)).publishEvent(new PublicationScheduled(TICKET_ID, publishAt));
+        verify(articleRepository, never()).save(any());
+    }
+
+    @Test
+    void schedulePublication_ShouldThrowWorkflowException_WhenTicketNotApproved() {
+        ticket.setState(TicketState.FOR_REVIEW);
+
+        when(ticketRepository.findWithArticleById(TICKET_ID)).thenReturn(Optional.of(ticket));
+        when(authService.currentUser()).thenReturn(chiefEditor);
+
+        assertThrows(WorkflowException.class,
+                () -> workflowService.schedulePublication(TICKET_ID, Instant.now().plus(Duration.ofHours(1))));
+
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void publishDue_ShouldPublishOnlyDueApprovedTickets() {
+        Instant now = Instant.now();
+        ArticleVersion latestVersion = ArticleVersion.builder()
+                .id(100L)
+                .article(article)
+                .versionNumber(3)
+                .content("Approved content")
+                .build();
+        ticket.setState(TicketState.APPROVED);
+        ticket.setScheduledPublishAt(now.minusSeconds(1));
+        ticket.setScheduledBy(chiefEditor);
+        Ticket rescheduled = Ticket.builder()
+                .id(2L)
+                .state(TicketState.APPROVED)
+                .article(article)
+                .scheduledPublishAt(now.plus(Duration.ofHours(1)))
+                .scheduledBy(chiefEditor)
+                .build();
+
+        when(ticketRepository.findAllWithArticleByIdIn(List.of(TICKET_ID, 2L))).thenReturn(List.of(ticket, rescheduled));
+        when(ticketRepository.save(any(Ticket.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(articleVersionService.retainLatestWithContent(article)).thenReturn(latestVersion);
+
+        assertEquals(1, workflowService.publishDue(List.of(TICKET_ID, 2L), now));
+
+        assertEquals(TicketState.PUBLISHED, ticket.getState());
+        assertNull(ticket.getScheduledPublishAt());
+        assertEquals(now.minusSeconds(1), article.getPublishedAt());
+        assertEquals(TicketState.APPROVED, rescheduled.getState());
+        verify(ticketRepository, never()).save(rescheduled);
+        verify(publishedArticleService, times(1)).refresh(article, latestVersion);
+        verify(authService, never()).currentUser();
+    }
+
+    @Test
+    void publishDue_ShouldCancelSchedule_WhenSchedulerMayNoLongerPublish() {
+        Instant now = Instant.now();
+        User blocked = User.builder().id(6L).username("blocked").role(UserRole.CHIEF_EDITOR).active(false).build();
+        ticket.setState(TicketState.APPROVED);
+        ticket.setScheduledPublishAt(now.minusSeconds(1));
+        ticket.setScheduledBy(editor);
+        Ticket ofBlocked = Ticket.builder().id(2L).state(TicketState.APPROVED).article(article)
+                .scheduledPublishAt(now.minusSeconds(1)).scheduledBy(blocked).build();
+        Ticket withoutScheduler = Ticket.builder().id(3L).state(TicketState.APPROVED).article(article)
+                .scheduledPublishAt(now.minusSeconds(1)).build();
+
+        when(ticketRepository.findAllWithArticleByIdIn(List.of(TICKET_ID, 2L, 3L)))
+                .thenReturn(List.of(ticket, ofBlocked, withoutScheduler));
+
+        assertEquals(0, workflowService.publishDue(List.of(TICKET_ID, 2L, 3L), now));
+
+        for (Ticket cancelled : List.of(ticket, ofBlocked, withoutScheduler)) {
+            assertEquals(TicketState.APPROVED, cancelled.getState());
+            assertNull(cancelled.getScheduledPublishAt());
+            assertNull(cancelled.getScheduledBy());
+            verify(ticketRepository).save(cancelled);
+        }
+        assertEquals(ArticleState.DRAFT, article.getArticleState());
+        verify(articleRepository, never()).save(any());
+        verify(publishedArticleService, never()).refresh(any(), any());
+    }
 }